@@ -0,0 +1,55 @@
+package com.backend.pedidos_app.security;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+// Costo por petición de la autenticación JWT: verificación completa de la firma
+// frente al camino con el token ya validado en caché
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        // generateJwtToken registra la versión del usuario, así que no se consulta la base de datos
+        jwtUtils = new JwtUtils(3_600_000, 10_000, 300_000, new TokenVersionRegistry());
+        UserDetailsImpl usuario = new UserDetailsImpl(1L, "admin", "admin@example.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), 0);
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+    }
+
+    @Benchmark
+    public boolean validarFirma() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public List<String> leerRoles() {
+        return jwtUtils.getRolesFromJwtToken(token);
+    }
+
+    @Benchmark
+    public UserDetailsImpl autenticarConCache() {
+        return jwtUtils.autenticar(token);
+    }
+}
@@ -0,0 +1,112 @@
+package com.backend.pedidos_app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.dto.ProductoDto;
+import com.backend.pedidos_app.model.Categoria;
+import com.backend.pedidos_app.model.Producto;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+// CatalogoCache y CatalogoSnapshot sobre la base H2: lectura de la instantánea vigente (lo que hace
+// cada petición del catálogo), reconstrucción completa tras una invalidación (consulta, mapeo e
+// índice), solo la construcción en memoria, y búsqueda con el índice frente al LIKE del repositorio
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogoBenchmark {
+    private static final String BUSQUEDA = "chocolate fresa";
+
+    @Param({"500", "10000"})
+    private int productos;
+
+    private ConfigurableApplicationContext contexto;
+    private CatalogoCache catalogoCache;
+    private ProductoRepository productoRepository;
+    private Long categoriaId;
+
+    @Setup
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar();
+        catalogoCache = contexto.getBean(CatalogoCache.class);
+        productoRepository = contexto.getBean(ProductoRepository.class);
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+
+        List<Producto> entidades = DatosBenchmark.productos(productos);
+        List<Object[]> categorias = new ArrayList<>();
+        for (Categoria categoria : DatosBenchmark.categorias(12)) {
+            categorias.add(new Object[]{categoria.getId(), categoria.getNombre()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO categorias (id, nombre, activo) VALUES (?, ?, TRUE)", categorias);
+        List<Object[]> filas = new ArrayList<>(entidades.size());
+        for (Producto producto : entidades) {
+            filas.add(new Object[]{producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                    producto.getPrecio(), producto.getCategoria().getId(), producto.getImagenUrl(),
+                    producto.getActivo()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO productos (id, nombre, descripcion, precio, categoria_id, imagen_url,"
+                + " activo) VALUES (?, ?, ?, ?, ?, ?, ?)", filas);
+        categoriaId = entidades.get(0).getCategoria().getId();
+        catalogoCache.invalidar();
+        catalogoCache.obtener();
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public CatalogoSnapshot obtenerVigente() {
+        return catalogoCache.obtener();
+    }
+
+    @Benchmark
+    public CatalogoSnapshot reconstruirTrasInvalidar() {
+        catalogoCache.invalidar();
+        return catalogoCache.obtener();
+    }
+
+    // Los DTO de la instantánea ya son de solo lectura: no se copian
+    @Benchmark
+    public CatalogoSnapshot construirSnapshot() {
+        CatalogoSnapshot vigente = catalogoCache.obtener();
+        return new CatalogoSnapshot(vigente.getVersion(), vigente.getProductos(), vigente.getCategorias());
+    }
+
+    @Benchmark
+    public List<ProductoDto> productosDeCategoria() {
+        return catalogoCache.obtener().getProductosActivosPorCategoria(categoriaId);
+    }
+
+    @Benchmark
+    public List<ProductoDto> buscarConIndice() {
+        return catalogoCache.obtener().getIndiceBusqueda().buscar(BUSQUEDA, 50);
+    }
+
+    // La búsqueda anterior al índice: LIKE '%texto%' sobre el nombre en la base, por el repositorio
+    // (sin acentos ni errores de escritura). H2 en memoria: en MySQL se suma la red
+    @Benchmark
+    public List<Producto> buscarConLike() {
+        return productoRepository.findByNombreContainingIgnoreCaseAndActivoTrue(BUSQUEDA);
+    }
+}
@@ -0,0 +1,83 @@
+package com.backend.pedidos_app.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.PedidosAppApplication;
+
+// Aplicación completa sobre la base H2 del perfil de pruebas (application-test.properties), para los
+// benchmarks que pasan por repositorios y transacciones. Mide el costo del código de la aplicación
+// y de Hibernate; los tiempos absolutos de SQL no son los de MySQL
+final class ContextoBenchmark {
+    private static final String[] ESTADOS = {"pendiente", "en_preparacion", "listo", "entregado", "cancelado"};
+
+    private ContextoBenchmark() {
+    }
+
+    static ConfigurableApplicationContext iniciar(String... propiedades) {
+        List<String> todas = new ArrayList<>(List.of(
+                "server.port=0",
+                "logging.level.root=WARN",
+                // Las estadísticas de Hibernate del perfil de pruebas agregan costo a cada sentencia
+                "spring.jpa.properties.hibernate.generate_statistics=false"));
+        todas.addAll(List.of(propiedades));
+        // devtools está en el classpath de pruebas: su reinicio en otro classloader distorsiona las mediciones
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(PedidosAppApplication.class)
+                .profiles("test")
+                .logStartupInfo(false)
+                // Como argumentos y no con properties(): esas son valores por defecto y
+                // application.properties / application-test.properties las pisarían
+                .run(todas.stream().map(propiedad -> "--" + propiedad).toArray(String[]::new));
+    }
+
+    // Categoría activa con n productos activos; devuelve sus ids
+    static List<Long> crearProductos(JdbcTemplate jdbcTemplate, int cantidad) {
+        jdbcTemplate.update("INSERT INTO categorias (nombre, activo) VALUES ('Bebidas', TRUE)");
+        Long categoriaId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM categorias", Long.class);
+        List<Object[]> filas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            filas.add(new Object[]{"Producto " + i, "Descripción " + i, 5.0 + i % 90, categoriaId});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO productos (nombre, descripcion, precio, categoria_id, activo) VALUES (?, ?, ?, ?, TRUE)",
+                filas);
+        return jdbcTemplate.queryForList("SELECT id FROM productos WHERE categoria_id = ? ORDER BY id", Long.class,
+                categoriaId);
+    }
+
+    // n pedidos de una línea, uno cada 31 segundos desde "desde" (1M cubren ~360 días), con 5.000
+    // clientes y estados rotativos. Se insertan con SQL en el servidor (SYSTEM_RANGE de H2): por JPA
+    // la carga de 1M pedidos tardaría minutos. No toca ventas_diarias
+    static void crearPedidos(JdbcTemplate jdbcTemplate, List<Long> productos, int cantidad, LocalDateTime desde) {
+        StringBuilder estado = new StringBuilder("CASE MOD(n, ").append(ESTADOS.length).append(')');
+        for (int i = 0; i < ESTADOS.length; i++) {
+            estado.append(" WHEN ").append(i).append(" THEN '").append(ESTADOS[i]).append('\'');
+        }
+        estado.append(" END");
+        jdbcTemplate.update("INSERT INTO pedidos (nombre_cliente, telefono_cliente, tipo_entrega, recargo_domicilio,"
+                + " tipo_pago, total, estado, fecha_pedido, cambio_version)"
+                + " SELECT CONCAT('Cliente ', MOD(n, 5000)), CONCAT('5555', MOD(n, 5000)), 'recoger', 0.0,"
+                + " 'efectivo', 5.0 + MOD(n, 90), " + estado + ","
+                + " DATEADD(SECOND, n * 31, TIMESTAMP '" + Timestamp.valueOf(desde) + "'), 0"
+                + " FROM SYSTEM_RANGE(1, " + cantidad + ") r(n)");
+        // Los ids de crearProductos son consecutivos
+        jdbcTemplate.update("INSERT INTO pedido_productos (pedido_id, producto_id, cantidad, precio_unitario,"
+                + " producto_order) SELECT id, ? + MOD(id, ?), 1, total, 0 FROM pedidos",
+                productos.get(0), productos.size());
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    static void borrarPedidos(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM pedido_productos");
+        jdbcTemplate.update("DELETE FROM pedidos");
+        jdbcTemplate.update("DELETE FROM ventas_diarias_productos");
+        jdbcTemplate.update("DELETE FROM ventas_diarias");
+    }
+}
@@ -0,0 +1,84 @@
+package com.backend.pedidos_app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.dto.PedidoProductoDto;
+import com.backend.pedidos_app.dto.PedidoRequest;
+import com.backend.pedidos_app.dto.PedidoResponse;
+
+// PedidoService.crearPedido completo (validación de precios, INSERT del pedido, lote de líneas,
+// resumen diario y evento) con carritos de 1, 10 y 100 líneas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CrearPedidoBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int lineas;
+
+    private ConfigurableApplicationContext contexto;
+    private JdbcTemplate jdbcTemplate;
+    private PedidoService pedidoService;
+    private PedidoRequest solicitud;
+
+    @Setup
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar();
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        pedidoService = contexto.getBean(PedidoService.class);
+
+        List<Long> productos = ContextoBenchmark.crearProductos(jdbcTemplate, 100);
+        List<PedidoProductoDto> carrito = new ArrayList<>(lineas);
+        for (int i = 0; i < lineas; i++) {
+            PedidoProductoDto linea = new PedidoProductoDto();
+            linea.setProductoId(productos.get(i % productos.size()));
+            linea.setCantidad(1 + i % 3);
+            linea.setPersonalizaciones(i % 4 == 0 ? "sin azúcar" : null);
+            carrito.add(linea);
+        }
+        solicitud = new PedidoRequest();
+        solicitud.setNombreCliente("Cliente benchmark");
+        solicitud.setTelefonoCliente("55551234");
+        solicitud.setDireccion("Zona 1, calle 2");
+        solicitud.setTipoEntrega("domicilio");
+        solicitud.setTipoPago("efectivo");
+        solicitud.setProductos(carrito);
+    }
+
+    // Los pedidos creados se borran entre iteraciones para que la tabla no crezca durante la medición
+    @TearDown(Level.Iteration)
+    public void vaciar() {
+        ContextoBenchmark.borrarPedidos(jdbcTemplate);
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public PedidoResponse crearPedido() {
+        return pedidoService.crearPedido(solicitud);
+    }
+}
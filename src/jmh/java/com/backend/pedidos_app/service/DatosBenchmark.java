@@ -0,0 +1,132 @@
+package com.backend.pedidos_app.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.backend.pedidos_app.model.Categoria;
+import com.backend.pedidos_app.model.Pedido;
+import com.backend.pedidos_app.model.PedidoProducto;
+import com.backend.pedidos_app.model.Producto;
+
+// Datos sintéticos para los benchmarks, con semilla fija para que las corridas sean comparables
+final class DatosBenchmark {
+    private static final String[] PALABRAS = {"café", "leche", "americano", "capuchino", "chocolate", "torta",
+            "galleta", "vainilla", "fresa", "té", "verde", "limón", "pan", "queso", "jamón", "caramelo",
+            "avena", "canela", "helado", "crema", "pastel", "mocca", "frappé", "natural"};
+    private static final String[] ESTADOS = {"pendiente", "en_preparacion", "listo", "entregado", "cancelado"};
+
+    private DatosBenchmark() {
+    }
+
+    static List<Categoria> categorias(int cantidad) {
+        List<Categoria> categorias = new ArrayList<>();
+        for (int i = 1; i <= cantidad; i++) {
+            Categoria categoria = new Categoria();
+            categoria.setId((long) i);
+            categoria.setNombre("Categoría " + PALABRAS[i % PALABRAS.length]);
+            categoria.setActivo(true);
+            categorias.add(categoria);
+        }
+        return categorias;
+    }
+
+    static List<Producto> productos(int cantidad) {
+        Random random = new Random(42);
+        List<Categoria> categorias = categorias(12);
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Producto producto = new Producto();
+            producto.setId((long) i);
+            producto.setNombre(frase(random, 2 + random.nextInt(2)) + " " + i);
+            producto.setDescripcion(frase(random, 8));
+            producto.setPrecio(5 + random.nextInt(9500) / 100.0);
+            producto.setCategoria(categorias.get(random.nextInt(categorias.size())));
+            producto.setImagenUrl("https://example.invalid/productos/" + i + ".jpg");
+            producto.setActivo(random.nextInt(10) > 0);
+            productos.add(producto);
+        }
+        return productos;
+    }
+
+    static List<Pedido> pedidos(int cantidad, int lineasPorPedido) {
+        Random random = new Random(7);
+        List<Producto> productos = productos(200);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<Pedido> pedidos = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Pedido pedido = new Pedido();
+            pedido.setId((long) i);
+            pedido.setNombreCliente("Cliente " + random.nextInt(5000));
+            pedido.setTelefonoCliente("5555" + (1000 + random.nextInt(9000)));
+            pedido.setDireccion("Zona " + random.nextInt(20) + ", calle " + random.nextInt(50));
+            pedido.setTipoEntrega(random.nextBoolean() ? "recoger" : "domicilio");
+            pedido.setTipoPago(random.nextBoolean() ? "efectivo" : "transferencia");
+            pedido.setEstado(ESTADOS[random.nextInt(ESTADOS.length)]);
+            pedido.setFechaPedido(base.plusMinutes(i * 17L));
+            pedido.setCambioVersion((long) i);
+            double total = 0;
+            for (int j = 0; j < lineasPorPedido; j++) {
+                Producto producto = productos.get(random.nextInt(productos.size()));
+                PedidoProducto linea = new PedidoProducto();
+                linea.setId((long) i * lineasPorPedido + j);
+                linea.setPedido(pedido);
+                linea.setProducto(producto);
+                linea.setCantidad(1 + random.nextInt(3));
+                linea.setPrecioUnitario(producto.getPrecio());
+                linea.setPersonalizaciones(random.nextInt(4) == 0 ? "sin azúcar" : null);
+                linea.setOrden(j);
+                pedido.getProductos().add(linea);
+                total += linea.getCantidad() * linea.getPrecioUnitario();
+            }
+            pedido.setTotal(total);
+            pedidos.add(pedido);
+        }
+        return pedidos;
+    }
+
+    // Misma forma que el Map que arma ReporteService
+    static Map<String, Object> reporte(int meses) {
+        Random random = new Random(11);
+        Map<String, Object> reporte = new HashMap<>();
+        reporte.put("totalVentas", 125_000.50);
+        reporte.put("totalPedidos", 4_200L);
+        reporte.put("pedidosCancelados", 130L);
+
+        List<String> nombresMeses = new ArrayList<>();
+        List<Double> ventas = new ArrayList<>();
+        for (int i = 0; i < meses; i++) {
+            nombresMeses.add(String.format("%d-%02d", 2020 + i / 12, i % 12 + 1));
+            ventas.add(1000 + random.nextInt(90_000) / 10.0);
+        }
+        reporte.put("meses", nombresMeses);
+        reporte.put("ventas", ventas);
+
+        List<Map<String, Object>> estados = new ArrayList<>();
+        for (String estado : ESTADOS) {
+            Map<String, Object> fila = new LinkedHashMap<>();
+            fila.put("estado", estado);
+            fila.put("cantidad", (long) random.nextInt(1000));
+            estados.add(fila);
+        }
+        reporte.put("estadosPedidos", estados);
+        reporte.put("productoMasVendido", Map.of("nombre", "Café americano", "cantidad", 900L, "total", 13_500.0));
+        reporte.put("clienteFrecuente", Map.of("nombre", "Cliente 1", "telefono", "55551234", "pedidos", 40L, "total", 2_300.0));
+        return reporte;
+    }
+
+    private static String frase(Random random, int palabras) {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < palabras; i++) {
+            if (i > 0) {
+                texto.append(' ');
+            }
+            texto.append(PALABRAS[random.nextInt(PALABRAS.length)]);
+        }
+        return texto.substring(0, 1).toUpperCase() + texto.substring(1);
+    }
+}
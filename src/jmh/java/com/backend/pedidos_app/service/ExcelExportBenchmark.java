@@ -0,0 +1,47 @@
+package com.backend.pedidos_app.service;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Generación del xlsx de resumen (sin hoja de detalle, que necesita base de datos)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExcelExportBenchmark {
+
+    @Param({"12", "60"})
+    private int meses;
+
+    private ExcelExportService excelExportService;
+    private Map<String, Object> reporte;
+
+    @Setup
+    public void preparar() {
+        excelExportService = new ExcelExportService();
+        ReflectionTestUtils.setField(excelExportService, "meterRegistry", new SimpleMeterRegistry());
+        reporte = DatosBenchmark.reporte(meses);
+    }
+
+    @Benchmark
+    public byte[] exportarReporte() throws Exception {
+        return excelExportService.exportarReporte(reporte);
+    }
+}
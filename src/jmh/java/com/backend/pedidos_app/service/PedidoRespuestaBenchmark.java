@@ -0,0 +1,71 @@
+package com.backend.pedidos_app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.backend.pedidos_app.dto.PedidoResponse;
+import com.backend.pedidos_app.model.Pedido;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+// Conversión Pedido -> PedidoResponse y serialización JSON de la lista, como en GET /api/pedidos
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PedidoRespuestaBenchmark {
+
+    @Param({"50", "1000"})
+    private int pedidos;
+
+    @Param({"3"})
+    private int lineasPorPedido;
+
+    private PedidoService pedidoService;
+    private ObjectMapper objectMapper;
+    private List<Pedido> entidades;
+    private List<PedidoResponse> respuestas;
+
+    @Setup
+    public void preparar() {
+        // convertirARespuesta no usa dependencias inyectadas
+        pedidoService = new PedidoService();
+        // Misma configuración relevante que el ObjectMapper de Spring Boot
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        entidades = DatosBenchmark.pedidos(pedidos, lineasPorPedido);
+        respuestas = convertir();
+    }
+
+    @Benchmark
+    public List<PedidoResponse> convertir() {
+        List<PedidoResponse> resultado = new ArrayList<>(entidades.size());
+        for (Pedido pedido : entidades) {
+            resultado.add(pedidoService.convertirARespuesta(pedido));
+        }
+        return resultado;
+    }
+
+    @Benchmark
+    public byte[] serializarJson() throws Exception {
+        return objectMapper.writeValueAsBytes(respuestas);
+    }
+}
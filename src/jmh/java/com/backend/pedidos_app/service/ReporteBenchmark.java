@@ -0,0 +1,69 @@
+package com.backend.pedidos_app.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Motor de reportes (ReporteService.generarReporte) sobre 100.000 pedidos: rango que no son días
+// completos (consultas sobre pedidos), rango de días completos (resumen ventas_diarias) y, con la
+// caché de reportes habilitada, la respuesta desde la caché
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReporteBenchmark {
+    private static final LocalDateTime DESDE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int PEDIDOS = 100_000;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private ConfigurableApplicationContext contexto;
+    private ReporteService reporteService;
+
+    @Setup
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("app.reportes.cache.habilitado=" + cache);
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        reporteService = contexto.getBean(ReporteService.class);
+
+        List<Long> productos = ContextoBenchmark.crearProductos(jdbcTemplate, 100);
+        ContextoBenchmark.crearPedidos(jdbcTemplate, productos, PEDIDOS, DESDE);
+        contexto.getBean(VentaDiariaService.class).reconstruir();
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    // 30 días desde un segundo después de medianoche: no pasa por ventas_diarias
+    @Benchmark
+    public Map<String, Object> reporteEnVivo() {
+        return reporteService.generarReporte(DESDE.plusSeconds(1), DESDE.plusDays(30), "todos");
+    }
+
+    @Benchmark
+    public Map<String, Object> reporteDesdeResumen() {
+        return reporteService.generarReporte(DESDE, DESDE.plusDays(29).with(LocalTime.MAX), "todos");
+    }
+}
@@ -0,0 +1,75 @@
+package com.backend.pedidos_app.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// ReporteService.generarReporte por la ruta en vivo (rango que no son días completos, sin caché de
+// reportes) sobre ~1M pedidos de una línea repartidos en un año: resumen agrupado por (mes, estado),
+// producto más vendido y cliente frecuente
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReporteResumenBenchmark {
+    private static final LocalDateTime DESDE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Param({"1000000"})
+    private int pedidos;
+
+    @Param({"30", "365"})
+    private int dias;
+
+    private ConfigurableApplicationContext contexto;
+    private ReporteService reporteService;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+
+    @Setup
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar(
+                "app.reportes.cache.habilitado=false",
+                // Sobre H2 las consultas de 1M filas pueden pasar el plazo normal y dejar el reporte parcial
+                "app.consultas.paralelas.timeout-ms=600000");
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        reporteService = contexto.getBean(ReporteService.class);
+
+        List<Long> productos = ContextoBenchmark.crearProductos(jdbcTemplate, 100);
+        ContextoBenchmark.crearPedidos(jdbcTemplate, productos, pedidos, DESDE);
+
+        // Un segundo después de medianoche: no cubre días completos y no pasa por ventas_diarias
+        inicio = DESDE.plusSeconds(1);
+        fin = DESDE.plusDays(dias);
+        if (generarReporte().containsKey("parcial")) {
+            throw new IllegalStateException("El reporte salió parcial: la medición no sería válida");
+        }
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> generarReporte() {
+        return reporteService.generarReporte(inicio, fin, "todos");
+    }
+}
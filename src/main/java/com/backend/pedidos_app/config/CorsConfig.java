@@ -14,6 +14,7 @@ public class CorsConfig implements WebMvcConfigurer {
                         "https://pedidos-app-backend.onrender.com")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("ETag")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -0,0 +1,58 @@
+package com.backend.pedidos_app.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+// Cliente HTTP de Supabase Storage: conexiones reutilizadas (keep-alive) desde un pool acotado
+// y tiempos de espera explícitos, en lugar de una conexión nueva sin límites por petición.
+@Configuration
+public class SupabaseHttpConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient supabaseHttpClient(
+            @Value("${app.supabase.http.max-conexiones:20}") int maxConexiones,
+            @Value("${app.supabase.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${app.supabase.http.read-timeout-ms:60000}") long readTimeoutMs,
+            @Value("${app.supabase.http.espera-conexion-ms:10000}") long esperaConexionMs) {
+
+        // Todas las peticiones van al mismo host, así que el límite por ruta es el total
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConexiones)
+                .setMaxConnPerRoute(maxConexiones)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(esperaConexionMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.of(30, TimeUnit.SECONDS))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate supabaseRestTemplate(CloseableHttpClient supabaseHttpClient) {
+        // Las peticiones de HttpComponentsClientHttpRequestFactory escriben el cuerpo en streaming
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(supabaseHttpClient));
+    }
+}
@@ -17,6 +17,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
+
 import com.backend.pedidos_app.security.AuthEntryPointJwt;
 import com.backend.pedidos_app.security.AuthTokenFilter;
 import com.backend.pedidos_app.security.UserDetailsServiceImpl;
@@ -62,11 +64,14 @@ public class WebSecurityConfig {
         .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
         .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(auth -> auth
+            .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll() // Respuestas en streaming ya autorizadas en la petición original
             .requestMatchers("/api/auth/**").permitAll()
             .requestMatchers(HttpMethod.GET, "/api/productos/**").permitAll()
             .requestMatchers(HttpMethod.POST, "/api/pedidos/crear").permitAll() // Permite crear pedidos sin autenticación
             .requestMatchers(HttpMethod.POST, "/api/pedidos/upload-comprobante/**").permitAll() // Permite subir comprobantes sin autenticación
             .requestMatchers("/api/admin/**").hasRole("ADMIN")
+            .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+            .requestMatchers("/actuator/**").hasRole("ADMIN")
             .anyRequest().authenticated()
         );
 
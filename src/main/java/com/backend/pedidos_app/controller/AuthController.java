@@ -18,6 +18,7 @@ import com.backend.pedidos_app.dto.SignupRequest;
 import com.backend.pedidos_app.model.Usuario;
 import com.backend.pedidos_app.repository.UsuarioRepository;
 import com.backend.pedidos_app.security.JwtUtils;
+import com.backend.pedidos_app.security.TokenVersionRegistry;
 import com.backend.pedidos_app.service.AuthService;
 
 //@CrossOrigin(origins = "*", maxAge = 3600)
@@ -36,6 +37,9 @@ public class AuthController {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
         JwtResponse jwtResponse = authService.authenticateUser(loginRequest);
@@ -64,7 +68,10 @@ public class AuthController {
         
         Usuario usuario = usuarioOptional.get();
         usuario.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        // Los tokens emitidos con la contraseña anterior dejan de ser válidos
+        usuario.setTokenVersion(usuario.getTokenVersion() + 1);
         usuarioRepository.save(usuario);
+        tokenVersionRegistry.actualizar(usuario.getId(), usuario.getTokenVersion());
         
         return ResponseEntity.ok()
             .contentType(MediaType.APPLICATION_JSON)
@@ -1,8 +1,11 @@
 package com.backend.pedidos_app.controller;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.backend.pedidos_app.dto.CategoriaDto;
+import com.backend.pedidos_app.service.CatalogoCache;
 import com.backend.pedidos_app.service.CategoriaService;
 import java.util.List;
 import java.util.Map;
@@ -18,9 +21,17 @@ public class CategoriaController {
     @Autowired
     private CategoriaService categoriaService;
 
+    @Autowired
+    private CatalogoCache catalogoCache;
+
     @GetMapping
-    public ResponseEntity<List<CategoriaDto>> obtenerTodasLasCategoriasActivas() {
-        return ResponseEntity.ok(categoriaService.obtenerTodasLasCategoriasActivas());
+    public ResponseEntity<List<CategoriaDto>> obtenerTodasLasCategoriasActivas(WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(categoriaService.obtenerTodasLasCategoriasActivas());
     }
 
     @PostMapping
@@ -1,16 +1,26 @@
 package com.backend.pedidos_app.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.backend.pedidos_app.dto.PedidoCambiosResponse;
+import com.backend.pedidos_app.dto.PedidoPaginaResponse;
 import com.backend.pedidos_app.dto.PedidoRequest;
 import com.backend.pedidos_app.dto.PedidoResponse;
 import com.backend.pedidos_app.dto.ReporteRequest;
+import com.backend.pedidos_app.service.ComprobanteUploadService;
+import com.backend.pedidos_app.service.PedidoEventosService;
 import com.backend.pedidos_app.service.PedidoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -19,9 +29,20 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/pedidos")
 public class PedidoController {
+    private static final int TAMANO_LOTE_STREAM = 100;
+
     @Autowired
     private PedidoService pedidoService;
 
+    @Autowired
+    private PedidoEventosService pedidoEventosService;
+
+    @Autowired
+    private ComprobanteUploadService comprobanteUploadService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/crear")
     public ResponseEntity<PedidoResponse> crearPedido(@RequestBody PedidoRequest pedidoRequest) {
         return ResponseEntity.ok(pedidoService.crearPedido(pedidoRequest));
@@ -33,6 +54,53 @@ public class PedidoController {
         return ResponseEntity.ok(pedidoService.obtenerTodosLosPedidos());
     }
 
+    @GetMapping("/paginado")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PedidoPaginaResponse> obtenerPaginaPedidos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(pedidoService.obtenerPaginaPedidos(cursor, limite));
+    }
+
+    // Sincronización incremental: pedidos creados o modificados después de la versión "desde"
+    @GetMapping("/cambios")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PedidoCambiosResponse> obtenerCambios(
+            @RequestParam(defaultValue = "0") long desde,
+            @RequestParam(defaultValue = "100") int limite) {
+        return ResponseEntity.ok(pedidoService.obtenerCambios(desde, limite));
+    }
+
+    // Todos los pedidos como NDJSON (un pedido por línea), escritos lote a lote
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamPedidos() {
+        StreamingResponseBody cuerpo = salida -> {
+            String cursor = null;
+            do {
+                PedidoPaginaResponse pagina = pedidoService.obtenerPaginaPedidos(cursor, TAMANO_LOTE_STREAM);
+                for (PedidoResponse pedido : pagina.getPedidos()) {
+                    salida.write(objectMapper.writeValueAsBytes(pedido));
+                    salida.write('\n');
+                }
+                salida.flush();
+                cursor = pagina.getSiguienteCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
+    // Pedidos creados, cambios de estado y comprobantes en tiempo real (Server-Sent Events).
+    // Al reconectar, el navegador envía Last-Event-ID y se reenvían los eventos perdidos.
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter eventosPedidos(
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId) {
+        return pedidoEventosService.suscribir(ultimoEventoId);
+    }
+
     @GetMapping("/estado/{estado}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<PedidoResponse>> obtenerPedidosPorEstado(@PathVariable String estado) {
@@ -77,9 +145,10 @@ public class PedidoController {
     @PreAuthorize("permitAll()") // Permitir acceso sin autenticación
     public ResponseEntity<PedidoResponse> uploadComprobante(
             @PathVariable Long pedidoId,
-            @RequestParam("file") MultipartFile file) {
-        
-        PedidoResponse response = pedidoService.uploadComprobante(pedidoId, file);
-        return ResponseEntity.ok(response);
+            @RequestParam("file") MultipartFile file) throws IOException {
+
+        // Se responde en cuanto el archivo queda en disco; la subida a Supabase sigue en segundo plano
+        PedidoResponse response = comprobanteUploadService.recibir(pedidoId, file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 }
\ No newline at end of file
@@ -2,18 +2,19 @@ package com.backend.pedidos_app.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.backend.pedidos_app.dto.CategoriaDto;
 import com.backend.pedidos_app.dto.ProductoDto;
-import com.backend.pedidos_app.exception.ResourceNotFoundException;
-import com.backend.pedidos_app.model.Producto;
-import com.backend.pedidos_app.repository.ProductoRepository;
+import com.backend.pedidos_app.service.CatalogoCache;
+import com.backend.pedidos_app.service.MigracionImagenesService;
 import com.backend.pedidos_app.service.ProductoService;
-import com.backend.pedidos_app.service.SupabaseStorageService;
+import com.backend.pedidos_app.service.ProductosMasVendidosService;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,55 +31,130 @@ public class ProductoController {
     
     @Autowired
     private ProductoService productoService;
-    
+
     @Autowired
-    private SupabaseStorageService storageService;
-    
+    private CatalogoCache catalogoCache;
+
     @Autowired
-    private ProductoRepository productoRepository;
+    private MigracionImagenesService migracionImagenesService;
 
+    // Las respuestas del catálogo llevan un ETag por versión: si el cliente ya la tiene,
+    // checkNotModified responde 304 sin tocar el servicio ni serializar JSON
     @GetMapping("/todos")
-    public ResponseEntity<List<ProductoDto>> obtenerTodosLosProductos() {
-        return ResponseEntity.ok(productoService.obtenerTodosLosProductos());
+    public ResponseEntity<List<ProductoDto>> obtenerTodosLosProductos(WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return respuestaCatalogo(productoService.obtenerTodosLosProductos());
     }
     
     @GetMapping
-    public ResponseEntity<List<ProductoDto>> obtenerTodosLosProductosActivos() {
-        return ResponseEntity.ok(productoService.obtenerTodosLosProductosActivos());
+    public ResponseEntity<List<ProductoDto>> obtenerTodosLosProductosActivos(WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return respuestaCatalogo(productoService.obtenerTodosLosProductosActivos());
     }
 
     @GetMapping("/categorias/todas")
-    public ResponseEntity<List<CategoriaDto>> obtenerTodasLasCategorias() {
-        return ResponseEntity.ok(productoService.obtenerTodasLasCategorias());
+    public ResponseEntity<List<CategoriaDto>> obtenerTodasLasCategorias(WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return respuestaCatalogo(productoService.obtenerTodasLasCategorias());
     }
     
     @GetMapping("/categorias")
-    public ResponseEntity<List<CategoriaDto>> obtenerTodasLasCategoriasActivas() {
-        return ResponseEntity.ok(productoService.obtenerTodasLasCategoriasActivas());
+    public ResponseEntity<List<CategoriaDto>> obtenerTodasLasCategoriasActivas(WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return respuestaCatalogo(productoService.obtenerTodasLasCategoriasActivas());
     }
 
     @GetMapping("/categoria/{categoriaId}")
     public ResponseEntity<List<ProductoDto>> obtenerProductosPorCategoria(
-            @PathVariable Long categoriaId) {
-        return ResponseEntity.ok(productoService.obtenerProductosPorCategoria(categoriaId));
+            @PathVariable Long categoriaId, WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return respuestaCatalogo(productoService.obtenerProductosPorCategoria(categoriaId));
     }
 
     @GetMapping("/buscar")
     public ResponseEntity<List<ProductoDto>> buscarProductosPorNombre(
-            @RequestParam String nombre) {
-        return ResponseEntity.ok(productoService.buscarProductosPorNombre(nombre));
+            @RequestParam String nombre,
+            @RequestParam(defaultValue = "50") int limite,
+            WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return respuestaCatalogo(productoService.buscarProductosPorNombre(nombre, Math.min(Math.max(limite, 1), 200)));
+    }
+
+    @GetMapping("/autocompletar")
+    public ResponseEntity<List<String>> autocompletarProductos(
+            @RequestParam String texto,
+            @RequestParam(defaultValue = "8") int limite,
+            WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return respuestaCatalogo(productoService.autocompletarProductos(texto, Math.min(Math.max(limite, 1), 20)));
     }
 
     @GetMapping("/mas-vendidos")
     public ResponseEntity<List<ProductoDto>> obtenerProductosMasVendidos(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
-        return ResponseEntity.ok(productoService.obtenerProductosMasVendidos(inicio, fin));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(productoService.obtenerProductosMasVendidos(inicio, fin, Math.min(Math.max(limite, 1), 200)));
+    }
+
+    // Ranking con unidades e ingresos. Con periodo (hoy, semana, mes) se sirve del top-K en
+    // memoria; con inicio y fin se consulta el rango pedido
+    @GetMapping("/mas-vendidos/ranking")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> obtenerRankingMasVendidos(
+            @RequestParam(required = false) String periodo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(defaultValue = "10") int limite) {
+        int limiteAcotado = Math.min(Math.max(limite, 1), 200);
+        if (inicio != null && fin != null) {
+            if (inicio.isAfter(fin)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "La fecha de inicio no puede ser posterior a la fecha de fin"));
+            }
+            return ResponseEntity.ok(productoService.obtenerRankingMasVendidos(inicio, fin, limiteAcotado));
+        }
+        try {
+            ProductosMasVendidosService.Periodo ventana = ProductosMasVendidosService.Periodo.desde(periodo != null ? periodo : "hoy");
+            return ResponseEntity.ok(productoService.obtenerRankingMasVendidos(ventana, limiteAcotado));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Migración de la columna LONGBLOB heredada hacia Supabase Storage
+    @PostMapping("/migracion-imagenes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> iniciarMigracionImagenes() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(migracionImagenesService.iniciar());
+    }
+
+    @GetMapping("/migracion-imagenes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> obtenerEstadoMigracionImagenes() {
+        return ResponseEntity.ok(migracionImagenesService.estado());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductoDto> obtenerProductoPorId(@PathVariable Long id) {
-        return ResponseEntity.ok(productoService.obtenerProductoPorId(id));
+    public ResponseEntity<ProductoDto> obtenerProductoPorId(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(catalogoCache.etag())) {
+            return null;
+        }
+        return respuestaCatalogo(productoService.obtenerProductoPorId(id));
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -106,31 +182,13 @@ public class ProductoController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> eliminarProducto(@PathVariable Long id) {
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
-        
-        boolean tienePedidos = productoRepository.existsPedidosByProductoId(id);
-        
-        if (tienePedidos) {
-            producto.setActivo(false);
-            productoRepository.save(producto);
-            return ResponseEntity.ok().body(Map.of(
-                "message", "El producto está asociado a pedidos y ha sido desactivado",
-                "action", "deactivated"
-            ));
-        } else {
-            if (producto.getImagenUrl() != null && !producto.getImagenUrl().isEmpty()) {
-                try {
-                    storageService.deleteFile(producto.getImagenUrl());
-                } catch (Exception e) {
-                    System.err.println("Error al eliminar la imagen del producto: " + e.getMessage());
-                }
-            }
-            productoRepository.delete(producto);
-            return ResponseEntity.ok().body(Map.of(
-                "message", "Producto eliminado correctamente",
-                "action", "deleted"
-            ));
-        }
+        return ResponseEntity.ok().body(productoService.eliminarProducto(id));
+    }
+
+    // no-cache obliga al navegador a revalidar con If-None-Match en cada vista
+    private <T> ResponseEntity<T> respuestaCatalogo(T cuerpo) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(cuerpo);
     }
 }
\ No newline at end of file
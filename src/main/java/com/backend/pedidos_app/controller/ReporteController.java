@@ -4,19 +4,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.backend.pedidos_app.service.CatalogoCache;
 import com.backend.pedidos_app.service.ExcelExportService;
+import com.backend.pedidos_app.service.ExportacionLineasService;
+import com.backend.pedidos_app.service.ReporteCache;
+import com.backend.pedidos_app.service.ReporteJobService;
 import com.backend.pedidos_app.service.ReporteService;
+import com.backend.pedidos_app.service.SupabaseStorageService;
+import com.backend.pedidos_app.service.VentaDiariaService;
 
 import java.io.IOException;
 import java.time.LocalDate;
@@ -35,11 +48,29 @@ public class ReporteController {
 
     private final ReporteService reporteService;
     private final ExcelExportService excelExportService;
+    private final CatalogoCache catalogoCache;
+    private final VentaDiariaService ventaDiariaService;
+    private final ExportacionLineasService exportacionLineasService;
+    private final ReporteJobService reporteJobService;
+    private final ReporteCache reporteCache;
+    private final SupabaseStorageService storageService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ReporteController(ReporteService reporteService, ExcelExportService excelExportService) {
+    public ReporteController(ReporteService reporteService, ExcelExportService excelExportService,
+                             CatalogoCache catalogoCache, VentaDiariaService ventaDiariaService,
+                             ExportacionLineasService exportacionLineasService, ReporteJobService reporteJobService,
+                             ReporteCache reporteCache, SupabaseStorageService storageService,
+                             ObjectMapper objectMapper) {
         this.reporteService = reporteService;
         this.excelExportService = excelExportService;
+        this.catalogoCache = catalogoCache;
+        this.ventaDiariaService = ventaDiariaService;
+        this.exportacionLineasService = exportacionLineasService;
+        this.reporteJobService = reporteJobService;
+        this.reporteCache = reporteCache;
+        this.storageService = storageService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -80,16 +111,11 @@ public class ReporteController {
             }
 
             // Generar reporte
-            long startTime = System.currentTimeMillis();
             Map<String, Object> reporte = reporteService.generarReporte(inicio, fin, estado);
-            long reportTime = System.currentTimeMillis() - startTime;
-            logger.info("Reporte generado en {} ms", reportTime);
 
-            // Generar Excel con timeout
-            startTime = System.currentTimeMillis();
-            byte[] excelBytes = excelExportService.exportarReporte(reporte);
-            long excelTime = System.currentTimeMillis() - startTime;
-            logger.info("Excel generado en {} ms, tamaño: {} bytes", excelTime, excelBytes.length);
+            // Tiempo y tamaño quedan en las métricas reportes.excel.*; un reporte con el mismo
+            // contenido reutiliza el xlsx ya generado
+            byte[] excelBytes = reporteCache.obtenerExcel(reporte, () -> excelExportService.exportarReporte(reporte));
 
             // Validar tamaño
             if (excelBytes.length > MAX_FILE_SIZE) {
@@ -129,6 +155,154 @@ public class ReporteController {
         }
     }
 
+    // Igual que /exportar pero el libro se escribe directamente en la respuesta, sin copias en memoria.
+    // Con detalle=true agrega una hoja con una fila por pedido del rango, leída por lotes.
+    @GetMapping("/exportar-stream")
+    public ResponseEntity<StreamingResponseBody> exportarReporteStream(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(required = false, defaultValue = "todos") String estado,
+            @RequestParam(required = false, defaultValue = "false") boolean detalle) {
+
+        logger.info("Iniciando exportación en streaming para inicio: {}, fin: {}, estado: {}, detalle: {}",
+                inicio, fin, estado, detalle);
+
+        if (inicio.isAfter(fin)) {
+            return errorStream(HttpStatus.BAD_REQUEST, "La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+
+        // El resumen se calcula antes de empezar a escribir para poder responder con error JSON si falla
+        Map<String, Object> reporte;
+        try {
+            reporte = reporteService.generarReporte(inicio, fin, estado);
+        } catch (Exception e) {
+            logger.error("Error al generar reporte para exportación en streaming", e);
+            return errorStream(HttpStatus.INTERNAL_SERVER_ERROR, "Error al generar el reporte: " + e.getMessage());
+        }
+
+        ExcelExportService.DetallePedidos detallePedidos = detalle
+                ? new ExcelExportService.DetallePedidos(inicio, fin, "todos".equalsIgnoreCase(estado) ? null : estado)
+                : null;
+
+        String nombreArchivo = String.format("reporte_%s_%s.xlsx",
+                inicio.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+                fin.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+
+        StreamingResponseBody cuerpo = outputStream ->
+                excelExportService.escribirReporte(reporte, outputStream, detallePedidos);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nombreArchivo + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
+                .header(HttpHeaders.PRAGMA, "no-cache")
+                .header(HttpHeaders.EXPIRES, "0")
+                .body(cuerpo);
+    }
+
+    // Todas las líneas de pedido del periodo (formato csv o xlsx), leídas con cursor y escritas al vuelo
+    @GetMapping("/exportar-detalle")
+    public ResponseEntity<StreamingResponseBody> exportarDetalle(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(required = false, defaultValue = "todos") String estado,
+            @RequestParam(required = false, defaultValue = "csv") String formato) {
+
+        logger.info("Exportando líneas de pedido para inicio: {}, fin: {}, estado: {}, formato: {}",
+                inicio, fin, estado, formato);
+
+        if (inicio.isAfter(fin)) {
+            return errorStream(HttpStatus.BAD_REQUEST, "La fecha de inicio no puede ser posterior a la fecha de fin");
+        }
+
+        boolean xlsx = "xlsx".equalsIgnoreCase(formato);
+        if (!xlsx && !"csv".equalsIgnoreCase(formato)) {
+            return errorStream(HttpStatus.BAD_REQUEST, "Formato no soportado: " + formato + " (use csv o xlsx)");
+        }
+
+        String nombreArchivo = String.format("lineas_%s_%s.%s",
+                inicio.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+                fin.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+                xlsx ? "xlsx" : "csv");
+
+        StreamingResponseBody cuerpo = outputStream -> {
+            if (xlsx) {
+                exportacionLineasService.escribirXlsx(inicio, fin, estado, outputStream);
+            } else {
+                exportacionLineasService.escribirCsv(inicio, fin, estado, outputStream);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nombreArchivo + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, xlsx
+                        ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                        : "text/csv; charset=UTF-8")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
+                .header(HttpHeaders.PRAGMA, "no-cache")
+                .header(HttpHeaders.EXPIRES, "0")
+                .body(cuerpo);
+    }
+
+    // Encola la generación del Excel y devuelve el trabajo; solicitudes idénticas en curso comparten trabajo
+    @PostMapping("/jobs")
+    public ResponseEntity<?> crearJob(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            @RequestParam(required = false, defaultValue = "todos") String estado) {
+
+        if (inicio.isAfter(fin)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "La fecha de inicio no puede ser posterior a la fecha de fin"));
+        }
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reporteJobService.enviar(inicio, fin, estado));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> consultarJob(@PathVariable String id) {
+        Map<String, Object> job = reporteJobService.consultar(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Trabajo no encontrado o vencido: " + id));
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/jobs/{id}/descarga")
+    public ResponseEntity<?> descargarJob(@PathVariable String id) {
+        ReporteJobService.ReporteJob job = reporteJobService.obtenerCompletado(id);
+        if (job == null) {
+            Map<String, Object> estado = reporteJobService.consultar(id);
+            if (estado == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Trabajo no encontrado o vencido: " + id));
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(estado);
+        }
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getNombreArchivo() + "\"")
+                .header(HttpHeaders.CONTENT_TYPE, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
+                .contentLength(job.getTamano())
+                .body(new FileSystemResource(job.getArchivo()));
+    }
+
+    // Un ResponseEntity<StreamingResponseBody> no puede llevar un Map como cuerpo; el error se escribe como JSON
+    private ResponseEntity<StreamingResponseBody> errorStream(HttpStatus status, String mensaje) {
+        Map<String, Object> error = Map.of("error", mensaje);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, error));
+    }
+
     @GetMapping("/exportar-prueba")
     public ResponseEntity<?> exportarReportePrueba() {
         logger.info("Generando archivo Excel de prueba");
@@ -160,6 +334,12 @@ public class ReporteController {
         }
     }
 
+    // Recalcula ventas_diarias desde cero a partir de pedidos
+    @PostMapping("/resumen-diario/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruirResumenDiario() {
+        return ResponseEntity.ok(ventaDiariaService.reconstruir());
+    }
+
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getStatus() {
         Map<String, Object> status = new HashMap<>();
@@ -167,6 +347,10 @@ public class ReporteController {
         status.put("timestamp", System.currentTimeMillis());
         status.put("memory", Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
         status.put("maxMemory", Runtime.getRuntime().maxMemory());
+        status.put("catalogo", catalogoCache.estadisticas());
+        status.put("reportesCache", reporteCache.estadisticas());
+        status.put("reportesJobs", reporteJobService.estadisticas());
+        status.put("supabase", storageService.estadisticas());
         return ResponseEntity.ok(status);
     }
 
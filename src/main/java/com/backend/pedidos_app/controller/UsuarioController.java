@@ -25,6 +25,7 @@ import com.backend.pedidos_app.dto.CambiarPasswordDTO;
 import com.backend.pedidos_app.dto.UsuarioDTO;
 import com.backend.pedidos_app.model.Usuario;
 import com.backend.pedidos_app.repository.UsuarioRepository;
+import com.backend.pedidos_app.security.TokenVersionRegistry;
 
 import jakarta.validation.Valid;
 
@@ -37,6 +38,9 @@ public class UsuarioController {
     
     @Autowired
     private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
     
     @GetMapping("/{id}")
     public ResponseEntity<?> getUsuarioById(@PathVariable Long id) {
@@ -96,7 +100,10 @@ public class UsuarioController {
         }
         
         usuario.setPassword(passwordEncoder.encode(request.getNuevaPassword()));
+        // Los tokens emitidos con la contraseña anterior dejan de ser válidos
+        usuario.setTokenVersion(usuario.getTokenVersion() + 1);
         usuarioRepository.save(usuario);
+        tokenVersionRegistry.actualizar(usuario.getId(), usuario.getTokenVersion());
         
         response.put("message", "Contraseña actualizada exitosamente");
         return ResponseEntity.ok()
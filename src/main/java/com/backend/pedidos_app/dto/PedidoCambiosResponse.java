@@ -0,0 +1,13 @@
+package com.backend.pedidos_app.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+public class PedidoCambiosResponse {
+    private List<PedidoResponse> pedidos; // en orden de cambioVersion
+    private long version; // marca de agua para la siguiente consulta (?desde=version)
+    private boolean hayMas;
+}
@@ -0,0 +1,17 @@
+package com.backend.pedidos_app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Evento de aplicación publicado por PedidoService; se difunde a los suscriptores tras el commit
+@Getter
+@AllArgsConstructor
+public class PedidoEvento {
+    public static final String PEDIDO_CREADO = "pedido_creado";
+    public static final String ESTADO_CAMBIADO = "estado_cambiado";
+    public static final String COMPROBANTE_SUBIDO = "comprobante_subido";
+
+    private String tipo;
+    private String estadoAnterior; // null en pedido_creado
+    private PedidoResponse pedido;
+}
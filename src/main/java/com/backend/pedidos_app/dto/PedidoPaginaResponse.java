@@ -0,0 +1,13 @@
+package com.backend.pedidos_app.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+public class PedidoPaginaResponse {
+    private List<PedidoResponse> pedidos;
+    private String siguienteCursor; // null cuando no hay más páginas
+    private boolean hayMas;
+}
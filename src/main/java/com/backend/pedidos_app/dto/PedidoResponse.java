@@ -16,9 +16,11 @@ public class PedidoResponse {
     private Double recargoDomicilio;
     private String tipoPago;
     private String comprobanteUrl;
+    private String comprobanteEstado;
     private Double total;
     private String estado;
     private LocalDateTime fechaPedido;
+    private Long cambioVersion;
     private List<PedidoProductoResponse> productos;
 
     @Getter @Setter
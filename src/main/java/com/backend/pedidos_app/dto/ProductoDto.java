@@ -11,5 +11,7 @@ public class ProductoDto {
     private Double precio;
     private CategoriaDto categoria;
     private String imagenUrl; // Cambiado de byte[] a String
+    private String imagenMediaUrl; // ~600px, para listas y tarjetas
+    private String imagenThumbUrl; // ~200px, para miniaturas
     private Boolean activo;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.backend.pedidos_app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Fila del ranking de más vendidos: ingresos al precio cobrado en cada pedido
+@Getter
+@AllArgsConstructor
+public class ProductoVendidoDto {
+    private ProductoDto producto;
+    private Long cantidad;
+    private Double ingresos;
+}
@@ -0,0 +1,14 @@
+package com.backend.pedidos_app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// El recurso cambió entre la lectura y la escritura (p. ej. dos cambios de estado simultáneos)
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class ConflictoException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ConflictoException(String message) {
+        super(message);
+    }
+}
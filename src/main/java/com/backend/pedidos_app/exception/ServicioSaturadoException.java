@@ -0,0 +1,22 @@
+package com.backend.pedidos_app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Un recurso acotado del servidor está lleno (p. ej. el spool de comprobantes); el cliente puede
+// reintentar pasados los segundos indicados
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServicioSaturadoException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long reintentarEnSegundos;
+
+    public ServicioSaturadoException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
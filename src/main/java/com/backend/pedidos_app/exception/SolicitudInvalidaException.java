@@ -0,0 +1,13 @@
+package com.backend.pedidos_app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class SolicitudInvalidaException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SolicitudInvalidaException(String message) {
+        super(message);
+    }
+}
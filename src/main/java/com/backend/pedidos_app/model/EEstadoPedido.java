@@ -0,0 +1,50 @@
+package com.backend.pedidos_app.model;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.backend.pedidos_app.exception.SolicitudInvalidaException;
+
+// Estados de un pedido y transiciones permitidas. En la base se guarda el valor en minúsculas.
+// pendiente_verificacion: pago por transferencia con comprobante subido, a la espera de revisión.
+public enum EEstadoPedido {
+    PENDIENTE("pendiente"),
+    PENDIENTE_VERIFICACION("pendiente_verificacion"),
+    EN_PREPARACION("en_preparacion"),
+    LISTO("listo"),
+    ENTREGADO("entregado"),
+    CANCELADO("cancelado");
+
+    private final String valor;
+
+    EEstadoPedido(String valor) {
+        this.valor = valor;
+    }
+
+    public String getValor() {
+        return valor;
+    }
+
+    public Set<EEstadoPedido> siguientes() {
+        return switch (this) {
+            case PENDIENTE -> EnumSet.of(PENDIENTE_VERIFICACION, EN_PREPARACION, CANCELADO);
+            // Si el comprobante no es válido el pedido vuelve a pendiente
+            case PENDIENTE_VERIFICACION -> EnumSet.of(PENDIENTE, EN_PREPARACION, CANCELADO);
+            case EN_PREPARACION -> EnumSet.of(LISTO, CANCELADO);
+            case LISTO -> EnumSet.of(ENTREGADO, CANCELADO);
+            case ENTREGADO, CANCELADO -> EnumSet.noneOf(EEstadoPedido.class);
+        };
+    }
+
+    public boolean puedeCambiarA(EEstadoPedido nuevo) {
+        return siguientes().contains(nuevo);
+    }
+
+    public static EEstadoPedido desde(String valor) {
+        return Arrays.stream(values())
+                .filter(estado -> estado.valor.equalsIgnoreCase(valor != null ? valor.trim() : null))
+                .findFirst()
+                .orElseThrow(() -> new SolicitudInvalidaException("Estado de pedido no válido: " + valor));
+    }
+}
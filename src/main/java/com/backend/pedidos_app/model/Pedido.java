@@ -1,6 +1,8 @@
 package com.backend.pedidos_app.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -12,7 +14,18 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+    // Creados por db/migration/V2__indices_pedidos.sql
+    @Index(name = "idx_pedidos_fecha_id", columnList = "fechaPedido, id"),
+    @Index(name = "idx_pedidos_fecha_estado_total", columnList = "fechaPedido, estado, total"),
+    @Index(name = "idx_pedidos_estado_fecha", columnList = "estado, fechaPedido"),
+    @Index(name = "idx_pedidos_usuario_fecha", columnList = "usuario_id, fechaPedido"),
+    // db/migration/V4__pedidos_cambio_version.sql
+    @Index(name = "idx_pedidos_cambio_version", columnList = "cambio_version")
+})
+// Solo se escriben las columnas modificadas: guardar el pedido por otro motivo (comprobante)
+// no pisa un cambio de estado hecho con PedidoRepository.cambiarEstado
+@DynamicUpdate
 @Getter @Setter
 @NoArgsConstructor
 public class Pedido {
@@ -41,15 +54,23 @@ public class Pedido {
     @Column(nullable = true)
     private String comprobanteUrl;
 
+    // null sin comprobante; pendiente_subida, subido o error (ver ComprobanteUploadService)
+    @Column(name = "comprobante_estado", length = 20)
+    private String comprobanteEstado;
+
     @Column(nullable = false)
     private Double total;
 
     @Column(nullable = false)
-    private String estado = "pendiente"; // pendiente, en_preparacion, listo, entregado, cancelado
+    private String estado = "pendiente"; // Ver EEstadoPedido
 
     @Column(nullable = false)
     private LocalDateTime fechaPedido = LocalDateTime.now();
 
+    // Versión del último cambio (creación, estado, comprobante); ver VersionCambiosPedidos
+    @Column(name = "cambio_version", nullable = false)
+    private Long cambioVersion = 0L;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = true)
     private Usuario usuario;
@@ -6,7 +6,11 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "pedido_productos")
+@Table(name = "pedido_productos", indexes = {
+    // Creados por db/migration/V2__indices_pedidos.sql
+    @Index(name = "idx_pedido_productos_producto_pedido", columnList = "producto_id, pedido_id"),
+    @Index(name = "idx_pedido_productos_pedido_orden", columnList = "pedido_id, producto_order")
+})
 @Getter @Setter
 @NoArgsConstructor
 public class PedidoProducto {
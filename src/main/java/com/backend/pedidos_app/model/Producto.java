@@ -1,5 +1,7 @@
 package com.backend.pedidos_app.model;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -7,6 +9,9 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "productos")
+// Solo se escriben las columnas modificadas: editar el producto no pisa las URL de imagen que
+// ImagenProductoService guarda en segundo plano con ProductoRepository.actualizarImagenes
+@DynamicUpdate
 @Getter @Setter
 @NoArgsConstructor
 public class Producto {
@@ -23,7 +28,7 @@ public class Producto {
     @Column(nullable = false)
     private Double precio;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "categoria_id", nullable = false)
     private Categoria categoria;
 
@@ -31,10 +36,15 @@ public class Producto {
     @Column(name = "imagen_url")
     private String imagenUrl;
 
-    // Mantener temporalmente para migración (eliminar después)
-    @Lob
-    @Column(name = "imagen", columnDefinition = "LONGBLOB")
-    private byte[] imagen;
+    // Variantes reducidas generadas por ImagenProductoService (imagenUrl es la versión completa)
+    @Column(name = "imagen_media_url")
+    private String imagenMediaUrl;
+
+    @Column(name = "imagen_thumb_url")
+    private String imagenThumbUrl;
+
+    // La columna LONGBLOB "imagen" heredada se mapea solo en ProductoImagenLegado,
+    // así ninguna lectura de productos la selecciona
 
     @Column(name = "tipo_imagen")
     private String tipoImagen;
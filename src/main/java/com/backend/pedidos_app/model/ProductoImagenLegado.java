@@ -0,0 +1,30 @@
+package com.backend.pedidos_app.model;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Vista de la tabla productos limitada a la imagen heredada (LONGBLOB).
+// Solo la usa la migración de imágenes a Supabase; eliminar junto con la columna.
+// Inmutable: la única escritura es la UPDATE nativa de ProductoImagenLegadoRepository.
+@Entity
+@Immutable
+@Table(name = "productos")
+@Getter
+@NoArgsConstructor
+public class ProductoImagenLegado {
+    @Id
+    private Long id;
+
+    @Lob
+    @Column(name = "imagen", columnDefinition = "LONGBLOB")
+    private byte[] imagen;
+
+    @Column(name = "tipo_imagen")
+    private String tipoImagen;
+
+    @Column(name = "imagen_url")
+    private String imagenUrl;
+}
@@ -33,6 +33,10 @@ public class Usuario {
     @Column(nullable = false)
     private String nombreCompleto;
 
+    // Se incrementa para revocar todos los tokens emitidos (ver TokenVersionRegistry)
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
+
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "usuarios_roles",
             joinColumns = @JoinColumn(name = "usuario_id"),
@@ -0,0 +1,33 @@
+package com.backend.pedidos_app.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// Resumen incremental de pedidos por día y estado. Lo mantiene VentaDiariaService
+// en la misma transacción que crea o cambia de estado cada pedido.
+@Entity
+@Table(name = "ventas_diarias",
+       uniqueConstraints = @UniqueConstraint(name = "uk_ventas_diarias_fecha_estado", columnNames = {"fecha", "estado"}))
+@Getter @Setter
+@NoArgsConstructor
+public class VentaDiaria {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private String estado;
+
+    @Column(nullable = false)
+    private Long cantidadPedidos = 0L;
+
+    @Column(nullable = false)
+    private Double total = 0.0;
+}
@@ -0,0 +1,35 @@
+package com.backend.pedidos_app.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+// Unidades vendidas por día, estado del pedido y producto
+@Entity
+@Table(name = "ventas_diarias_productos",
+       uniqueConstraints = @UniqueConstraint(name = "uk_ventas_diarias_productos", columnNames = {"fecha", "estado", "producto_id"}))
+@Getter @Setter
+@NoArgsConstructor
+public class VentaDiariaProducto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private String estado;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Long cantidad = 0L;
+
+    @Column(nullable = false)
+    private Double subtotal = 0.0;
+}
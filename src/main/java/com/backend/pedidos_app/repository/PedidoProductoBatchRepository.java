@@ -0,0 +1,41 @@
+package com.backend.pedidos_app.repository;
+
+import java.sql.Types;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.backend.pedidos_app.model.PedidoProducto;
+
+// Inserción por lotes de las líneas de un pedido. Los ids IDENTITY impiden que Hibernate
+// agrupe los INSERT, así que se escriben con JDBC dentro de la misma transacción.
+@Repository
+public class PedidoProductoBatchRepository {
+
+    private static final String INSERT_LINEA =
+            "INSERT INTO pedido_productos (pedido_id, producto_id, cantidad, personalizaciones, precio_unitario, producto_order) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertarLineas(Long pedidoId, List<PedidoProducto> lineas) {
+        if (lineas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINEA, lineas, lineas.size(), (ps, linea) -> {
+            ps.setLong(1, pedidoId);
+            ps.setLong(2, linea.getProducto().getId());
+            ps.setInt(3, linea.getCantidad());
+            if (linea.getPersonalizaciones() != null) {
+                ps.setString(4, linea.getPersonalizaciones());
+            } else {
+                ps.setNull(4, Types.VARCHAR);
+            }
+            ps.setDouble(5, linea.getPrecioUnitario());
+            ps.setInt(6, linea.getOrden());
+        });
+    }
+}
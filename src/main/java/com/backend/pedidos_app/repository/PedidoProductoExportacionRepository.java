@@ -0,0 +1,46 @@
+package com.backend.pedidos_app.repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Líneas de pedido de un rango como filas planas para exportar, sin cargar entidades.
+// El fetch size depende de la base: con Integer.MIN_VALUE (el valor por defecto) el driver de
+// MySQL entrega las filas una a una (cursor de solo avance) en lugar de traer todo el resultado
+// a memoria, pero H2 rechaza un fetch size negativo. Por eso no va en @QueryHints, donde sería
+// una constante, sino en app.exportacion.fetch-size.
+@Repository
+public class PedidoProductoExportacionRepository {
+
+    private static final String CONSULTA_LINEAS =
+            "SELECT p.id, p.fechaPedido, p.nombreCliente, p.telefonoCliente, p.tipoEntrega, p.tipoPago, p.estado, " +
+            "pr.id, pr.nombre, pp.cantidad, pp.precioUnitario, pp.personalizaciones " +
+            "FROM PedidoProducto pp JOIN pp.pedido p JOIN pp.producto pr " +
+            "WHERE p.fechaPedido BETWEEN :inicio AND :fin " +
+            "AND (:estado IS NULL OR p.estado = :estado) " +
+            "ORDER BY p.fechaPedido ASC, p.id ASC, pp.orden ASC";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.exportacion.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    // Debe consumirse dentro de una transacción y cerrarse al terminar
+    public Stream<Object[]> streamLineas(LocalDateTime inicio, LocalDateTime fin, String estado) {
+        return entityManager.createQuery(CONSULTA_LINEAS, Object[].class)
+                .setParameter("inicio", inicio)
+                .setParameter("fin", fin)
+                .setParameter("estado", estado)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+}
@@ -1,6 +1,8 @@
 package com.backend.pedidos_app.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -8,32 +10,125 @@ import org.springframework.stereotype.Repository;
 import com.backend.pedidos_app.model.Pedido;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
     
-    // Métodos de consulta con JOIN FETCH (se mantienen igual)
-    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos pp ORDER BY p.fechaPedido DESC, pp.orden ASC")
+    // Métodos de consulta con JOIN FETCH de las líneas y su producto: convertirARespuesta
+    // lee pp.producto.nombre, así que sin el segundo fetch habría una consulta por producto
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos pp LEFT JOIN FETCH pp.producto " +
+           "ORDER BY p.fechaPedido DESC, pp.orden ASC")
     List<Pedido> findAllWithOrderedProducts();
 
-    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos pp WHERE p.estado = :estado ORDER BY p.fechaPedido DESC, pp.orden ASC")
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos pp LEFT JOIN FETCH pp.producto " +
+           "WHERE p.estado = :estado ORDER BY p.fechaPedido DESC, pp.orden ASC")
     List<Pedido> findByEstadoWithOrderedProducts(@Param("estado") String estado);
 
-    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos pp WHERE p.usuario.id = :usuarioId ORDER BY p.fechaPedido DESC, pp.orden ASC")
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos pp LEFT JOIN FETCH pp.producto " +
+           "WHERE p.usuario.id = :usuarioId ORDER BY p.fechaPedido DESC, pp.orden ASC")
     List<Pedido> findByUsuarioIdWithOrderedProducts(@Param("usuarioId") Long usuarioId);
+
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos pp LEFT JOIN FETCH pp.producto " +
+           "WHERE p.fechaPedido BETWEEN :inicio AND :fin ORDER BY p.fechaPedido ASC, pp.orden ASC")
+    List<Pedido> findByFechaPedidoBetweenWithOrderedProducts(@Param("inicio") LocalDateTime inicio,
+                                                             @Param("fin") LocalDateTime fin);
+    
+    // Paginación por cursor (keyset) sobre (fechaPedido, id): solo ids, sin cargar colecciones
+    @Query("SELECT p.id FROM Pedido p ORDER BY p.fechaPedido DESC, p.id DESC")
+    List<Long> findPrimeraPaginaIds(Pageable pageable);
+
+    @Query("SELECT p.id FROM Pedido p " +
+           "WHERE p.fechaPedido < :fecha OR (p.fechaPedido = :fecha AND p.id < :id) " +
+           "ORDER BY p.fechaPedido DESC, p.id DESC")
+    List<Long> findPaginaIdsDespuesDe(@Param("fecha") LocalDateTime fecha,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    // Filas planas de pedidos de un rango, por lotes en orden (fechaPedido, id), para exportaciones
+    @Query("SELECT p.id, p.fechaPedido, p.nombreCliente, p.telefonoCliente, p.tipoEntrega, p.tipoPago, " +
+           "p.estado, p.recargoDomicilio, p.total " +
+           "FROM Pedido p " +
+           "WHERE p.fechaPedido BETWEEN :inicio AND :fin " +
+           "AND (:estado IS NULL OR p.estado = :estado) " +
+           "AND (p.fechaPedido > :fechaDesde OR (p.fechaPedido = :fechaDesde AND p.id > :idDesde)) " +
+           "ORDER BY p.fechaPedido ASC, p.id ASC")
+    List<Object[]> findFilasExportacionDespuesDe(@Param("inicio") LocalDateTime inicio,
+                                                 @Param("fin") LocalDateTime fin,
+                                                 @Param("estado") String estado,
+                                                 @Param("fechaDesde") LocalDateTime fechaDesde,
+                                                 @Param("idDesde") Long idDesde,
+                                                 Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(p.cambioVersion), 0) FROM Pedido p")
+    long findMaxCambioVersion();
+
+    // Un pedido y sus líneas en filas planas (una por línea, en orden) para armar su respuesta sin
+    // cargar entidades. Fila: id, nombreCliente, telefonoCliente, direccion, tipoEntrega,
+    // recargoDomicilio, tipoPago, comprobanteUrl, comprobanteEstado, total, estado, fechaPedido,
+    // cambioVersion, nombre del producto, cantidad, personalizaciones, precioUnitario
+    @Query("SELECT p.id, p.nombreCliente, p.telefonoCliente, p.direccion, p.tipoEntrega, p.recargoDomicilio, " +
+           "p.tipoPago, p.comprobanteUrl, p.comprobanteEstado, p.total, p.estado, p.fechaPedido, p.cambioVersion, " +
+           "pr.nombre, pp.cantidad, pp.personalizaciones, pp.precioUnitario " +
+           "FROM Pedido p LEFT JOIN p.productos pp LEFT JOIN pp.producto pr " +
+           "WHERE p.id = :id ORDER BY pp.orden ASC")
+    List<Object[]> findRespuestaById(@Param("id") Long id);
+
+    // Cambio de estado optimista: devuelve 0 si el pedido ya no está en estadoAnterior o si
+    // cambió algo más desde que se leyó (versionAnterior), para no responder con datos viejos.
+    // Antes se escriben los cambios pendientes y después se limpia el contexto para no leer
+    // la entidad con el estado viejo
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.estado = :estadoNuevo, p.cambioVersion = :version " +
+           "WHERE p.id = :id AND p.estado = :estadoAnterior AND p.cambioVersion = :versionAnterior")
+    int cambiarEstado(@Param("id") Long id,
+                      @Param("estadoAnterior") String estadoAnterior,
+                      @Param("versionAnterior") Long versionAnterior,
+                      @Param("estadoNuevo") String estadoNuevo,
+                      @Param("version") Long version);
+
+    // Registra el comprobante subido sin tocar el estado
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.comprobanteUrl = :url, p.comprobanteEstado = :comprobanteEstado, " +
+           "p.cambioVersion = :version WHERE p.id = :id")
+    int registrarComprobante(@Param("id") Long id,
+                             @Param("url") String url,
+                             @Param("comprobanteEstado") String comprobanteEstado,
+                             @Param("version") Long version);
+
+    // Registra el comprobante y cambia el estado en la misma sentencia; devuelve 0 si el pedido
+    // ya no está en estadoAnterior (y entonces no escribe nada)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.comprobanteUrl = :url, p.comprobanteEstado = :comprobanteEstado, " +
+           "p.estado = :estadoNuevo, p.cambioVersion = :version " +
+           "WHERE p.id = :id AND p.estado = :estadoAnterior")
+    int registrarComprobanteYCambiarEstado(@Param("id") Long id,
+                                           @Param("url") String url,
+                                           @Param("comprobanteEstado") String comprobanteEstado,
+                                           @Param("estadoAnterior") String estadoAnterior,
+                                           @Param("estadoNuevo") String estadoNuevo,
+                                           @Param("version") Long version);
+
+    // Pedidos cambiados en (desde, hasta], en orden de versión; usa idx_pedidos_cambio_version
+    @Query("SELECT p.id, p.cambioVersion FROM Pedido p WHERE p.cambioVersion > :desde AND p.cambioVersion <= :hasta " +
+           "ORDER BY p.cambioVersion ASC")
+    List<Object[]> findCambiadosEntre(@Param("desde") Long desde,
+                                      @Param("hasta") Long hasta,
+                                      Pageable pageable);
+
+    // Carga una página ya delimitada por ids, con sus productos en una sola consulta
+    @Query("SELECT DISTINCT p FROM Pedido p LEFT JOIN FETCH p.productos pp LEFT JOIN FETCH pp.producto WHERE p.id IN :ids")
+    List<Pedido> findByIdInWithOrderedProducts(@Param("ids") Collection<Long> ids);
     
     // Métodos existentes (se mantienen igual)
     List<Pedido> findByEstado(String estado);
-    List<Pedido> findByFechaPedidoBetween(LocalDateTime inicio, LocalDateTime fin);
     List<Pedido> findByUsuarioId(Long usuarioId);
     
     long countByFechaPedidoBetween(LocalDateTime inicio, LocalDateTime fin);
     
     long countByEstado(String estado);
     
-    List<Pedido> findTop5ByOrderByFechaPedidoDesc();
-
     // MÉTODOS MODIFICADOS PARA MANEJAR VALORES NULOS:
 
     // Método para sumar total con COALESCE
@@ -77,6 +172,16 @@ public interface PedidoRepository extends JpaRepository<Pedido, Long> {
     
     // MÉTODOS PARA REPORTES - MODIFICADOS CON COALESCE:
 
+    // Una sola pasada por el rango para todo el resumen del reporte.
+    // Fila: número de mes, nombre de mes, estado, pedidos, total (mismo formato que VentaDiariaRepository)
+    @Query("SELECT FUNCTION('DATE_FORMAT', p.fechaPedido, '%m'), FUNCTION('DATE_FORMAT', p.fechaPedido, '%b'), p.estado, " +
+           "COUNT(p), COALESCE(SUM(p.total), 0.0) " +
+           "FROM Pedido p " +
+           "WHERE p.fechaPedido BETWEEN :inicio AND :fin " +
+           "GROUP BY FUNCTION('DATE_FORMAT', p.fechaPedido, '%m'), FUNCTION('DATE_FORMAT', p.fechaPedido, '%b'), p.estado " +
+           "ORDER BY FUNCTION('DATE_FORMAT', p.fechaPedido, '%m')")
+    List<Object[]> resumirPorMesYEstado(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+
     @Query("SELECT FUNCTION('DATE_FORMAT', p.fechaPedido, '%b') as mes, COALESCE(SUM(p.total), 0.0) as total " +
            "FROM Pedido p " +
            "WHERE p.fechaPedido BETWEEN :inicio AND :fin AND p.estado <> 'cancelado' " +
@@ -0,0 +1,34 @@
+package com.backend.pedidos_app.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.pedidos_app.model.ProductoImagenLegado;
+
+// Solo lectura más la actualización de la migración: productos se escribe a través de Producto
+public interface ProductoImagenLegadoRepository extends Repository<ProductoImagenLegado, Long> {
+
+    Optional<ProductoImagenLegado> findById(Long id);
+
+    @Query("SELECT p.id FROM ProductoImagenLegado p WHERE p.imagen IS NOT NULL AND p.id > :desdeId ORDER BY p.id")
+    List<Long> findIdsPendientes(@Param("desdeId") Long desdeId, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM ProductoImagenLegado p WHERE p.imagen IS NOT NULL")
+    long countPendientes();
+
+    // Solo si imagen_url sigue como se leyó: una imagen subida mientras tanto no se reemplaza.
+    // Nativa: la entidad es @Immutable y Hibernate advierte en cada UPDATE de JPQL sobre ella
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE productos SET imagen_url = :url, imagen = NULL WHERE id = :id"
+            + " AND (imagen_url IS NULL OR imagen_url = '' OR imagen_url = :urlLeida)",
+           nativeQuery = true)
+    int completarMigracion(@Param("id") Long id, @Param("url") String url, @Param("urlLeida") String urlLeida);
+}
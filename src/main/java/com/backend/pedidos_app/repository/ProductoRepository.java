@@ -1,14 +1,18 @@
 package com.backend.pedidos_app.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.backend.pedidos_app.model.Categoria;
 import com.backend.pedidos_app.model.Producto;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,8 +20,27 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
     List<Producto> findAll(); //Cambiar el método findByActivoTrue a findAll para incluir inactivos
     // Mantener este para cuando necesitemos solo activos (como en el catálogo público)
     List<Producto> findByActivoTrue();
+
+    // Catálogo completo con su categoría en una sola consulta
+    @Query("SELECT p FROM Producto p JOIN FETCH p.categoria")
+    List<Producto> findAllWithCategoria();
     
     List<Producto> findByCategoriaIdAndActivoTrue(Long categoriaId);
+
+    // Datos mínimos para tarificar un pedido en una sola consulta (sin columnas de imagen)
+    @Query("SELECT p.id, p.nombre, p.precio, p.activo FROM Producto p WHERE p.id IN :ids")
+    List<Object[]> findPreciosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Asigna las variantes ya subidas sin tocar el resto del producto
+    @Modifying
+    @Transactional
+    @Query("UPDATE Producto p SET p.imagenUrl = :completa, p.imagenMediaUrl = :media, " +
+           "p.imagenThumbUrl = :miniatura, p.tipoImagen = :tipo WHERE p.id = :id")
+    int actualizarImagenes(@Param("id") Long id,
+                           @Param("completa") String completa,
+                           @Param("media") String media,
+                           @Param("miniatura") String miniatura,
+                           @Param("tipo") String tipo);
     
     @Query("SELECT DISTINCT p.categoria FROM Producto p")
     List<Categoria> findDistinctCategorias();
@@ -25,15 +48,20 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
     @Query("SELECT DISTINCT p.categoria FROM Producto p WHERE p.activo = true")
     List<Categoria> findDistinctCategoriasByActivoTrue();
     
-    @Query("SELECT pp.producto.id, SUM(pp.cantidad) as cantidad " +
+    // Fila: id de producto, unidades, ingresos (al precio cobrado en cada pedido).
+    // El límite se aplica en la base de datos
+    @Query("SELECT pp.producto.id, SUM(pp.cantidad) as cantidad, SUM(pp.cantidad * pp.precioUnitario) " +
            "FROM PedidoProducto pp " +
            "JOIN pp.pedido p " +
            "WHERE p.fechaPedido BETWEEN :inicio AND :fin AND p.estado <> 'cancelado' " +
            "GROUP BY pp.producto.id " +
-           "ORDER BY cantidad DESC")
-    List<Object[]> findProductosMasVendidos(@Param("inicio") LocalDateTime inicio, 
-                                          @Param("fin") LocalDateTime fin);
+           "ORDER BY cantidad DESC, pp.producto.id")
+    List<Object[]> findProductosMasVendidos(@Param("inicio") LocalDateTime inicio,
+                                          @Param("fin") LocalDateTime fin,
+                                          Pageable pageable);
     
+    // LIKE '%nombre%' que usaba la búsqueda antes de IndiceBusquedaProductos; CatalogoBenchmark lo
+    // mide como referencia
     List<Producto> findByNombreContainingIgnoreCaseAndActivoTrue(String nombre);
 
     @Query("SELECT COUNT(pp) > 0 FROM PedidoProducto pp WHERE pp.producto.id = :productoId")
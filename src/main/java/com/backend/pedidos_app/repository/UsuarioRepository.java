@@ -3,6 +3,7 @@ package com.backend.pedidos_app.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.backend.pedidos_app.model.Usuario;
@@ -18,4 +19,7 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Boolean existsByEmail(String email);
     @Query("SELECT DISTINCT p.categoria FROM Producto p WHERE p.activo = true")
     List<String> findDistinctCategoriaByActivoTrue();
+
+    @Query("SELECT u.tokenVersion FROM Usuario u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,88 @@
+package com.backend.pedidos_app.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.backend.pedidos_app.model.VentaDiaria;
+
+@Repository
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, Long> {
+
+    // MANTENIMIENTO INCREMENTAL (upsert atómico de MySQL):
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (fecha, estado, cantidad_pedidos, total) " +
+                   "VALUES (:fecha, :estado, :cantidad, :total) " +
+                   "ON DUPLICATE KEY UPDATE cantidad_pedidos = cantidad_pedidos + VALUES(cantidad_pedidos), " +
+                   "total = total + VALUES(total)",
+           nativeQuery = true)
+    void acumular(@Param("fecha") LocalDate fecha,
+                  @Param("estado") String estado,
+                  @Param("cantidad") long cantidad,
+                  @Param("total") double total);
+
+    // Suma (signo = 1) o resta (signo = -1) las líneas de un pedido ya guardado
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias_productos (fecha, estado, producto_id, cantidad, subtotal) " +
+                   "SELECT :fecha, :estado, pp.producto_id, SUM(pp.cantidad) * :signo, SUM(pp.cantidad * pp.precio_unitario) * :signo " +
+                   "FROM pedido_productos pp WHERE pp.pedido_id = :pedidoId GROUP BY pp.producto_id " +
+                   "ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad), subtotal = subtotal + VALUES(subtotal)",
+           nativeQuery = true)
+    void acumularProductos(@Param("pedidoId") Long pedidoId,
+                           @Param("fecha") LocalDate fecha,
+                           @Param("estado") String estado,
+                           @Param("signo") int signo);
+
+    // RECONSTRUCCIÓN COMPLETA DESDE pedidos:
+
+    @Modifying
+    @Query(value = "DELETE FROM ventas_diarias", nativeQuery = true)
+    void borrarResumen();
+
+    @Modifying
+    @Query(value = "DELETE FROM ventas_diarias_productos", nativeQuery = true)
+    void borrarResumenProductos();
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (fecha, estado, cantidad_pedidos, total) " +
+                   "SELECT DATE(p.fecha_pedido), p.estado, COUNT(*), COALESCE(SUM(p.total), 0) " +
+                   "FROM pedidos p GROUP BY DATE(p.fecha_pedido), p.estado",
+           nativeQuery = true)
+    int reconstruirResumen();
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias_productos (fecha, estado, producto_id, cantidad, subtotal) " +
+                   "SELECT DATE(p.fecha_pedido), p.estado, pp.producto_id, SUM(pp.cantidad), SUM(pp.cantidad * pp.precio_unitario) " +
+                   "FROM pedido_productos pp JOIN pedidos p ON p.id = pp.pedido_id " +
+                   "GROUP BY DATE(p.fecha_pedido), p.estado, pp.producto_id",
+           nativeQuery = true)
+    int reconstruirResumenProductos();
+
+    // LECTURAS PARA REPORTES (O(días), no O(pedidos)):
+
+    // Fila: número de mes, nombre de mes, estado, pedidos, total
+    @Query("SELECT FUNCTION('DATE_FORMAT', v.fecha, '%m'), FUNCTION('DATE_FORMAT', v.fecha, '%b'), v.estado, " +
+           "SUM(v.cantidadPedidos), COALESCE(SUM(v.total), 0.0) " +
+           "FROM VentaDiaria v " +
+           "WHERE v.fecha BETWEEN :inicio AND :fin " +
+           "GROUP BY FUNCTION('DATE_FORMAT', v.fecha, '%m'), FUNCTION('DATE_FORMAT', v.fecha, '%b'), v.estado " +
+           "ORDER BY FUNCTION('DATE_FORMAT', v.fecha, '%m')")
+    List<Object[]> resumirPorMesYEstado(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    // Fila: id de producto, unidades, ingresos
+    @Query("SELECT v.productoId, SUM(v.cantidad), COALESCE(SUM(v.subtotal), 0.0) FROM VentaDiariaProducto v " +
+           "WHERE v.fecha BETWEEN :inicio AND :fin AND v.estado <> 'cancelado' " +
+           "GROUP BY v.productoId " +
+           "HAVING SUM(v.cantidad) > 0 " +
+           "ORDER BY SUM(v.cantidad) DESC, v.productoId")
+    List<Object[]> findProductosMasVendidos(@Param("inicio") LocalDate inicio,
+                                            @Param("fin") LocalDate fin,
+                                            Pageable pageable);
+}
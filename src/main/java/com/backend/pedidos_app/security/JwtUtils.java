@@ -1,7 +1,10 @@
 package com.backend.pedidos_app.security;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -9,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
@@ -20,64 +24,132 @@ public class JwtUtils {
 
     private final SecretKey jwtSecret;
     private final int jwtExpirationMs;
+    // El parser es inmutable y seguro entre hilos: se construye una sola vez
+    private final JwtParser jwtParser;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
-    public JwtUtils(@Value("${app.jwt.expiration-ms}") int jwtExpirationMs) {
+    // Tokens ya verificados (firma y expiración) con el usuario construido desde sus claims
+    private final Map<String, TokenValidado> tokensValidados;
+    private final long cacheTtlMs;
+
+    private record TokenValidado(UserDetailsImpl usuario, long expiraEn) {}
+
+    public JwtUtils(@Value("${app.jwt.expiration-ms}") int jwtExpirationMs,
+                    @Value("${app.jwt.cache.max-entradas:10000}") int cacheMaxEntradas,
+                    @Value("${app.jwt.cache.ttl-ms:300000}") long cacheTtlMs,
+                    TokenVersionRegistry tokenVersionRegistry) {
         this.jwtSecret = Keys.secretKeyFor(SignatureAlgorithm.HS512); // Genera clave segura automática
         this.jwtExpirationMs = jwtExpirationMs;
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(jwtSecret).build();
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.cacheTtlMs = cacheTtlMs;
+        // LRU acotado: al superar el máximo se descarta el token usado hace más tiempo
+        this.tokensValidados = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenValidado> eldest) {
+                return size() > cacheMaxEntradas;
+            }
+        };
         logger.info("Generated secure JWT key for HS512 algorithm");
     }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-        
+
         // Obtener los roles como lista de strings
         List<String> roles = userPrincipal.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
 
+        // La versión viene de la base de datos recién consultada al autenticar
+        tokenVersionRegistry.actualizar(userPrincipal.getId(), userPrincipal.getTokenVersion());
+
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
                 .claim("id", userPrincipal.getId())
                 .claim("email", userPrincipal.getEmail())
                 .claim("roles", roles) // Añadir los roles al token
+                .claim("ver", userPrincipal.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(jwtSecret, SignatureAlgorithm.HS512)
                 .compact();
     }
-    
+
+    // Devuelve el usuario del token si es válido y no fue revocado, o null.
+    // Con el token en caché no se vuelve a verificar la firma ni se consulta la base de datos.
+    public UserDetailsImpl autenticar(String token) {
+        long ahora = System.currentTimeMillis();
+        TokenValidado validado;
+        synchronized (tokensValidados) {
+            validado = tokensValidados.get(token);
+        }
+
+        if (validado == null || validado.expiraEn() <= ahora) {
+            Claims claims;
+            try {
+                claims = parseClaims(token);
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.error("JWT error: {}", e.getMessage());
+                return null;
+            }
+            long expiraEn = Math.min(claims.getExpiration().getTime(), ahora + cacheTtlMs);
+            validado = new TokenValidado(construirUsuario(claims), expiraEn);
+            synchronized (tokensValidados) {
+                tokensValidados.put(token, validado);
+            }
+        }
+
+        UserDetailsImpl usuario = validado.usuario();
+        if (usuario.getId() == null
+                || usuario.getTokenVersion() != tokenVersionRegistry.versionActual(usuario.getId())) {
+            logger.debug("Token revocado para el usuario {}", usuario.getId());
+            return null;
+        }
+        return usuario;
+    }
+
     // Método para obtener los roles del token
     public List<String> getRolesFromJwtToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(jwtSecret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.get("roles", List.class);
+        return parseClaims(token).get("roles", List.class);
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(jwtSecret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(jwtSecret)
-                .build()
-                .parseClaimsJws(authToken);
+            parseClaims(authToken);
             return true;
         } catch (JwtException e) {
             logger.error("JWT error: {}", e.getMessage());
         }
         return false;
     }
-    
-    
-}
\ No newline at end of file
+
+    private Claims parseClaims(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    // El token ya lleva id, email y roles; no hace falta cargar el usuario
+    private UserDetailsImpl construirUsuario(Claims claims) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        Object roles = claims.get("roles");
+        if (roles instanceof List<?> lista) {
+            for (Object rol : lista) {
+                authorities.add(new SimpleGrantedAuthority(String.valueOf(rol)));
+            }
+        }
+        Number id = claims.get("id", Number.class);
+        Number version = claims.get("ver", Number.class);
+
+        return new UserDetailsImpl(
+                id != null ? id.longValue() : null,
+                claims.getSubject(),
+                claims.get("email", String.class),
+                null,
+                authorities,
+                version != null ? version.intValue() : 0);
+    }
+}
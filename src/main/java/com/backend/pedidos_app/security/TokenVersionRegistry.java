@@ -0,0 +1,41 @@
+package com.backend.pedidos_app.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backend.pedidos_app.repository.UsuarioRepository;
+
+// Versión vigente de los tokens de cada usuario (columna usuarios.token_version).
+// Un token solo es válido si su claim "ver" coincide; al incrementar la versión
+// (cambio o restablecimiento de contraseña) se revocan todos los tokens anteriores.
+// La base de datos se consulta una vez por usuario; después basta el mapa en memoria.
+@Component
+public class TokenVersionRegistry {
+    // Usuario inexistente: ningún token coincide
+    private static final int SIN_USUARIO = -1;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final Map<Long, Integer> versiones = new ConcurrentHashMap<>();
+
+    public int versionActual(Long usuarioId) {
+        Integer version = versiones.get(usuarioId);
+        if (version == null) {
+            version = usuarioRepository.findTokenVersionById(usuarioId).orElse(SIN_USUARIO);
+            Integer previa = versiones.putIfAbsent(usuarioId, version);
+            if (previa != null) {
+                version = previa;
+            }
+        }
+        return version;
+    }
+
+    // Llamar después de persistir la nueva versión del usuario
+    public void actualizar(Long usuarioId, int version) {
+        versiones.put(usuarioId, version);
+    }
+}
@@ -18,6 +18,7 @@ public class UserDetailsImpl implements UserDetails {
     private String email;
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    private int tokenVersion;
 
     public UserDetailsImpl(Long id, String username, String email, String password,
                           Collection<? extends GrantedAuthority> authorities) {
@@ -28,6 +29,12 @@ public class UserDetailsImpl implements UserDetails {
         this.authorities = authorities;
     }
 
+    public UserDetailsImpl(Long id, String username, String email, String password,
+                          Collection<? extends GrantedAuthority> authorities, int tokenVersion) {
+        this(id, username, email, password, authorities);
+        this.tokenVersion = tokenVersion;
+    }
+
     public static UserDetailsImpl build(Usuario usuario) {
         List<GrantedAuthority> authorities = usuario.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority(role.getNombre().name()))
@@ -38,7 +45,8 @@ public class UserDetailsImpl implements UserDetails {
                 usuario.getUsername(),
                 usuario.getEmail(),
                 usuario.getPassword(),
-                authorities);
+                authorities,
+                usuario.getTokenVersion() != null ? usuario.getTokenVersion() : 0);
     }
 
     @Override
@@ -54,6 +62,10 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getPassword() {
         return password;
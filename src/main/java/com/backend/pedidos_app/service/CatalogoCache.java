@@ -0,0 +1,116 @@
+package com.backend.pedidos_app.service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.pedidos_app.dto.CategoriaDto;
+import com.backend.pedidos_app.dto.ProductoDto;
+import com.backend.pedidos_app.model.Categoria;
+import com.backend.pedidos_app.model.Producto;
+import com.backend.pedidos_app.repository.CategoriaRepository;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+// Caché de lectura del catálogo público. Cualquier escritura en productos o categorías
+// incrementa la versión; la siguiente lectura reconstruye la instantánea completa.
+@Component
+public class CatalogoCache {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoCache.class);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    private final AtomicReference<CatalogoSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong(1);
+    // Distingue las versiones entre reinicios, ya que el contador vuelve a empezar
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong reconstrucciones = new AtomicLong();
+
+    public CatalogoSnapshot obtener() {
+        CatalogoSnapshot actual = snapshot.get();
+        if (actual != null && actual.getVersion() == version.get()) {
+            aciertos.incrementAndGet();
+            return actual;
+        }
+        fallos.incrementAndGet();
+        return reconstruir();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // ETag fuerte compartido por todas las respuestas del catálogo
+    public String etag() {
+        return "\"catalogo-" + arranque + "-" + version.get() + "\"";
+    }
+
+    // Si hay una transacción activa, la invalidación espera al commit para no
+    // reconstruir con datos que todavía no son visibles
+    public void invalidar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> estadisticas() {
+        CatalogoSnapshot actual = snapshot.get();
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("version", version.get());
+        datos.put("aciertos", aciertos.get());
+        datos.put("fallos", fallos.get());
+        datos.put("reconstrucciones", reconstrucciones.get());
+        datos.put("productos", actual != null ? actual.getProductos().size() : 0);
+        datos.put("construidoEn", actual != null ? actual.getConstruidoEn() : null);
+        return datos;
+    }
+
+    private synchronized CatalogoSnapshot reconstruir() {
+        long objetivo = version.get();
+        CatalogoSnapshot actual = snapshot.get();
+        // Otro hilo pudo reconstruir mientras esperábamos el lock
+        if (actual != null && actual.getVersion() == objetivo) {
+            return actual;
+        }
+
+        long inicio = System.currentTimeMillis();
+        List<ProductoDto> productos = productoRepository.findAllWithCategoria().stream()
+                .sorted(Comparator.comparing(Producto::getId))
+                .map(CatalogoMapper::aDto)
+                .toList();
+        List<CategoriaDto> categorias = categoriaRepository.findAll().stream()
+                .sorted(Comparator.comparing(Categoria::getId))
+                .map(CatalogoMapper::aDto)
+                .toList();
+
+        CatalogoSnapshot nuevo = new CatalogoSnapshot(objetivo, productos, categorias);
+        snapshot.set(nuevo);
+        reconstrucciones.incrementAndGet();
+        logger.info("Catálogo reconstruido (versión {}, {} productos) en {} ms",
+                objetivo, productos.size(), System.currentTimeMillis() - inicio);
+        return nuevo;
+    }
+}
@@ -0,0 +1,131 @@
+package com.backend.pedidos_app.service;
+
+import com.backend.pedidos_app.dto.CategoriaDto;
+import com.backend.pedidos_app.dto.ProductoDto;
+import com.backend.pedidos_app.model.Categoria;
+import com.backend.pedidos_app.model.Producto;
+
+// Conversión de Producto y Categoria a DTO para el catálogo en memoria, ProductoService y CategoriaService.
+// Los DTO que arma son de solo lectura: los de la instantánea se comparten entre todas las
+// peticiones, así que un setter llamado por error cambiaría la respuesta de todos los clientes.
+// ProductoDto y CategoriaDto siguen siendo mutables porque también se reciben como @RequestBody.
+final class CatalogoMapper {
+
+    private CatalogoMapper() {
+    }
+
+    static ProductoDto aDto(Producto producto) {
+        return new ProductoSoloLectura(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), producto.getCategoria() != null ? aDto(producto.getCategoria()) : null,
+                producto.getImagenUrl(), producto.getImagenMediaUrl(), producto.getImagenThumbUrl(),
+                producto.getActivo());
+    }
+
+    static CategoriaDto aDto(Categoria categoria) {
+        return new CategoriaSoloLectura(categoria.getId(), categoria.getNombre(), categoria.getActivo());
+    }
+
+    // Copia de solo lectura de un DTO armado fuera de este mapper; si ya lo es, se devuelve el mismo
+    static ProductoDto soloLectura(ProductoDto dto) {
+        if (dto instanceof ProductoSoloLectura) {
+            return dto;
+        }
+        return new ProductoSoloLectura(dto.getId(), dto.getNombre(), dto.getDescripcion(), dto.getPrecio(),
+                dto.getCategoria() != null ? soloLectura(dto.getCategoria()) : null,
+                dto.getImagenUrl(), dto.getImagenMediaUrl(), dto.getImagenThumbUrl(), dto.getActivo());
+    }
+
+    static CategoriaDto soloLectura(CategoriaDto dto) {
+        if (dto instanceof CategoriaSoloLectura) {
+            return dto;
+        }
+        return new CategoriaSoloLectura(dto.getId(), dto.getNombre(), dto.getActivo());
+    }
+
+    private static UnsupportedOperationException inmutable() {
+        return new UnsupportedOperationException("Los DTO del catálogo son de solo lectura");
+    }
+
+    private static final class ProductoSoloLectura extends ProductoDto {
+        ProductoSoloLectura(Long id, String nombre, String descripcion, Double precio, CategoriaDto categoria,
+                            String imagenUrl, String imagenMediaUrl, String imagenThumbUrl, Boolean activo) {
+            super.setId(id);
+            super.setNombre(nombre);
+            super.setDescripcion(descripcion);
+            super.setPrecio(precio);
+            super.setCategoria(categoria);
+            super.setImagenUrl(imagenUrl);
+            super.setImagenMediaUrl(imagenMediaUrl);
+            super.setImagenThumbUrl(imagenThumbUrl);
+            super.setActivo(activo);
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setNombre(String nombre) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setDescripcion(String descripcion) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setPrecio(Double precio) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setCategoria(CategoriaDto categoria) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setImagenUrl(String imagenUrl) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setImagenMediaUrl(String imagenMediaUrl) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setImagenThumbUrl(String imagenThumbUrl) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setActivo(Boolean activo) {
+            throw inmutable();
+        }
+    }
+
+    private static final class CategoriaSoloLectura extends CategoriaDto {
+        CategoriaSoloLectura(Long id, String nombre, Boolean activo) {
+            super.setId(id);
+            super.setNombre(nombre);
+            super.setActivo(activo);
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setNombre(String nombre) {
+            throw inmutable();
+        }
+
+        @Override
+        public void setActivo(Boolean activo) {
+            throw inmutable();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.backend.pedidos_app.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.backend.pedidos_app.dto.CategoriaDto;
+import com.backend.pedidos_app.dto.ProductoDto;
+
+import lombok.Getter;
+
+// Vista inmutable del catálogo en una versión dada. Se reemplaza completa, nunca se modifica.
+// Listas, mapas y DTO son de solo lectura (CatalogoMapper).
+@Getter
+public final class CatalogoSnapshot {
+    private final long version;
+    private final LocalDateTime construidoEn;
+    private final List<ProductoDto> productos;
+    private final List<ProductoDto> productosActivos;
+    private final List<CategoriaDto> categorias;
+    private final List<CategoriaDto> categoriasActivas;
+    private final Map<Long, ProductoDto> productosPorId;
+    private final Map<Long, List<ProductoDto>> productosActivosPorCategoria;
+    private final IndiceBusquedaProductos indiceBusqueda;
+
+    public CatalogoSnapshot(long version, List<ProductoDto> productos, List<CategoriaDto> categorias) {
+        this.version = version;
+        this.construidoEn = LocalDateTime.now();
+        this.productos = productos.stream().map(CatalogoMapper::soloLectura).toList();
+        this.categorias = categorias.stream().map(CatalogoMapper::soloLectura).toList();
+
+        List<ProductoDto> activos = new ArrayList<>();
+        Map<Long, ProductoDto> porId = new HashMap<>();
+        Map<Long, List<ProductoDto>> porCategoria = new HashMap<>();
+        for (ProductoDto producto : this.productos) {
+            porId.put(producto.getId(), producto);
+            if (Boolean.TRUE.equals(producto.getActivo())) {
+                activos.add(producto);
+                porCategoria.computeIfAbsent(producto.getCategoria().getId(), k -> new ArrayList<>()).add(producto);
+            }
+        }
+        porCategoria.replaceAll((k, lista) -> List.copyOf(lista));
+
+        this.productosActivos = List.copyOf(activos);
+        this.indiceBusqueda = new IndiceBusquedaProductos(this.productosActivos);
+        this.productosPorId = Collections.unmodifiableMap(porId);
+        this.productosActivosPorCategoria = Collections.unmodifiableMap(porCategoria);
+        this.categoriasActivas = this.categorias.stream()
+                .filter(c -> Boolean.TRUE.equals(c.getActivo()))
+                .toList();
+    }
+
+    public List<ProductoDto> getProductosActivosPorCategoria(Long categoriaId) {
+        return productosActivosPorCategoria.getOrDefault(categoriaId, List.of());
+    }
+}
@@ -12,7 +12,6 @@ import com.backend.pedidos_app.repository.ProductoRepository;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 
 @Service
@@ -24,10 +23,11 @@ public class CategoriaService {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private CatalogoCache catalogoCache;
+
     public List<CategoriaDto> obtenerTodasLasCategoriasActivas() {
-        return categoriaRepository.findByActivoTrue().stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        return catalogoCache.obtener().getCategoriasActivas();
     }
 
     public CategoriaDto crearCategoria(CategoriaDto categoriaDto) {
@@ -40,7 +40,8 @@ public class CategoriaService {
         categoria.setActivo(true);
         
         Categoria categoriaGuardada = categoriaRepository.save(categoria);
-        return convertirADto(categoriaGuardada);
+        catalogoCache.invalidar();
+        return CatalogoMapper.aDto(categoriaGuardada);
     }
 
     public CategoriaDto actualizarCategoria(Long id, CategoriaDto categoriaDto) {
@@ -54,7 +55,8 @@ public class CategoriaService {
         
         categoria.setNombre(categoriaDto.getNombre());
         Categoria categoriaActualizada = categoriaRepository.save(categoria);
-        return convertirADto(categoriaActualizada);
+        catalogoCache.invalidar();
+        return CatalogoMapper.aDto(categoriaActualizada);
     }
     
     @Transactional
@@ -77,6 +79,7 @@ public class CategoriaService {
         }
         
         categoriaRepository.save(categoria);
+        catalogoCache.invalidar();
         return Map.of(
             "action", categoria.getActivo() ? "activated" : "deactivated",
             "message", categoria.getActivo() ? "Categoría reactivada correctamente" : "Categoría desactivada correctamente"
@@ -89,6 +92,7 @@ public class CategoriaService {
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría no encontrada con id: " + id));
         
         boolean tieneProductos = productoRepository.existsByCategoriaId(id);
+        catalogoCache.invalidar();
         
         if (tieneProductos) {
             categoria.setActivo(false);
@@ -105,12 +109,4 @@ public class CategoriaService {
             );
         }
     }
-
-    private CategoriaDto convertirADto(Categoria categoria) {
-        CategoriaDto dto = new CategoriaDto();
-        dto.setId(categoria.getId());
-        dto.setNombre(categoria.getNombre());
-        dto.setActivo(categoria.getActivo());
-        return dto;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,370 @@
+package com.backend.pedidos_app.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.backend.pedidos_app.dto.PedidoResponse;
+import com.backend.pedidos_app.exception.ResourceNotFoundException;
+import com.backend.pedidos_app.exception.ServicioSaturadoException;
+import com.backend.pedidos_app.exception.SolicitudInvalidaException;
+import com.backend.pedidos_app.repository.PedidoRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Recepción de comprobantes de pago sin esperar a Supabase.
+// El archivo se copia a un directorio local (spool) y el pedido se responde de inmediato con
+// comprobanteEstado = pendiente_subida. Un pool acotado lo sube leyendo desde disco y, si falla,
+// lo reintenta con espera exponencial. Una vez subido, la URL queda en el .meta y el archivo local
+// se borra: los reintentos siguientes solo registran la URL en el pedido. Los comprobantes que
+// queden en el spool tras un reinicio se vuelven a encolar al arrancar. El spool tiene un límite de
+// tamaño y de archivos; al llenarse, las subidas nuevas se rechazan con 503.
+@Service
+public class ComprobanteUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ComprobanteUploadService.class);
+
+    public static final String ESTADO_PENDIENTE = "pendiente_subida";
+    public static final String ESTADO_SUBIDO = "subido";
+    public static final String ESTADO_ERROR = "error";
+
+    private static final String EXTENSION_META = ".meta";
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private SupabaseStorageService storageService;
+
+    @Value("${supabase.storage.comprobantes-bucket}")
+    private String bucketComprobantes;
+
+    @Value("${app.comprobantes.spool-dir:${java.io.tmpdir}/pedidos-comprobantes}")
+    private String directorioSpool;
+
+    @Value("${app.comprobantes.hilos:2}")
+    private int hilos;
+
+    @Value("${app.comprobantes.cola:100}")
+    private int capacidadCola;
+
+    @Value("${app.comprobantes.max-intentos:6}")
+    private int maxIntentos;
+
+    @Value("${app.comprobantes.espera-inicial-ms:2000}")
+    private long esperaInicialMs;
+
+    @Value("${app.comprobantes.espera-maxima-ms:120000}")
+    private long esperaMaximaMs;
+
+    @Value("${app.comprobantes.spool-max-mb:500}")
+    private long spoolMaxMb;
+
+    @Value("${app.comprobantes.spool-max-archivos:1000}")
+    private int spoolMaxArchivos;
+
+    private Path spool;
+    private ThreadPoolExecutor ejecutor;
+    // Solo programa reintentos; la subida siempre corre en el pool acotado
+    private final ScheduledExecutorService temporizador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "comprobantes-reintentos");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final AtomicLong subidos = new AtomicLong();
+    private final AtomicLong reintentos = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong rechazadosPorSpool = new AtomicLong();
+
+    // Archivos de comprobante (sin contar los .meta) que ocupan el spool
+    private long bytesSpool;
+    private int archivosSpool;
+
+    // url es null hasta que el archivo está en Supabase
+    private record Subida(Path archivo, Long pedidoId, String contentType, String nombre, String url, int intento) {
+        Subida siguienteIntento() {
+            return new Subida(archivo, pedidoId, contentType, nombre, url, intento + 1);
+        }
+
+        Subida conUrl(String url) {
+            return new Subida(archivo, pedidoId, contentType, nombre, url, intento);
+        }
+    }
+
+    @PostConstruct
+    public void inicializar() throws IOException {
+        spool = Paths.get(directorioSpool).toAbsolutePath();
+        Files.createDirectories(spool);
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(spool, archivo -> !esMeta(archivo))) {
+            for (Path archivo : archivos) {
+                bytesSpool += Files.size(archivo);
+                archivosSpool++;
+            }
+        }
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), r -> {
+                    Thread hilo = new Thread(r, "comprobantes-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public PedidoResponse recibir(Long pedidoId, MultipartFile file) throws IOException {
+        if (pedidoId == 0) {
+            throw new SolicitudInvalidaException("El pedido debe crearse primero antes de subir el comprobante");
+        }
+        if (file == null || file.isEmpty()) {
+            throw new SolicitudInvalidaException("El comprobante está vacío");
+        }
+        if (!pedidoRepository.existsById(pedidoId)) {
+            throw new ResourceNotFoundException("Pedido no encontrado con id: " + pedidoId);
+        }
+
+        String contentType = file.getContentType() != null ? file.getContentType() : "application/octet-stream";
+        String nombre = file.getOriginalFilename() != null ? Paths.get(file.getOriginalFilename()).getFileName().toString() : "comprobante";
+        Path archivo = spool.resolve(pedidoId + "-" + UUID.randomUUID());
+        Subida subida = new Subida(archivo, pedidoId, contentType, nombre, null, 1);
+
+        PedidoResponse respuesta;
+        reservarEspacio(file.getSize());
+        try {
+            // transferTo copia (o mueve) el archivo temporal del multipart sin pasar por un byte[]
+            file.transferTo(archivo);
+            guardarMeta(subida);
+            // Dentro del try: si el pedido no se puede marcar, el .meta no debe quedar para reanudarPendientes
+            respuesta = pedidoService.marcarComprobantePendiente(pedidoId);
+        } catch (IOException | RuntimeException e) {
+            liberarEspacio(file.getSize());
+            Files.deleteIfExists(archivo);
+            Files.deleteIfExists(rutaMeta(archivo));
+            throw e;
+        }
+
+        programar(subida, 0);
+        return respuesta;
+    }
+
+    // Reencola lo que quedó en el spool de una ejecución anterior
+    @EventListener(ApplicationReadyEvent.class)
+    public void reanudarPendientes() {
+        int reanudados = 0;
+        try (DirectoryStream<Path> metas = Files.newDirectoryStream(spool, "*" + EXTENSION_META)) {
+            for (Path meta : metas) {
+                Subida subida = leerMeta(meta);
+                if (subida != null) {
+                    programar(subida, esperaInicialMs * (++reanudados % 10));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("No se pudo leer el directorio de comprobantes {}", spool, e);
+        }
+        if (reanudados > 0) {
+            logger.info("Reanudando {} comprobantes pendientes de subir", reanudados);
+        }
+    }
+
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("subidos", subidos.get());
+        estadisticas.put("reintentos", reintentos.get());
+        estadisticas.put("fallidos", fallidos.get());
+        estadisticas.put("rechazadosPorSpool", rechazadosPorSpool.get());
+        estadisticas.put("activos", ejecutor.getActiveCount());
+        estadisticas.put("enCola", ejecutor.getQueue().size());
+        synchronized (this) {
+            estadisticas.put("bytesSpool", bytesSpool);
+            estadisticas.put("archivosSpool", archivosSpool);
+        }
+        return estadisticas;
+    }
+
+    // El tamaño se reserva antes de escribir para que dos subidas simultáneas no pasen ambas el límite
+    private synchronized void reservarEspacio(long tamano) {
+        if (archivosSpool + 1 > spoolMaxArchivos || bytesSpool + tamano > spoolMaxMb * 1024 * 1024) {
+            rechazadosPorSpool.incrementAndGet();
+            logger.warn("Spool de comprobantes lleno ({} archivos, {} bytes): se rechaza un comprobante de {} bytes",
+                    archivosSpool, bytesSpool, tamano);
+            throw new ServicioSaturadoException(
+                    "Hay demasiados comprobantes pendientes de subir; intente de nuevo en unos minutos",
+                    Math.max(1, esperaMaximaMs / 1000));
+        }
+        bytesSpool += tamano;
+        archivosSpool++;
+    }
+
+    private synchronized void liberarEspacio(long tamano) {
+        bytesSpool -= tamano;
+        archivosSpool--;
+    }
+
+    private void programar(Subida subida, long esperaMs) {
+        if (esperaMs <= 0) {
+            enviarAlPool(subida);
+        } else {
+            temporizador.schedule(() -> enviarAlPool(subida), esperaMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void enviarAlPool(Subida subida) {
+        try {
+            ejecutor.execute(() -> subir(subida));
+        } catch (RejectedExecutionException e) {
+            // Pool saturado: el archivo ya está en disco, se vuelve a intentar más tarde
+            temporizador.schedule(() -> enviarAlPool(subida), esperaInicialMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void subir(Subida subida) {
+        try {
+            if (subida.url() == null) {
+                String url = storageService.uploadFile(subida.archivo(), subida.contentType(), subida.nombre(), bucketComprobantes);
+                subida = subida.conUrl(url);
+                // Desde aquí un reintento no vuelve a subir el archivo, aunque el servidor se reinicie
+                guardarMeta(subida);
+                borrarDatos(subida.archivo());
+            }
+            pedidoService.registrarComprobanteSubido(subida.pedidoId(), subida.url());
+            // Se cuenta antes de vaciar el spool: quien vea el spool vacío ya ve la subida contada
+            subidos.incrementAndGet();
+            borrar(subida.archivo());
+        } catch (ResourceNotFoundException e) {
+            // El pedido se eliminó mientras tanto: no hay a quién asignar el comprobante
+            logger.warn("Comprobante descartado: {}", e.getMessage());
+            if (subida.url() != null) {
+                try {
+                    storageService.deleteFile(subida.url());
+                } catch (Exception ex) {
+                    logger.warn("No se pudo eliminar el comprobante huérfano {}: {}", subida.url(), ex.getMessage());
+                }
+            }
+            borrar(subida.archivo());
+        } catch (Exception e) {
+            if (subida.intento() >= maxIntentos) {
+                fallidos.incrementAndGet();
+                logger.error("No se pudo subir el comprobante del pedido {} tras {} intentos; queda en {}",
+                        subida.pedidoId(), subida.intento(), subida.archivo(), e);
+                try {
+                    pedidoService.registrarComprobanteFallido(subida.pedidoId());
+                } catch (Exception ex) {
+                    logger.warn("No se pudo marcar el comprobante del pedido {} como fallido: {}",
+                            subida.pedidoId(), ex.getMessage());
+                }
+                return;
+            }
+            long espera = Math.min(esperaMaximaMs, esperaInicialMs << (subida.intento() - 1));
+            reintentos.incrementAndGet();
+            logger.warn("Error al subir el comprobante del pedido {} (intento {}), reintento en {} ms: {}",
+                    subida.pedidoId(), subida.intento(), espera, e.getMessage());
+            programar(subida.siguienteIntento(), espera);
+        }
+    }
+
+    // Se escribe en un temporal y se renombra: un .meta nunca queda a medias
+    private void guardarMeta(Subida subida) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("pedidoId", String.valueOf(subida.pedidoId()));
+        meta.setProperty("contentType", subida.contentType());
+        meta.setProperty("nombre", subida.nombre());
+        if (subida.url() != null) {
+            meta.setProperty("url", subida.url());
+        }
+        Path destino = rutaMeta(subida.archivo());
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (OutputStream salida = Files.newOutputStream(temporal)) {
+            meta.store(salida, null);
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Subida leerMeta(Path rutaMeta) {
+        String nombreArchivo = rutaMeta.getFileName().toString();
+        Path archivo = rutaMeta.resolveSibling(nombreArchivo.substring(0, nombreArchivo.length() - EXTENSION_META.length()));
+        Properties meta = new Properties();
+        try (InputStream entrada = Files.newInputStream(rutaMeta)) {
+            meta.load(entrada);
+        } catch (IOException e) {
+            logger.warn("Metadatos de comprobante inválidos en {}: {}", rutaMeta, e.getMessage());
+            return null;
+        }
+        String url = meta.getProperty("url");
+        // Sin URL hace falta el archivo para subirlo; con URL ya no se usa
+        if (url == null && !Files.exists(archivo)) {
+            borrar(archivo);
+            return null;
+        }
+        try {
+            return new Subida(archivo, Long.valueOf(meta.getProperty("pedidoId")),
+                    meta.getProperty("contentType"), meta.getProperty("nombre"), url, 1);
+        } catch (RuntimeException e) {
+            logger.warn("Metadatos de comprobante inválidos en {}: {}", rutaMeta, e.getMessage());
+            return null;
+        }
+    }
+
+    private Path rutaMeta(Path archivo) {
+        return archivo.resolveSibling(archivo.getFileName() + EXTENSION_META);
+    }
+
+    private static boolean esMeta(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return nombre.endsWith(EXTENSION_META) || nombre.endsWith(EXTENSION_META + ".tmp");
+    }
+
+    private void borrar(Path archivo) {
+        borrarDatos(archivo);
+        try {
+            Files.deleteIfExists(rutaMeta(archivo));
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar {}: {}", rutaMeta(archivo), e.getMessage());
+        }
+    }
+
+    // Borra el archivo del comprobante y descuenta su tamaño del spool
+    private void borrarDatos(Path archivo) {
+        try {
+            long tamano = Files.exists(archivo) ? Files.size(archivo) : 0;
+            if (Files.deleteIfExists(archivo)) {
+                liberarEspacio(tamano);
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo eliminar {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        temporizador.shutdownNow();
+        ejecutor.shutdownNow();
+    }
+}
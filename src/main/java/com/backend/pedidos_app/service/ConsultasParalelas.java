@@ -0,0 +1,154 @@
+package com.backend.pedidos_app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Ejecuta en paralelo las consultas de lectura independientes de reportes y dashboard.
+// Cada consulta corre en su propia transacción de solo lectura en un pool acotado: el número
+// de hilos es el máximo de conexiones que este pool le quita a Hikari. Si el pool está lleno,
+// la consulta corre en el hilo de la petición (queda secuencial, pero no se rechaza).
+@Component
+public class ConsultasParalelas {
+    private static final Logger logger = LoggerFactory.getLogger(ConsultasParalelas.class);
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.consultas.paralelas.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.consultas.paralelas.hilos:4}")
+    private int hilos;
+
+    @Value("${app.consultas.paralelas.cola:32}")
+    private int capacidadCola;
+
+    @Value("${app.consultas.paralelas.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor ejecutor;
+    private TransactionTemplate soloLectura;
+
+    @PostConstruct
+    public void inicializar() {
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), r -> {
+                    Thread hilo = new Thread(r, "consultas-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        new ExecutorServiceMetrics(ejecutor, "consultas.paralelas", List.of()).bindTo(meterRegistry);
+
+        soloLectura = new TransactionTemplate(transactionManager);
+        soloLectura.setReadOnly(true);
+        // Transacción propia aunque el llamador ya tenga una (caso CallerRunsPolicy)
+        soloLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // El timeout de la transacción se aplica como timeout de las consultas JPA
+        soloLectura.setTimeout((int) Math.max(1, (timeoutMs + 999) / 1000));
+    }
+
+    // Las consultas de un lote comparten el mismo plazo total
+    public Lote nuevoLote() {
+        return new Lote(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    public class Lote {
+        private final long plazoNanos;
+        private final List<String> seccionesIncompletas = new ArrayList<>();
+
+        private Lote(long plazoNanos) {
+            this.plazoNanos = plazoNanos;
+        }
+
+        public <T> CompletableFuture<T> enviar(Supplier<T> consulta) {
+            if (!habilitado) {
+                // Modo secuencial: misma transacción de solo lectura, en el hilo actual
+                try {
+                    return CompletableFuture.completedFuture(soloLectura.execute(estado -> consulta.get()));
+                } catch (RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+            return CompletableFuture.supplyAsync(() -> soloLectura.execute(estado -> consulta.get()), ejecutor);
+        }
+
+        // Sección obligatoria: si falla o vence el plazo, falla el reporte completo
+        public <T> T obtener(CompletableFuture<T> futuro, String seccion) {
+            try {
+                return futuro.get(restanteNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                futuro.cancel(true);
+                throw new IllegalStateException("La consulta '" + seccion + "' excedió el tiempo límite");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Consulta '" + seccion + "' interrumpida");
+            } catch (ExecutionException e) {
+                throw propagar(e.getCause());
+            }
+        }
+
+        // Sección opcional: si falla o vence el plazo se usa el valor por defecto y la
+        // sección queda anotada en getSeccionesIncompletas()
+        public <T> T obtenerOpcional(CompletableFuture<T> futuro, String seccion, T porDefecto) {
+            try {
+                return futuro.get(restanteNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                futuro.cancel(true);
+                logger.warn("La consulta '{}' excedió el tiempo límite; se devuelve el resultado parcial", seccion);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.warn("Falló la consulta '{}'; se devuelve el resultado parcial: {}", seccion, e.getCause().getMessage());
+            }
+            seccionesIncompletas.add(seccion);
+            return porDefecto;
+        }
+
+        public List<String> getSeccionesIncompletas() {
+            return seccionesIncompletas;
+        }
+
+        private long restanteNanos() {
+            return Math.max(0, plazoNanos - System.nanoTime());
+        }
+
+        private RuntimeException propagar(Throwable causa) {
+            if (causa instanceof CompletionException && causa.getCause() != null) {
+                causa = causa.getCause();
+            }
+            return causa instanceof RuntimeException runtime ? runtime : new IllegalStateException(causa);
+        }
+    }
+}
@@ -4,30 +4,75 @@ import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
+import com.backend.pedidos_app.repository.PedidoRepository;
+
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 
 @Service
 public class ExcelExportService {
     private static final Logger logger = LoggerFactory.getLogger(ExcelExportService.class);
     private static final int MAX_MEMORY_THRESHOLD = 50 * 1024 * 1024; // 50MB
+    private static final int TAMANO_LOTE_DETALLE = 500;
+    // Límite de filas de una hoja xlsx (1.048.576) con margen; al llegar se abre otra hoja
+    private static final int MAX_FILAS_POR_HOJA = 1_000_000;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.exportacion.filas-por-hoja:" + MAX_FILAS_POR_HOJA + "}")
+    private int filasPorHoja = MAX_FILAS_POR_HOJA;
 
     public byte[] exportarReporte(Map<String, Object> reporte) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        escribirReporte(reporte, outputStream, null);
+        byte[] excelBytes = outputStream.toByteArray();
+
+        logger.info("Archivo Excel generado exitosamente. Tamaño: {} bytes", excelBytes.length);
+
+        // Validación básica
+        if (excelBytes.length < 1000) {
+            throw new IOException("Archivo generado demasiado pequeño");
+        }
+
+        return excelBytes;
+    }
+
+    // Escribe el libro directamente en la salida (p. ej. la respuesta HTTP) sin copiarlo en memoria.
+    // Con detalle != null se agrega la hoja "Pedidos", leída por lotes desde la base de datos.
+    public void escribirReporte(Map<String, Object> reporte, OutputStream salida, DetallePedidos detalle) throws IOException {
         if (reporte == null || reporte.isEmpty()) {
             logger.error("El reporte es nulo o vacío");
             throw new IllegalArgumentException("El reporte no puede ser nulo o vacío");
         }
 
-        logger.info("Generando reporte Excel con datos: {}", reporte);
+        logger.debug("Generando reporte Excel con datos: {}", reporte);
+
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        ContadorBytes contador = new ContadorBytes(salida);
+        String resultado = "error";
 
         // Usar SXSSFWorkbook para mejor manejo de memoria
         SXSSFWorkbook workbook = null;
@@ -44,27 +89,32 @@ public class ExcelExportService {
             createOptimizedSalesByMonthSheet(workbook, reporte, styles);
             createOptimizedOrderStatusSheet(workbook, reporte, styles);
             createOptimizedHighlightsSheet(workbook, reporte, styles);
-
-            // Generar el archivo
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-
-            byte[] excelBytes = outputStream.toByteArray();
-            outputStream.close();
-
-            logger.info("Archivo Excel generado exitosamente. Tamaño: {} bytes", excelBytes.length);
-
-            // Validación básica
-            if (excelBytes.length < 1000) {
-                throw new IOException("Archivo generado demasiado pequeño");
+            if (detalle != null) {
+                createOrderDetailSheets(workbook, detalle, styles);
             }
 
-            return excelBytes;
+            workbook.write(contador);
+            contador.flush();
+            resultado = "ok";
 
         } catch (Exception e) {
             logger.error("Error al generar el reporte Excel: {}", e.getMessage(), e);
             throw new IOException("Error al generar el archivo Excel: " + e.getMessage(), e);
         } finally {
+            String tipo = detalle != null ? "detalle" : "resumen";
+            muestra.stop(Timer.builder("reportes.excel.generacion")
+                    .description("Tiempo de generación y escritura del xlsx de reportes")
+                    .tag("tipo", tipo)
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
+            if ("ok".equals(resultado)) {
+                DistributionSummary.builder("reportes.excel.tamano")
+                        .description("Tamaño del xlsx de reportes generado")
+                        .baseUnit("bytes")
+                        .tag("tipo", tipo)
+                        .register(meterRegistry)
+                        .record(contador.getBytes());
+            }
             // Limpiar recursos
             if (workbook != null) {
                 try {
@@ -74,11 +124,105 @@ public class ExcelExportService {
                     logger.warn("Error al cerrar workbook: {}", e.getMessage());
                 }
             }
-            // Forzar garbage collection
-            System.gc();
         }
     }
 
+    // Cuenta los bytes escritos sin copiarlos, para medir el tamaño de los libros en streaming
+    private static class ContadorBytes extends FilterOutputStream {
+        private long bytes;
+
+        ContadorBytes(OutputStream salida) {
+            super(salida);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+    }
+
+    // Rango y filtro de la hoja de detalle; estado null incluye todos
+    public record DetallePedidos(LocalDateTime inicio, LocalDateTime fin, String estado) {}
+
+    // Columnas de PedidoProductoExportacionRepository.streamLineas
+    static final String[] COLUMNAS_LINEAS = {"Pedido", "Fecha", "Cliente", "Teléfono", "Entrega", "Pago", "Estado",
+            "Producto ID", "Producto", "Cantidad", "Precio Unitario (Q)", "Subtotal (Q)", "Personalizaciones"};
+
+    // Escribe una fila por línea de pedido a medida que llegan del cursor. Devuelve las filas escritas.
+    public long escribirLineas(Stream<Object[]> lineas, OutputStream salida) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        workbook.setCompressTempFiles(true);
+        try {
+            Map<String, CellStyle> styles = createStyles(workbook);
+            long total = 0;
+            int numeroHoja = 1;
+            Sheet sheet = createLinesSheet(workbook, "Líneas", styles);
+            int rowNum = 1;
+
+            for (Object[] linea : (Iterable<Object[]>) lineas::iterator) {
+                if (rowNum > filasPorHoja) {
+                    numeroHoja++;
+                    sheet = createLinesSheet(workbook, "Líneas (" + numeroHoja + ")", styles);
+                    rowNum = 1;
+                }
+                Row row = sheet.createRow(rowNum++);
+                Cell pedidoCell = row.createCell(0);
+                pedidoCell.setCellValue(safeGetLong(linea[0]));
+                pedidoCell.setCellStyle(styles.get("default"));
+                Cell fechaCell = row.createCell(1);
+                fechaCell.setCellValue((LocalDateTime) linea[1]);
+                fechaCell.setCellStyle(styles.get("date"));
+                for (int i = 2; i <= 6; i++) {
+                    createCell(row, i, safeGetString(linea[i]), styles.get("default"));
+                }
+                Cell productoCell = row.createCell(7);
+                productoCell.setCellValue(safeGetLong(linea[7]));
+                productoCell.setCellStyle(styles.get("default"));
+                createCell(row, 8, safeGetString(linea[8]), styles.get("default"));
+                long cantidad = safeGetLong(linea[9]);
+                double precio = safeGetDouble(linea[10]);
+                Cell cantidadCell = row.createCell(9);
+                cantidadCell.setCellValue(cantidad);
+                cantidadCell.setCellStyle(styles.get("default"));
+                Cell precioCell = row.createCell(10);
+                precioCell.setCellValue(precio);
+                precioCell.setCellStyle(styles.get("currency"));
+                Cell subtotalCell = row.createCell(11);
+                subtotalCell.setCellValue(cantidad * precio);
+                subtotalCell.setCellStyle(styles.get("currency"));
+                createCell(row, 12, safeGetString(linea[11]), styles.get("default"));
+                total++;
+            }
+
+            workbook.write(salida);
+            salida.flush();
+            return total;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private Sheet createLinesSheet(SXSSFWorkbook workbook, String nombre, Map<String, CellStyle> styles) {
+        Sheet sheet = workbook.createSheet(nombre);
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < COLUMNAS_LINEAS.length; i++) {
+            createCell(headerRow, i, COLUMNAS_LINEAS[i], styles.get("header"));
+        }
+        return sheet;
+    }
+
     private Map<String, CellStyle> createStyles(Workbook workbook) {
         Map<String, CellStyle> styles = new HashMap<>();
 
@@ -107,6 +251,13 @@ public class ExcelExportService {
         defaultStyle.setAlignment(HorizontalAlignment.LEFT);
         styles.put("default", defaultStyle);
 
+        // Estilo fecha
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(format.getFormat("yyyy-mm-dd hh:mm"));
+        setBorderStyles(dateStyle);
+        dateStyle.setAlignment(HorizontalAlignment.LEFT);
+        styles.put("date", dateStyle);
+
         // Estilo percent
         CellStyle percentStyle = workbook.createCellStyle();
         percentStyle.setDataFormat(format.getFormat("0.00%"));
@@ -244,6 +395,67 @@ public class ExcelExportService {
         }
     }
 
+    // Una fila por pedido. Se lee por lotes con cursor (fechaPedido, id) y SXSSF solo
+    // mantiene 100 filas en memoria, así que el consumo no depende del tamaño del rango.
+    private void createOrderDetailSheets(SXSSFWorkbook workbook, DetallePedidos detalle,
+                                         Map<String, CellStyle> styles) {
+        int numeroHoja = 1;
+        Sheet sheet = createOrderDetailSheet(workbook, "Pedidos", styles);
+        int rowNum = 1;
+
+        LocalDateTime fechaDesde = detalle.inicio();
+        long idDesde = 0L;
+        List<Object[]> lote;
+        do {
+            lote = pedidoRepository.findFilasExportacionDespuesDe(detalle.inicio(), detalle.fin(), detalle.estado(),
+                    fechaDesde, idDesde, PageRequest.of(0, TAMANO_LOTE_DETALLE));
+            for (Object[] fila : lote) {
+                if (rowNum > filasPorHoja) {
+                    numeroHoja++;
+                    sheet = createOrderDetailSheet(workbook, "Pedidos (" + numeroHoja + ")", styles);
+                    rowNum = 1;
+                }
+                Row row = sheet.createRow(rowNum++);
+                Cell idCell = row.createCell(0);
+                idCell.setCellValue(((Number) fila[0]).doubleValue());
+                idCell.setCellStyle(styles.get("default"));
+                Cell fechaCell = row.createCell(1);
+                fechaCell.setCellValue((LocalDateTime) fila[1]);
+                fechaCell.setCellStyle(styles.get("date"));
+                createCell(row, 2, safeGetString(fila[2]), styles.get("default"));
+                createCell(row, 3, safeGetString(fila[3]), styles.get("default"));
+                createCell(row, 4, safeGetString(fila[4]), styles.get("default"));
+                createCell(row, 5, safeGetString(fila[5]), styles.get("default"));
+                createCell(row, 6, safeGetString(fila[6]), styles.get("default"));
+                Cell recargoCell = row.createCell(7);
+                recargoCell.setCellValue(safeGetDouble(fila[7]));
+                recargoCell.setCellStyle(styles.get("currency"));
+                Cell totalCell = row.createCell(8);
+                totalCell.setCellValue(safeGetDouble(fila[8]));
+                totalCell.setCellStyle(styles.get("currency"));
+            }
+            if (!lote.isEmpty()) {
+                Object[] ultima = lote.get(lote.size() - 1);
+                idDesde = ((Number) ultima[0]).longValue();
+                fechaDesde = (LocalDateTime) ultima[1];
+            }
+        } while (lote.size() == TAMANO_LOTE_DETALLE);
+
+        if (rowNum == 1 && numeroHoja == 1) {
+            createCell(sheet.createRow(1), 0, "No hay datos disponibles", styles.get("default"));
+        }
+    }
+
+    private Sheet createOrderDetailSheet(SXSSFWorkbook workbook, String nombre, Map<String, CellStyle> styles) {
+        Sheet sheet = workbook.createSheet(nombre);
+        Row headerRow = sheet.createRow(0);
+        String[] columnas = {"ID", "Fecha", "Cliente", "Teléfono", "Entrega", "Pago", "Estado", "Recargo (Q)", "Total (Q)"};
+        for (int i = 0; i < columnas.length; i++) {
+            createCell(headerRow, i, columnas[i], styles.get("header"));
+        }
+        return sheet;
+    }
+
     private void createSummaryRow(Sheet sheet, int rowNum, String label, Number value,
                                   Map<String, CellStyle> styles) {
         Row row = sheet.createRow(rowNum);
@@ -321,7 +533,6 @@ public class ExcelExportService {
                 workbook.dispose();
                 workbook.close();
             }
-            System.gc();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.backend.pedidos_app.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.backend.pedidos_app.repository.PedidoProductoExportacionRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Exportación de todas las líneas de pedido de un periodo. Las filas se leen con un cursor
+// de solo avance y se escriben en la salida a medida que llegan, sin acumularlas en memoria.
+@Service
+public class ExportacionLineasService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionLineasService.class);
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private PedidoProductoExportacionRepository exportacionRepository;
+
+    @Autowired
+    private ExcelExportService excelExportService;
+
+    // El Stream necesita la conexión abierta mientras se recorre, por eso todo ocurre en la transacción
+    @Transactional(readOnly = true)
+    public long escribirXlsx(LocalDateTime inicio, LocalDateTime fin, String estado, OutputStream salida) throws IOException {
+        long startTime = System.currentTimeMillis();
+        try (Stream<Object[]> lineas = abrirLineas(inicio, fin, estado)) {
+            long total = excelExportService.escribirLineas(lineas, salida);
+            logger.info("Exportación de líneas xlsx: {} filas en {} ms", total, System.currentTimeMillis() - startTime);
+            return total;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long escribirCsv(LocalDateTime inicio, LocalDateTime fin, String estado, OutputStream salida) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long total = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        try (Stream<Object[]> lineas = abrirLineas(inicio, fin, estado)) {
+            // BOM para que Excel reconozca UTF-8 al abrir el CSV
+            writer.write('\uFEFF');
+            escribirFilaCsv(writer, ExcelExportService.COLUMNAS_LINEAS);
+
+            for (Object[] linea : (Iterable<Object[]>) lineas::iterator) {
+                long cantidad = linea[9] instanceof Number n ? n.longValue() : 0L;
+                double precio = linea[10] instanceof Number n ? n.doubleValue() : 0.0;
+                escribirFilaCsv(writer, new String[] {
+                        String.valueOf(linea[0]),
+                        ((LocalDateTime) linea[1]).format(FORMATO_FECHA),
+                        texto(linea[2]), texto(linea[3]), texto(linea[4]), texto(linea[5]), texto(linea[6]),
+                        String.valueOf(linea[7]), texto(linea[8]),
+                        String.valueOf(cantidad),
+                        String.format(Locale.ROOT, "%.2f", precio),
+                        String.format(Locale.ROOT, "%.2f", cantidad * precio),
+                        texto(linea[11])
+                });
+                total++;
+            }
+        }
+        writer.flush();
+        logger.info("Exportación de líneas csv: {} filas en {} ms", total, System.currentTimeMillis() - startTime);
+        return total;
+    }
+
+    private Stream<Object[]> abrirLineas(LocalDateTime inicio, LocalDateTime fin, String estado) {
+        String filtro = estado == null || "todos".equalsIgnoreCase(estado) ? null : estado;
+        return exportacionRepository.streamLineas(inicio, fin, filtro);
+    }
+
+    private void escribirFilaCsv(Writer writer, String[] campos) throws IOException {
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escaparCsv(campos[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private String escaparCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    private String texto(Object valor) {
+        return valor != null ? valor.toString() : "";
+    }
+}
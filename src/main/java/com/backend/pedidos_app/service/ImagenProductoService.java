@@ -0,0 +1,296 @@
+package com.backend.pedidos_app.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.backend.pedidos_app.model.Producto;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Genera las variantes de la imagen de un producto (completa, media y miniatura) fuera del hilo
+// de la petición. La imagen se decodifica una sola vez, submuestreada si es mucho más grande que
+// la variante completa, y cada variante se obtiene reduciendo la anterior. Las tres se suben en
+// paralelo y, al terminar, se asignan al producto y se invalida el catálogo.
+@Service
+public class ImagenProductoService {
+    private static final Logger logger = LoggerFactory.getLogger(ImagenProductoService.class);
+    private static final String TIPO_SALIDA = "image/jpeg";
+
+    @Autowired
+    private SupabaseStorageService storageService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Value("${supabase.storage.productos-bucket}")
+    private String bucketProductos;
+
+    @Value("${app.imagenes.ancho-completa:1600}")
+    private int anchoCompleta;
+
+    @Value("${app.imagenes.ancho-media:600}")
+    private int anchoMedia;
+
+    @Value("${app.imagenes.ancho-miniatura:200}")
+    private int anchoMiniatura;
+
+    @Value("${app.imagenes.calidad-jpeg:0.82}")
+    private float calidadJpeg;
+
+    @Value("${app.imagenes.hilos:2}")
+    private int hilos;
+
+    // Decodificar y escalar usa mucha memoria por imagen: pocos hilos y cola acotada
+    private ThreadPoolExecutor procesamiento;
+    private final ExecutorService subidas = Executors.newFixedThreadPool(3, r -> {
+        Thread hilo = new Thread(r, "imagenes-subida");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private record Variantes(byte[] completa, byte[] media, byte[] miniatura) {}
+
+    @PostConstruct
+    public void inicializar() {
+        AtomicInteger contador = new AtomicInteger();
+        procesamiento = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(20), r -> {
+                    Thread hilo = new Thread(r, "imagenes-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Copia la imagen a un archivo temporal y programa su procesamiento.
+    // Las URLs del producto se actualizan cuando las variantes están subidas.
+    public void procesar(Long productoId, MultipartFile imagen) throws IOException {
+        Path temporal = Files.createTempFile("producto-" + productoId + "-", ".img");
+        imagen.transferTo(temporal);
+        String contentType = imagen.getContentType() != null ? imagen.getContentType() : "application/octet-stream";
+        String nombre = imagen.getOriginalFilename() != null ? imagen.getOriginalFilename() : "imagen";
+        try {
+            procesamiento.execute(() -> generarYPublicar(productoId, temporal, contentType, nombre));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(temporal);
+            throw new IllegalStateException("Hay demasiadas imágenes en proceso, intente más tarde");
+        }
+    }
+
+    // Borra todas las variantes de un producto (errores se registran y se ignoran)
+    public void eliminarImagenes(Producto producto) {
+        eliminar(producto.getImagenUrl());
+        eliminar(producto.getImagenMediaUrl());
+        eliminar(producto.getImagenThumbUrl());
+    }
+
+    private void generarYPublicar(Long productoId, Path temporal, String contentType, String nombre) {
+        long inicio = System.currentTimeMillis();
+        try {
+            Producto anterior = productoRepository.findById(productoId).orElse(null);
+            if (anterior == null) {
+                logger.warn("Producto {} eliminado antes de procesar su imagen", productoId);
+                return;
+            }
+
+            BufferedImage original = decodificar(temporal);
+            String completa;
+            String media;
+            String miniatura;
+            String tipo;
+            if (original == null) {
+                // Formato que ImageIO no decodifica (p. ej. WebP o HEIC): se publica tal cual y
+                // los clientes usan imagenUrl, igual que con los productos anteriores a las variantes
+                logger.warn("No se pudo decodificar la imagen del producto {} ({}); se sube sin variantes",
+                        productoId, contentType);
+                completa = storageService.uploadFile(temporal, contentType, nombre, bucketProductos);
+                media = null;
+                miniatura = null;
+                tipo = contentType;
+            } else {
+                Variantes variantes = generarVariantes(original);
+                String base = "producto-" + productoId;
+                CompletableFuture<String> subidaCompleta = subir(variantes.completa(), base + "-completa.jpg");
+                CompletableFuture<String> subidaMedia = subir(variantes.media(), base + "-media.jpg");
+                CompletableFuture<String> subidaMiniatura = subir(variantes.miniatura(), base + "-miniatura.jpg");
+                try {
+                    CompletableFuture.allOf(subidaCompleta, subidaMedia, subidaMiniatura).join();
+                } catch (CompletionException e) {
+                    // allOf espera a las tres: las que sí se subieron quedarían sin producto que las use
+                    descartarSubidas(subidaCompleta, subidaMedia, subidaMiniatura);
+                    throw e;
+                }
+                completa = subidaCompleta.join();
+                media = subidaMedia.join();
+                miniatura = subidaMiniatura.join();
+                tipo = TIPO_SALIDA;
+            }
+
+            if (productoRepository.actualizarImagenes(productoId, completa, media, miniatura, tipo) == 0) {
+                // El producto se eliminó mientras se subían las variantes
+                eliminar(completa);
+                eliminar(media);
+                eliminar(miniatura);
+                return;
+            }
+            catalogoCache.invalidar();
+            eliminarImagenes(anterior);
+            logger.info("Imagen del producto {} publicada en {} ms", productoId, System.currentTimeMillis() - inicio);
+        } catch (Exception e) {
+            logger.error("Error al procesar la imagen del producto {}", productoId, e);
+        } finally {
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException e) {
+                logger.warn("No se pudo eliminar {}: {}", temporal, e.getMessage());
+            }
+        }
+    }
+
+    private CompletableFuture<String> subir(byte[] contenido, String nombre) {
+        return CompletableFuture.supplyAsync(
+                () -> storageService.uploadBytes(contenido, TIPO_SALIDA, nombre, bucketProductos), subidas);
+    }
+
+    @SafeVarargs
+    private void descartarSubidas(CompletableFuture<String>... variantes) {
+        for (CompletableFuture<String> variante : variantes) {
+            if (!variante.isCompletedExceptionally()) {
+                eliminar(variante.join());
+            }
+        }
+    }
+
+    // Lee solo la primera imagen y, si es varias veces más ancha que la variante completa,
+    // la submuestrea al decodificar para no crear un raster de decenas de megapíxeles
+    private BufferedImage decodificar(Path archivo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(archivo.toFile())) {
+            if (entrada == null) {
+                return null;
+            }
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(entrada);
+            if (!lectores.hasNext()) {
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                int factor = Math.max(1, lector.getWidth(0) / anchoCompleta);
+                if (factor > 1) {
+                    parametros.setSourceSubsampling(factor, factor, 0, 0);
+                }
+                return lector.read(0, parametros);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    private Variantes generarVariantes(BufferedImage original) throws IOException {
+        BufferedImage completa = reducir(original, anchoCompleta);
+        BufferedImage media = reducir(completa, anchoMedia);
+        BufferedImage miniatura = reducir(media, anchoMiniatura);
+        return new Variantes(codificarJpeg(completa), codificarJpeg(media), codificarJpeg(miniatura));
+    }
+
+    // Reduce por mitades hasta acercarse al ancho pedido (evita el aliasing de un solo paso grande).
+    // Nunca amplía; el resultado siempre es RGB opaco, como requiere JPEG.
+    private BufferedImage reducir(BufferedImage origen, int anchoMaximo) {
+        int ancho = origen.getWidth();
+        int alto = origen.getHeight();
+        if (ancho <= anchoMaximo) {
+            return origen.getType() == BufferedImage.TYPE_INT_RGB ? origen : redimensionar(origen, ancho, alto);
+        }
+        BufferedImage actual = origen;
+        while (actual.getWidth() / 2 >= anchoMaximo) {
+            actual = redimensionar(actual, actual.getWidth() / 2, Math.max(1, actual.getHeight() / 2));
+        }
+        int altoFinal = Math.max(1, (int) Math.round((double) alto * anchoMaximo / ancho));
+        return redimensionar(actual, anchoMaximo, altoFinal);
+    }
+
+    private BufferedImage redimensionar(BufferedImage origen, int ancho, int alto) {
+        BufferedImage destino = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            // Fondo blanco para imágenes con transparencia (PNG)
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, ancho, alto);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(origen, 0, 0, ancho, alto, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    private byte[] codificarJpeg(BufferedImage imagen) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(salida)) {
+            escritor.setOutput(ios);
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(calidadJpeg);
+            escritor.write(null, new IIOImage(imagen, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+        return salida.toByteArray();
+    }
+
+    private void eliminar(String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        try {
+            storageService.deleteFile(url);
+        } catch (Exception e) {
+            logger.warn("No se pudo eliminar la imagen {}: {}", url, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        procesamiento.shutdownNow();
+        subidas.shutdownNow();
+    }
+}
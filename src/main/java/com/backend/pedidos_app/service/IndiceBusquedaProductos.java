@@ -0,0 +1,246 @@
+package com.backend.pedidos_app.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import com.backend.pedidos_app.dto.ProductoDto;
+
+// Índice invertido en memoria sobre los productos activos de una instantánea del catálogo.
+// Indexa nombre, descripción y nombre de categoría sin acentos ("café" = "cafe") y en
+// trigramas, de modo que tolera errores de tipeo. Es inmutable: se construye junto con la
+// instantánea y se descarta con ella, así que siempre está sincronizado con las escrituras.
+public final class IndiceBusquedaProductos {
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final double PESO_NOMBRE = 3.0;
+    private static final double PESO_CATEGORIA = 1.5;
+    private static final double PESO_DESCRIPCION = 1.0;
+    // Similitud mínima (Dice sobre trigramas) para aceptar una palabra con errores
+    private static final double SIMILITUD_MINIMA = 0.45;
+    private static final double SIMILITUD_PREFIJO = 0.9;
+
+    private record Documento(ProductoDto producto, String nombre, String[] palabrasNombre,
+                             String[] palabrasCategoria, String[] palabrasDescripcion) {}
+
+    private final Documento[] documentos;
+    // trigrama -> posiciones (ordenadas) de los documentos que lo contienen
+    private final Map<String, int[]> porTrigrama;
+    // palabra -> posiciones de los documentos; el TreeSet permite recorrer por prefijo
+    private final Map<String, int[]> porPalabra;
+    private final TreeSet<String> palabras;
+    private final TreeSet<String> palabrasNombre;
+    private final Map<String, Set<String>> trigramasPorPalabra;
+    private final Map<Long, Documento> porId;
+
+    public IndiceBusquedaProductos(List<ProductoDto> productosActivos) {
+        this.documentos = new Documento[productosActivos.size()];
+        Map<String, Set<Integer>> trigramas = new HashMap<>();
+        Map<String, Set<Integer>> terminos = new HashMap<>();
+        this.palabrasNombre = new TreeSet<>();
+        this.porId = new HashMap<>();
+
+        for (int i = 0; i < documentos.length; i++) {
+            ProductoDto producto = productosActivos.get(i);
+            String[] nombre = palabras(producto.getNombre());
+            String[] categoria = palabras(producto.getCategoria() != null ? producto.getCategoria().getNombre() : null);
+            String[] descripcion = palabras(producto.getDescripcion());
+            documentos[i] = new Documento(producto, normalizar(producto.getNombre()), nombre, categoria, descripcion);
+            porId.put(producto.getId(), documentos[i]);
+
+            palabrasNombre.addAll(Arrays.asList(nombre));
+            for (String[] campo : List.of(nombre, categoria, descripcion)) {
+                for (String palabra : campo) {
+                    terminos.computeIfAbsent(palabra, k -> new HashSet<>()).add(i);
+                    for (String trigrama : trigramasDe(palabra)) {
+                        trigramas.computeIfAbsent(trigrama, k -> new HashSet<>()).add(i);
+                    }
+                }
+            }
+        }
+
+        this.porTrigrama = aPostings(trigramas);
+        this.porPalabra = aPostings(terminos);
+        this.palabras = new TreeSet<>(terminos.keySet());
+        // Se precalcula para que las búsquedas solo lean (el índice se comparte entre hilos)
+        this.trigramasPorPalabra = new HashMap<>(terminos.size() * 2);
+        for (String palabra : terminos.keySet()) {
+            trigramasPorPalabra.put(palabra, trigramasDe(palabra));
+        }
+    }
+
+    // Productos que contienen todos los términos de la búsqueda, del más al menos relevante
+    public List<ProductoDto> buscar(String texto, int limite) {
+        String[] terminos = palabras(texto);
+        if (terminos.length == 0) {
+            return List.of();
+        }
+        String consulta = normalizar(texto);
+
+        List<double[]> puntajes = new ArrayList<>();
+        for (int posicion : candidatos(terminos)) {
+            Documento documento = documentos[posicion];
+            double total = 0;
+            boolean todos = true;
+            for (String termino : terminos) {
+                double puntaje = puntaje(termino, documento);
+                if (puntaje == 0) {
+                    todos = false;
+                    break;
+                }
+                total += puntaje;
+            }
+            if (!todos) {
+                continue;
+            }
+            // Coincidencia de la frase completa al inicio del nombre
+            if (documento.nombre().startsWith(consulta)) {
+                total += PESO_NOMBRE;
+            }
+            puntajes.add(new double[] {posicion, total});
+        }
+
+        return puntajes.stream()
+                .sorted(Comparator.<double[]>comparingDouble(p -> -p[1])
+                        .thenComparing(p -> documentos[(int) p[0]].nombre()))
+                .limit(limite)
+                .map(p -> documentos[(int) p[0]].producto())
+                .toList();
+    }
+
+    // Nombres de productos para autocompletar: la última palabra se toma como prefijo
+    // (sin tolerancia a errores) y las anteriores se buscan como en buscar()
+    public List<String> autocompletar(String texto, int limite) {
+        String[] terminos = palabras(texto);
+        if (terminos.length == 0) {
+            return List.of();
+        }
+        String prefijo = terminos[terminos.length - 1];
+        Set<String> completadas = palabrasNombre.subSet(prefijo, true, prefijo + Character.MAX_VALUE, false);
+        if (completadas.isEmpty()) {
+            return List.of();
+        }
+
+        String[] anteriores = Arrays.copyOf(terminos, terminos.length - 1);
+        List<ProductoDto> candidatos = anteriores.length == 0
+                ? Arrays.stream(documentos).map(Documento::producto).toList()
+                : buscar(String.join(" ", anteriores), documentos.length);
+
+        String consulta = normalizar(texto);
+        Set<String> nombres = new LinkedHashSet<>();
+        candidatos.stream()
+                .map(p -> porId.get(p.getId()))
+                .filter(d -> Arrays.stream(d.palabrasNombre()).anyMatch(completadas::contains))
+                // Primero los nombres que empiezan con lo escrito, luego los más cortos
+                .sorted(Comparator.comparing((Documento d) -> !d.nombre().startsWith(consulta))
+                        .thenComparingInt(d -> d.nombre().length()))
+                .forEach(d -> nombres.add(d.producto().getNombre()));
+        return nombres.stream().limit(limite).toList();
+    }
+
+    public int tamano() {
+        return documentos.length;
+    }
+
+    // Minúsculas, sin acentos ni signos: "Café con Leche!" -> "cafe con leche"
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static String[] palabras(String texto) {
+        String normalizado = normalizar(texto);
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+
+    // Trigramas con bordes marcados, para que "caf" al inicio pese más que en medio
+    private static Set<String> trigramasDe(String palabra) {
+        String conBordes = "$" + palabra + "$";
+        Set<String> trigramas = new HashSet<>();
+        for (int i = 0; i + 3 <= conBordes.length(); i++) {
+            trigramas.add(conBordes.substring(i, i + 3));
+        }
+        return trigramas;
+    }
+
+    private Set<Integer> candidatos(String[] terminos) {
+        Set<Integer> candidatos = new HashSet<>();
+        for (String termino : terminos) {
+            for (String palabra : palabras.subSet(termino, true, termino + Character.MAX_VALUE, false)) {
+                agregar(candidatos, porPalabra.get(palabra));
+            }
+            for (String trigrama : trigramasDe(termino)) {
+                agregar(candidatos, porTrigrama.get(trigrama));
+            }
+        }
+        return candidatos;
+    }
+
+    private double puntaje(String termino, Documento documento) {
+        return Math.max(PESO_NOMBRE * similitud(termino, documento.palabrasNombre()),
+                Math.max(PESO_CATEGORIA * similitud(termino, documento.palabrasCategoria()),
+                        PESO_DESCRIPCION * similitud(termino, documento.palabrasDescripcion())));
+    }
+
+    // 1 si es igual, casi 1 si es prefijo y, si no, la similitud de trigramas cuando supera el mínimo
+    private double similitud(String termino, String[] palabrasCampo) {
+        double mejor = 0;
+        Set<String> trigramasTermino = null;
+        for (String palabra : palabrasCampo) {
+            if (palabra.equals(termino)) {
+                return 1.0;
+            }
+            if (palabra.startsWith(termino)) {
+                mejor = Math.max(mejor, SIMILITUD_PREFIJO);
+                continue;
+            }
+            if (termino.length() < 3) {
+                continue;
+            }
+            if (trigramasTermino == null) {
+                trigramasTermino = trigramasDe(termino);
+            }
+            Set<String> trigramasPalabra = trigramasPorPalabra.get(palabra);
+            int comunes = 0;
+            for (String trigrama : trigramasTermino) {
+                if (trigramasPalabra.contains(trigrama)) {
+                    comunes++;
+                }
+            }
+            double dice = 2.0 * comunes / (trigramasTermino.size() + trigramasPalabra.size());
+            if (dice >= SIMILITUD_MINIMA) {
+                mejor = Math.max(mejor, dice * 0.8);
+            }
+        }
+        return mejor;
+    }
+
+    private static void agregar(Set<Integer> destino, int[] posiciones) {
+        if (posiciones != null) {
+            for (int posicion : posiciones) {
+                destino.add(posicion);
+            }
+        }
+    }
+
+    private static Map<String, int[]> aPostings(Map<String, Set<Integer>> origen) {
+        Map<String, int[]> postings = new HashMap<>(origen.size() * 2);
+        origen.forEach((clave, posiciones) ->
+                postings.put(clave, posiciones.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        return postings;
+    }
+}
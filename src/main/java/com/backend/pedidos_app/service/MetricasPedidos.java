@@ -0,0 +1,42 @@
+package com.backend.pedidos_app.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.backend.pedidos_app.dto.PedidoEvento;
+import com.backend.pedidos_app.dto.PedidoResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Contadores de negocio a partir de los eventos de PedidoService.
+// Se cuentan después del commit, así que un pedido que hace rollback no se registra.
+@Component
+public class MetricasPedidos {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void registrar(PedidoEvento evento) {
+        PedidoResponse pedido = evento.getPedido();
+        switch (evento.getTipo()) {
+            case PedidoEvento.PEDIDO_CREADO -> meterRegistry.counter("pedidos.creados",
+                    "estado", valor(pedido.getEstado()),
+                    "tipo_entrega", valor(pedido.getTipoEntrega()),
+                    "tipo_pago", valor(pedido.getTipoPago())).increment();
+            case PedidoEvento.ESTADO_CAMBIADO -> meterRegistry.counter("pedidos.estado.cambios",
+                    "desde", valor(evento.getEstadoAnterior()),
+                    "hacia", valor(pedido.getEstado())).increment();
+            case PedidoEvento.COMPROBANTE_SUBIDO -> meterRegistry.counter("pedidos.comprobantes.subidos").increment();
+            default -> {
+            }
+        }
+    }
+
+    // Los valores de etiqueta no pueden ser null
+    private static String valor(String texto) {
+        return texto != null ? texto : "desconocido";
+    }
+}
@@ -0,0 +1,161 @@
+package com.backend.pedidos_app.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.backend.pedidos_app.model.ProductoImagenLegado;
+import com.backend.pedidos_app.repository.ProductoImagenLegadoRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Migra las imágenes guardadas en la columna LONGBLOB a Supabase Storage.
+// Cada producto se confirma por separado (URL asignada y blob en NULL), por lo que
+// una ejecución interrumpida se retoma simplemente volviendo a iniciarla.
+@Service
+public class MigracionImagenesService {
+    private static final Logger logger = LoggerFactory.getLogger(MigracionImagenesService.class);
+    private static final int TAMANO_LOTE = 20;
+
+    @Autowired
+    private ProductoImagenLegadoRepository legadoRepository;
+
+    @Autowired
+    private SupabaseStorageService storageService;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Value("${supabase.storage.productos-bucket}")
+    private String bucketProductos;
+
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "migracion-imagenes");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final AtomicBoolean enEjecucion = new AtomicBoolean(false);
+    private final AtomicLong migradas = new AtomicLong();
+    private final AtomicLong fallidas = new AtomicLong();
+    private volatile long ultimoId;
+    private volatile long pendientesAlInicio;
+    private volatile LocalDateTime iniciadaEn;
+    private volatile LocalDateTime finalizadaEn;
+    private volatile String ultimoError;
+
+    public Map<String, Object> iniciar() {
+        if (!enEjecucion.compareAndSet(false, true)) {
+            return estado();
+        }
+        migradas.set(0);
+        fallidas.set(0);
+        ultimoId = 0;
+        ultimoError = null;
+        finalizadaEn = null;
+        iniciadaEn = LocalDateTime.now();
+        pendientesAlInicio = legadoRepository.countPendientes();
+        ejecutor.submit(this::ejecutar);
+        return estado();
+    }
+
+    public Map<String, Object> estado() {
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("enEjecucion", enEjecucion.get());
+        estado.put("pendientesAlInicio", pendientesAlInicio);
+        estado.put("migradas", migradas.get());
+        estado.put("fallidas", fallidas.get());
+        estado.put("ultimoId", ultimoId);
+        estado.put("iniciadaEn", iniciadaEn);
+        estado.put("finalizadaEn", finalizadaEn);
+        estado.put("ultimoError", ultimoError);
+        return estado;
+    }
+
+    private void ejecutar() {
+        logger.info("Iniciando migración de imágenes: {} productos pendientes", pendientesAlInicio);
+        try {
+            while (true) {
+                List<Long> ids = legadoRepository.findIdsPendientes(ultimoId, PageRequest.of(0, TAMANO_LOTE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                for (Long id : ids) {
+                    migrar(id);
+                    ultimoId = id;
+                }
+                // Cada lote publicado se refleja en el catálogo sin esperar al final
+                catalogoCache.invalidar();
+            }
+            logger.info("Migración de imágenes finalizada: {} migradas, {} fallidas", migradas.get(), fallidas.get());
+        } catch (Exception e) {
+            ultimoError = e.getMessage();
+            logger.error("Migración de imágenes interrumpida", e);
+        } finally {
+            finalizadaEn = LocalDateTime.now();
+            enEjecucion.set(false);
+        }
+    }
+
+    private void migrar(Long id) {
+        try {
+            // Solo un blob en memoria a la vez
+            ProductoImagenLegado legado = legadoRepository.findById(id).orElse(null);
+            if (legado == null || legado.getImagen() == null) {
+                return;
+            }
+
+            String urlLeida = legado.getImagenUrl();
+            String url = urlLeida;
+            if (url == null || url.isBlank()) {
+                String tipo = legado.getTipoImagen() != null ? legado.getTipoImagen() : "image/jpeg";
+                url = storageService.uploadBytes(legado.getImagen(), tipo, "producto-" + id + extension(tipo), bucketProductos);
+            }
+
+            if (legadoRepository.completarMigracion(id, url, urlLeida) == 0) {
+                // Se subió una imagen nueva (o se eliminó el producto) mientras se migraba: se
+                // conserva la nueva y la siguiente ejecución solo libera el blob, sin volver a subirlo
+                if (!url.equals(urlLeida)) {
+                    storageService.deleteFile(url);
+                }
+                logger.info("Producto {} modificado durante la migración de su imagen; se omite", id);
+                return;
+            }
+            migradas.incrementAndGet();
+        } catch (Exception e) {
+            fallidas.incrementAndGet();
+            ultimoError = "Producto " + id + ": " + e.getMessage();
+            logger.warn("No se pudo migrar la imagen del producto {}: {}", id, e.getMessage());
+        }
+    }
+
+    private String extension(String tipo) {
+        switch (tipo) {
+            case "image/png":
+                return ".png";
+            case "image/gif":
+                return ".gif";
+            case "image/webp":
+                return ".webp";
+            default:
+                return ".jpg";
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+}
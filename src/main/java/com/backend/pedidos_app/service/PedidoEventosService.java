@@ -0,0 +1,256 @@
+package com.backend.pedidos_app.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.backend.pedidos_app.dto.PedidoEvento;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Difusión de eventos de pedidos por Server-Sent Events.
+// Cada evento se serializa una sola vez y se guarda en un buffer circular para reanudar con
+// Last-Event-ID. Los ids son "<arranque>-<secuencia>": la secuencia vuelve a empezar al reiniciar
+// el servidor, y un id de otro arranque recibe "reinicio" en lugar de eventos equivocados. Cada suscriptor tiene su propia cola acotada que vacía un pool compartido;
+// si un cliente lento la llena se le desconecta (al reconectar se reanuda desde el buffer).
+@Service
+public class PedidoEventosService {
+    private static final Logger logger = LoggerFactory.getLogger(PedidoEventosService.class);
+    // Indica al cliente que perdió eventos y debe recargar la lista completa
+    private static final String EVENTO_REINICIO = "reinicio";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.pedidos.eventos.buffer:1000}")
+    private int tamanoBuffer;
+
+    @Value("${app.pedidos.eventos.cola-por-suscriptor:256}")
+    private int capacidadCola;
+
+    @Value("${app.pedidos.eventos.hilos:4}")
+    private int hilos;
+
+    @Value("${app.pedidos.eventos.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private record EventoSerializado(long id, String idSse, String tipo, String json) {}
+
+    // Marcador de heartbeat en la cola (se envía como comentario SSE)
+    private static final EventoSerializado HEARTBEAT = new EventoSerializado(-1, null, null, null);
+
+    // Identifica esta ejecución del servidor dentro de los ids de evento
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong secuencia = new AtomicLong();
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong desconectadosPorLentitud = new AtomicLong();
+    private EventoSerializado[] buffer;
+    private ExecutorService ejecutor;
+
+    @PostConstruct
+    public void inicializar() {
+        buffer = new EventoSerializado[tamanoBuffer];
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread hilo = new Thread(r, "pedido-eventos-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    public SseEmitter suscribir(String ultimoEventoId) {
+        SseEmitter emitter = crearEmitter();
+        Suscriptor suscriptor = new Suscriptor(emitter);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(e -> suscriptores.remove(suscriptor));
+
+        // El registro y la lectura del buffer van bajo el mismo candado que la publicación,
+        // así ningún evento se pierde ni se duplica entre la reanudación y los nuevos
+        synchronized (this) {
+            if (ultimoEventoId != null && !ultimoEventoId.isBlank()) {
+                reanudar(suscriptor, ultimoEventoId.trim());
+            }
+            suscriptores.add(suscriptor);
+        }
+        suscriptor.programar();
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publicar(PedidoEvento evento) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(evento);
+        } catch (IOException e) {
+            logger.error("No se pudo serializar el evento {} del pedido", evento.getTipo(), e);
+            return;
+        }
+
+        synchronized (this) {
+            long id = secuencia.incrementAndGet();
+            EventoSerializado serializado = new EventoSerializado(id, idSse(id), evento.getTipo(), json);
+            buffer[(int) (id % buffer.length)] = serializado;
+            for (Suscriptor suscriptor : suscriptores) {
+                suscriptor.encolar(serializado);
+            }
+        }
+    }
+
+    // Mantiene viva la conexión a través de proxies y detecta clientes desconectados
+    @Scheduled(fixedRateString = "${app.pedidos.eventos.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar(HEARTBEAT);
+        }
+    }
+
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("suscriptores", suscriptores.size());
+        estadisticas.put("ultimoEventoId", idSse(secuencia.get()));
+        estadisticas.put("desconectadosPorLentitud", desconectadosPorLentitud.get());
+        return estadisticas;
+    }
+
+    @PreDestroy
+    public void detener() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.emitter.complete();
+        }
+        ejecutor.shutdownNow();
+    }
+
+    SseEmitter crearEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private String idSse(long id) {
+        return arranque + "-" + id;
+    }
+
+    // Debe llamarse con el candado tomado
+    private void reanudar(Suscriptor suscriptor, String ultimoEventoId) {
+        long actual = secuencia.get();
+        EventoSerializado reinicio = new EventoSerializado(actual, idSse(actual), EVENTO_REINICIO, "{}");
+        // Un id de otro arranque (o sin prefijo, de versiones anteriores) no se puede comparar con la secuencia
+        String prefijo = arranque + "-";
+        if (!ultimoEventoId.startsWith(prefijo)) {
+            suscriptor.encolar(reinicio);
+            return;
+        }
+        long ultimo;
+        try {
+            ultimo = Long.parseLong(ultimoEventoId.substring(prefijo.length()));
+        } catch (NumberFormatException e) {
+            suscriptor.encolar(reinicio);
+            return;
+        }
+
+        long pendientes = actual - ultimo;
+        // Fuera del buffer o más de lo que cabe en la cola
+        if (pendientes < 0 || pendientes > buffer.length || pendientes > capacidadCola) {
+            suscriptor.encolar(reinicio);
+            return;
+        }
+        List<EventoSerializado> faltantes = new ArrayList<>();
+        for (long id = ultimo + 1; id <= actual; id++) {
+            faltantes.add(buffer[(int) (id % buffer.length)]);
+        }
+        faltantes.forEach(suscriptor::encolar);
+    }
+
+    private class Suscriptor {
+        private final SseEmitter emitter;
+        private final Queue<EventoSerializado> cola = new ArrayBlockingQueue<>(capacidadCola);
+        private final AtomicBoolean programado = new AtomicBoolean(false);
+        private volatile boolean cerrado;
+
+        Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void encolar(EventoSerializado evento) {
+            if (cerrado) {
+                return;
+            }
+            if (!cola.offer(evento)) {
+                // Cola llena: el cliente no sigue el ritmo; se corta y reanudará con Last-Event-ID
+                desconectadosPorLentitud.incrementAndGet();
+                cerrar(null);
+                return;
+            }
+            programar();
+        }
+
+        void programar() {
+            if (!cola.isEmpty() && programado.compareAndSet(false, true)) {
+                ejecutor.execute(this::vaciar);
+            }
+        }
+
+        // Un solo hilo a la vez por suscriptor, de modo que los envíos conservan el orden
+        private void vaciar() {
+            try {
+                EventoSerializado evento;
+                while (!cerrado && (evento = cola.poll()) != null) {
+                    if (evento == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(evento.idSse())
+                                .name(evento.tipo())
+                                .data(evento.json(), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                cerrar(e);
+            } finally {
+                programado.set(false);
+            }
+            // Un evento pudo llegar entre el último poll y liberar la bandera
+            if (!cerrado) {
+                programar();
+            }
+        }
+
+        private void cerrar(Throwable error) {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            suscriptores.remove(this);
+            cola.clear();
+            if (error != null) {
+                logger.debug("Suscriptor de eventos desconectado: {}", error.getMessage());
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -1,36 +1,55 @@
 package com.backend.pedidos_app.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
+import com.backend.pedidos_app.dto.PedidoCambiosResponse;
+import com.backend.pedidos_app.dto.PedidoEvento;
+import com.backend.pedidos_app.dto.PedidoPaginaResponse;
 import com.backend.pedidos_app.dto.PedidoProductoDto;
 import com.backend.pedidos_app.dto.PedidoRequest;
 import com.backend.pedidos_app.dto.PedidoResponse;
 import com.backend.pedidos_app.dto.PedidoResponse.PedidoProductoResponse;
+import com.backend.pedidos_app.exception.ConflictoException;
 import com.backend.pedidos_app.exception.ResourceNotFoundException;
+import com.backend.pedidos_app.exception.SolicitudInvalidaException;
+import com.backend.pedidos_app.model.EEstadoPedido;
 import com.backend.pedidos_app.model.Pedido;
 import com.backend.pedidos_app.model.PedidoProducto;
-import com.backend.pedidos_app.model.Producto;
 import com.backend.pedidos_app.model.Usuario;
+import com.backend.pedidos_app.repository.PedidoProductoBatchRepository;
 import com.backend.pedidos_app.repository.PedidoRepository;
 import com.backend.pedidos_app.repository.ProductoRepository;
 import com.backend.pedidos_app.repository.UsuarioRepository;
+import com.backend.pedidos_app.repository.VentaDiariaRepository;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class PedidoService {
+    private static final Logger logger = LoggerFactory.getLogger(PedidoService.class);
+
+    public static final int LIMITE_MAXIMO_PAGINA = 200;
 
     @Autowired
     private PedidoRepository pedidoRepository;
@@ -38,15 +57,34 @@ public class PedidoService {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private PedidoProductoBatchRepository pedidoProductoBatchRepository;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
-    
+
+    @Autowired
+    private VentaDiariaService ventaDiariaService;
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    @Autowired
+    private VersionCambiosPedidos versionCambios;
+
     @Autowired
-    private SupabaseStorageService storageService;
+    private ConsultasParalelas consultasParalelas;
+
+    // Los eventos se entregan a los suscriptores solo si la transacción confirma
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Value("${app.recargo.domicilio}")
     private Double recargoDomicilio;
 
+    // Instantánea de precio validada al momento de crear el pedido
+    private record PrecioProducto(Long id, String nombre, Double precio, Boolean activo) {}
+
 
     @Transactional
     public PedidoResponse crearPedido(PedidoRequest pedidoRequest) {
@@ -71,33 +109,73 @@ public class PedidoService {
             pedido.setUsuario(usuario);
         }
 
-        // Procesar productos del pedido
+        // Resolver todos los productos del carrito en una sola consulta
+        List<PedidoProductoDto> lineasSolicitadas = pedidoRequest.getProductos() != null
+                ? pedidoRequest.getProductos() : List.of();
+        Set<Long> productoIds = new HashSet<>();
+        for (PedidoProductoDto productoDto : lineasSolicitadas) {
+            if (productoDto.getProductoId() == null) {
+                throw new SolicitudInvalidaException("Cada línea del pedido debe indicar un producto");
+            }
+            productoIds.add(productoDto.getProductoId());
+        }
+        Map<Long, PrecioProducto> precios = new HashMap<>();
+        if (!productoIds.isEmpty()) {
+            for (Object[] fila : productoRepository.findPreciosByIdIn(productoIds)) {
+                PrecioProducto precio = new PrecioProducto((Long) fila[0], (String) fila[1], (Double) fila[2], (Boolean) fila[3]);
+                precios.put(precio.id(), precio);
+            }
+        }
+
+        // Procesar productos del pedido con los precios validados
         List<PedidoProducto> productos = new ArrayList<>();
+        List<PedidoResponse.PedidoProductoResponse> productosRespuesta = new ArrayList<>();
         Double subtotal = 0.0;
 
         int orden = 0;
-        for (PedidoProductoDto productoDto : pedidoRequest.getProductos()) {
-            Producto producto = productoRepository.findById(productoDto.getProductoId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
+        for (PedidoProductoDto productoDto : lineasSolicitadas) {
+            PrecioProducto precio = precios.get(productoDto.getProductoId());
+            if (precio == null) {
+                throw new ResourceNotFoundException("Producto no encontrado con id: " + productoDto.getProductoId());
+            }
+            if (!Boolean.TRUE.equals(precio.activo())) {
+                throw new SolicitudInvalidaException("El producto " + precio.nombre() + " no está disponible");
+            }
+            if (productoDto.getCantidad() == null || productoDto.getCantidad() <= 0) {
+                throw new SolicitudInvalidaException("La cantidad del producto " + precio.nombre() + " debe ser mayor a cero");
+            }
 
             PedidoProducto pedidoProducto = new PedidoProducto();
             pedidoProducto.setPedido(pedido);
-            pedidoProducto.setProducto(producto);
+            pedidoProducto.setProducto(productoRepository.getReferenceById(precio.id()));
             pedidoProducto.setCantidad(productoDto.getCantidad());
             pedidoProducto.setPersonalizaciones(productoDto.getPersonalizaciones());
-            pedidoProducto.setPrecioUnitario(producto.getPrecio());
+            pedidoProducto.setPrecioUnitario(precio.precio());
             pedidoProducto.setOrden(orden++); // Asignar orden secuencial
-
             productos.add(pedidoProducto);
-            subtotal += producto.getPrecio() * productoDto.getCantidad();
+
+            PedidoResponse.PedidoProductoResponse ppr = new PedidoResponse.PedidoProductoResponse();
+            ppr.setNombreProducto(precio.nombre());
+            ppr.setCantidad(pedidoProducto.getCantidad());
+            ppr.setPersonalizaciones(pedidoProducto.getPersonalizaciones());
+            ppr.setPrecioUnitario(pedidoProducto.getPrecioUnitario());
+            productosRespuesta.add(ppr);
+
+            subtotal += precio.precio() * productoDto.getCantidad();
         }
 
-        pedido.setProductos(productos);
         pedido.setTotal(subtotal + pedido.getRecargoDomicilio());
-        pedido.setEstado("pendiente");
+        pedido.setEstado(EEstadoPedido.PENDIENTE.getValor());
+        pedido.setCambioVersion(versionCambios.siguiente());
+
+        // El pedido se inserta primero para obtener su id; las líneas van en un único lote JDBC
+        Pedido pedidoGuardado = pedidoRepository.saveAndFlush(pedido);
+        pedidoProductoBatchRepository.insertarLineas(pedidoGuardado.getId(), productos);
+        ventaDiariaService.registrarPedido(pedidoGuardado);
 
-        Pedido pedidoGuardado = pedidoRepository.save(pedido);
-        return convertirARespuesta(pedidoGuardado);
+        PedidoResponse respuesta = convertirARespuesta(pedidoGuardado, productosRespuesta);
+        eventPublisher.publishEvent(new PedidoEvento(PedidoEvento.PEDIDO_CREADO, null, respuesta));
+        return respuesta;
     }
 
     public List<PedidoResponse> obtenerTodosLosPedidos() {
@@ -106,19 +184,139 @@ public class PedidoService {
                 .collect(Collectors.toList());
     }
 
+    // Paginación por cursor: el cursor codifica (fechaPedido, id) del último pedido entregado
+    @Transactional(readOnly = true)
+    public PedidoPaginaResponse obtenerPaginaPedidos(String cursor, int limite) {
+        int tamano = Math.max(1, Math.min(limite, LIMITE_MAXIMO_PAGINA));
+        // Se pide un registro extra para saber si existe una página siguiente
+        PageRequest pagina = PageRequest.of(0, tamano + 1);
+
+        List<Long> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = pedidoRepository.findPrimeraPaginaIds(pagina);
+        } else {
+            Object[] posicion = decodificarCursor(cursor);
+            ids = pedidoRepository.findPaginaIdsDespuesDe((LocalDateTime) posicion[0], (Long) posicion[1], pagina);
+        }
+
+        boolean hayMas = ids.size() > tamano;
+        if (hayMas) {
+            ids = ids.subList(0, tamano);
+        }
+
+        List<PedidoResponse> respuestas = cargarEnOrden(ids);
+
+        PedidoPaginaResponse respuesta = new PedidoPaginaResponse();
+        respuesta.setPedidos(respuestas);
+        respuesta.setHayMas(hayMas);
+        if (hayMas && !respuestas.isEmpty()) {
+            PedidoResponse ultimo = respuestas.get(respuestas.size() - 1);
+            respuesta.setSiguienteCursor(codificarCursor(ultimo.getFechaPedido(), ultimo.getId()));
+        }
+        return respuesta;
+    }
+
+    // Pedidos creados o modificados después de la versión "desde". El cliente guarda la
+    // versión devuelta y la envía en la siguiente consulta; sin cambios la respuesta va vacía.
+    @Transactional(readOnly = true)
+    public PedidoCambiosResponse obtenerCambios(long desde, int limite) {
+        int tamano = Math.max(1, Math.min(limite, LIMITE_MAXIMO_PAGINA));
+        long hasta = versionCambios.marcaDeAgua();
+
+        List<Object[]> cambios = desde >= hasta
+                ? List.of()
+                : pedidoRepository.findCambiadosEntre(desde, hasta, PageRequest.of(0, tamano + 1));
+
+        boolean hayMas = cambios.size() > tamano;
+        if (hayMas) {
+            cambios = cambios.subList(0, tamano);
+        }
+
+        List<Long> ids = new ArrayList<>(cambios.size());
+        for (Object[] cambio : cambios) {
+            ids.add((Long) cambio[0]);
+        }
+
+        PedidoCambiosResponse respuesta = new PedidoCambiosResponse();
+        respuesta.setPedidos(cargarEnOrden(ids));
+        respuesta.setHayMas(hayMas);
+        // Con más páginas la marca avanza solo hasta lo entregado; si no, hasta la marca de agua
+        respuesta.setVersion(hayMas ? (Long) cambios.get(cambios.size() - 1)[1] : Math.max(desde, hasta));
+        return respuesta;
+    }
+
+    // Carga los pedidos de una lista de ids con líneas y productos en una sola consulta,
+    // respetando el orden de la lista (el IN no lo garantiza)
+    private List<PedidoResponse> cargarEnOrden(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            posiciones.put(ids.get(i), i);
+        }
+        return pedidoRepository.findByIdInWithOrderedProducts(ids).stream()
+                .sorted(Comparator.comparing(p -> posiciones.get(p.getId())))
+                .map(this::convertirARespuesta)
+                .collect(Collectors.toList());
+    }
+
+    // Los 5 más recientes: ids por el índice (fechaPedido, id) y luego una sola carga con fetch
+    private List<PedidoResponse> obtenerUltimosPedidos() {
+        return cargarEnOrden(pedidoRepository.findPrimeraPaginaIds(PageRequest.of(0, 5)));
+    }
+
+    private String codificarCursor(LocalDateTime fecha, Long id) {
+        String valor = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Object[] decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|", 2);
+            return new Object[] { LocalDateTime.parse(partes[0]), Long.valueOf(partes[1]) };
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new SolicitudInvalidaException("Cursor de paginación inválido");
+        }
+    }
+
     public List<PedidoResponse> obtenerPedidosPorEstado(String estado) {
         return pedidoRepository.findByEstadoWithOrderedProducts(estado).stream()
                 .map(this::convertirARespuesta)
                 .collect(Collectors.toList());
     }
 
+    // Cambio de estado sin cargar la entidad: el pedido se lee una vez en filas planas, se valida
+    // la transición y se aplica con un UPDATE condicional sobre el estado y la versión leídos.
+    // La respuesta es lo leído con el estado y la versión nuevos; no se vuelve a consultar
+    @Transactional
     public PedidoResponse actualizarEstadoPedido(Long id, String estado) {
-        Pedido pedido = pedidoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con id: " + id));
+        EEstadoPedido nuevo = EEstadoPedido.desde(estado);
+        PedidoResponse respuesta = leerRespuesta(id);
+        EEstadoPedido anterior = EEstadoPedido.desde(respuesta.getEstado());
 
-        pedido.setEstado(estado);
-        Pedido pedidoActualizado = pedidoRepository.save(pedido);
-        return convertirARespuesta(pedidoActualizado);
+        if (anterior == nuevo) {
+            return respuesta; // Sin cambios: no se escribe ni se publica evento
+        }
+        if (!anterior.puedeCambiarA(nuevo)) {
+            throw new SolicitudInvalidaException("No se puede pasar un pedido de " + anterior.getValor()
+                    + " a " + nuevo.getValor());
+        }
+        long version = versionCambios.siguiente();
+        if (pedidoRepository.cambiarEstado(id, anterior.getValor(), respuesta.getCambioVersion(),
+                nuevo.getValor(), version) == 0) {
+            throw new ConflictoException("El pedido " + id + " cambió mientras se actualizaba; "
+                    + "recargue e intente de nuevo");
+        }
+        // El resumen diario se ajusta en la misma transacción que el UPDATE
+        ventaDiariaService.registrarCambioEstado(id, respuesta.getFechaPedido(), respuesta.getTotal(),
+                anterior.getValor(), nuevo.getValor());
+
+        respuesta.setEstado(nuevo.getValor());
+        respuesta.setCambioVersion(version);
+        eventPublisher.publishEvent(new PedidoEvento(PedidoEvento.ESTADO_CAMBIADO, anterior.getValor(), respuesta));
+        return respuesta;
     }
 
     public List<PedidoResponse> obtenerPedidosPorUsuario(Long usuarioId) {
@@ -128,12 +326,26 @@ public class PedidoService {
     }
 
     public List<PedidoResponse> obtenerReportePedidos(LocalDateTime inicio, LocalDateTime fin) {
-        return pedidoRepository.findByFechaPedidoBetween(inicio, fin).stream()
+        return pedidoRepository.findByFechaPedidoBetweenWithOrderedProducts(inicio, fin).stream()
                 .map(this::convertirARespuesta)
                 .collect(Collectors.toList());
     }
 
-    private PedidoResponse convertirARespuesta(Pedido pedido) {
+    // Visibilidad de paquete para los benchmarks de src/jmh
+    PedidoResponse convertirARespuesta(Pedido pedido) {
+        List<PedidoResponse.PedidoProductoResponse> productosRespuesta = new ArrayList<>();
+        for (PedidoProducto pp : pedido.getProductos()) {
+            PedidoResponse.PedidoProductoResponse ppr = new PedidoResponse.PedidoProductoResponse();
+            ppr.setNombreProducto(pp.getProducto().getNombre());
+            ppr.setCantidad(pp.getCantidad());
+            ppr.setPersonalizaciones(pp.getPersonalizaciones());
+            ppr.setPrecioUnitario(pp.getPrecioUnitario());
+            productosRespuesta.add(ppr);
+        }
+        return convertirARespuesta(pedido, productosRespuesta);
+    }
+
+    private PedidoResponse convertirARespuesta(Pedido pedido, List<PedidoResponse.PedidoProductoResponse> productosRespuesta) {
         PedidoResponse respuesta = new PedidoResponse();
         respuesta.setId(pedido.getId());
         respuesta.setNombreCliente(pedido.getNombreCliente());
@@ -143,90 +355,209 @@ public class PedidoService {
         respuesta.setRecargoDomicilio(pedido.getRecargoDomicilio());
         respuesta.setTipoPago(pedido.getTipoPago());
         respuesta.setComprobanteUrl(pedido.getComprobanteUrl());
+        respuesta.setComprobanteEstado(pedido.getComprobanteEstado());
         respuesta.setTotal(pedido.getTotal());
         respuesta.setEstado(pedido.getEstado());
         respuesta.setFechaPedido(pedido.getFechaPedido());
-
-        List<PedidoResponse.PedidoProductoResponse> productosRespuesta = new ArrayList<>();
-        for (PedidoProducto pp : pedido.getProductos()) {
-            PedidoResponse.PedidoProductoResponse ppr = new PedidoResponse.PedidoProductoResponse();
-            ppr.setNombreProducto(pp.getProducto().getNombre());
-            ppr.setCantidad(pp.getCantidad());
-            ppr.setPersonalizaciones(pp.getPersonalizaciones());
-            ppr.setPrecioUnitario(pp.getPrecioUnitario());
-            productosRespuesta.add(ppr);
-        }
-        
+        respuesta.setCambioVersion(pedido.getCambioVersion());
         respuesta.setProductos(productosRespuesta);
         return respuesta;
     }
     
 
 
-    public PedidoResponse uploadComprobante(Long id, MultipartFile file) {
-        if (id == 0) {
-            throw new IllegalArgumentException("El pedido debe crearse primero antes de subir el comprobante");
-        }
-        
+    // El comprobante quedó guardado en disco y se subirá en segundo plano (ComprobanteUploadService)
+    @Transactional
+    public PedidoResponse marcarComprobantePendiente(Long id) {
         Pedido pedido = pedidoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Pedido no encontrado con id: " + id));
+        pedido.setComprobanteEstado(ComprobanteUploadService.ESTADO_PENDIENTE);
+        pedido.setCambioVersion(versionCambios.siguiente());
+        return convertirARespuesta(pedidoRepository.save(pedido));
+    }
 
-        try {
-            String comprobanteUrl = storageService.uploadFile(file, "comprobantes");
-            pedido.setComprobanteUrl(comprobanteUrl);
-            
-            // Cambiar estado si es pago por transferencia
-            if ("transferencia".equals(pedido.getTipoPago())) {
-                pedido.setEstado("pendiente_verificacion");
+    // Pago por transferencia: el mismo UPDATE que registra el comprobante pasa el pedido a
+    // verificación si el estado leído lo permite. Si un admin lo cambió mientras tanto se respeta
+    // su cambio: se registra solo el comprobante y, en ese caso, se vuelve a leer el pedido
+    @Transactional
+    public PedidoResponse registrarComprobanteSubido(Long id, String comprobanteUrl) {
+        PedidoResponse respuesta = leerRespuesta(id);
+        EEstadoPedido anterior = EEstadoPedido.desde(respuesta.getEstado());
+        EEstadoPedido verificacion = EEstadoPedido.PENDIENTE_VERIFICACION;
+        String subido = ComprobanteUploadService.ESTADO_SUBIDO;
+        long version = versionCambios.siguiente();
+
+        boolean aVerificacion = "transferencia".equals(respuesta.getTipoPago()) && anterior.puedeCambiarA(verificacion);
+        if (aVerificacion && pedidoRepository.registrarComprobanteYCambiarEstado(id, comprobanteUrl, subido,
+                anterior.getValor(), verificacion.getValor(), version) > 0) {
+            ventaDiariaService.registrarCambioEstado(id, respuesta.getFechaPedido(), respuesta.getTotal(),
+                    anterior.getValor(), verificacion.getValor());
+            respuesta.setEstado(verificacion.getValor());
+        } else {
+            if (pedidoRepository.registrarComprobante(id, comprobanteUrl, subido, version) == 0) {
+                throw new ResourceNotFoundException("Pedido no encontrado con id: " + id);
+            }
+            if (aVerificacion) {
+                logger.info("Pedido {} cambió de estado durante el registro del comprobante; se mantiene el estado actual", id);
+                respuesta = leerRespuesta(id);
             }
+        }
+
+        respuesta.setComprobanteUrl(comprobanteUrl);
+        respuesta.setComprobanteEstado(subido);
+        respuesta.setCambioVersion(version);
+        eventPublisher.publishEvent(new PedidoEvento(PedidoEvento.COMPROBANTE_SUBIDO, anterior.getValor(), respuesta));
+        return respuesta;
+    }
+
+    // Pedido con sus líneas desde las filas planas de findRespuestaById, sin cargar entidades
+    private PedidoResponse leerRespuesta(Long id) {
+        List<Object[]> filas = pedidoRepository.findRespuestaById(id);
+        if (filas.isEmpty()) {
+            throw new ResourceNotFoundException("Pedido no encontrado con id: " + id);
+        }
+        Object[] pedido = filas.get(0);
+        PedidoResponse respuesta = new PedidoResponse();
+        respuesta.setId((Long) pedido[0]);
+        respuesta.setNombreCliente((String) pedido[1]);
+        respuesta.setTelefonoCliente((String) pedido[2]);
+        respuesta.setDireccion((String) pedido[3]);
+        respuesta.setTipoEntrega((String) pedido[4]);
+        respuesta.setRecargoDomicilio((Double) pedido[5]);
+        respuesta.setTipoPago((String) pedido[6]);
+        respuesta.setComprobanteUrl((String) pedido[7]);
+        respuesta.setComprobanteEstado((String) pedido[8]);
+        respuesta.setTotal((Double) pedido[9]);
+        respuesta.setEstado((String) pedido[10]);
+        respuesta.setFechaPedido((LocalDateTime) pedido[11]);
+        respuesta.setCambioVersion((Long) pedido[12]);
 
-            Pedido pedidoActualizado = pedidoRepository.save(pedido);
-            return convertirARespuesta(pedidoActualizado);
-        } catch (IOException e) {
-            throw new RuntimeException("Error al subir el comprobante de pago", e);
+        List<PedidoProductoResponse> productos = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            if (fila[14] == null) {
+                continue; // Pedido sin líneas (LEFT JOIN)
+            }
+            PedidoProductoResponse linea = new PedidoProductoResponse();
+            linea.setNombreProducto((String) fila[13]);
+            linea.setCantidad((Integer) fila[14]);
+            linea.setPersonalizaciones((String) fila[15]);
+            linea.setPrecioUnitario((Double) fila[16]);
+            productos.add(linea);
         }
+        respuesta.setProductos(productos);
+        return respuesta;
     }
-    
+
+    // Se agotaron los reintentos; el archivo sigue en disco y se reintenta al reiniciar
+    @Transactional
+    public void registrarComprobanteFallido(Long id) {
+        pedidoRepository.findById(id).ifPresent(pedido -> {
+            pedido.setComprobanteEstado(ComprobanteUploadService.ESTADO_ERROR);
+            pedido.setCambioVersion(versionCambios.siguiente());
+            pedidoRepository.save(pedido);
+        });
+    }
+
     public Map<String, Object> obtenerEstadisticasDashboard(LocalDateTime inicio, LocalDateTime fin) {
-        Map<String, Object> estadisticas = new HashMap<>();
-        
+        if (ventaDiariaService.cubreDiasCompletos(inicio, fin)) {
+            return obtenerEstadisticasDesdeResumen(inicio, fin);
+        }
+
+        LocalDateTime hoyInicio = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
+        LocalDateTime hoyFin = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
+
+        // Consultas independientes en paralelo; las tarjetas secundarias pueden quedar vacías
+        // si no responden a tiempo, pero los totales del rango son obligatorios
+        ConsultasParalelas.Lote lote = consultasParalelas.nuevoLote();
         // Total pedidos en el rango (incluyendo cancelados)
-        long totalPedidos = pedidoRepository.countByFechaPedidoBetween(inicio, fin);
-        estadisticas.put("totalPedidos", totalPedidos);
-        
+        CompletableFuture<Long> totalPedidos = lote.enviar(() -> pedidoRepository.countByFechaPedidoBetween(inicio, fin));
         // Ganancias totales en el rango (EXCLUYENDO cancelados)
-        Double gananciasTotales = pedidoRepository.sumTotalByFechaPedidoBetweenAndEstadoNot(inicio, fin, "cancelado");
-        estadisticas.put("gananciasTotales", gananciasTotales != null ? gananciasTotales : 0.0);
-        
+        CompletableFuture<Double> gananciasTotales = lote.enviar(
+                () -> pedidoRepository.sumTotalByFechaPedidoBetweenAndEstadoNot(inicio, fin, "cancelado"));
+        // Pedidos por mes (EXCLUYENDO cancelados)
+        CompletableFuture<List<Object[]>> pedidosPorMes = lote.enviar(
+                () -> pedidoRepository.countPedidosGroupByMonthAndEstadoNot(inicio, fin, "cancelado"));
         // Pedidos hoy (incluyendo cancelados)
-        LocalDateTime hoyInicio = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime hoyFin = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
-        long pedidosHoy = pedidoRepository.countByFechaPedidoBetween(hoyInicio, hoyFin);
-        estadisticas.put("pedidosHoy", pedidosHoy);
-        
+        CompletableFuture<Long> pedidosHoy = lote.enviar(() -> pedidoRepository.countByFechaPedidoBetween(hoyInicio, hoyFin));
         // Pedidos pendientes (solo pendientes)
-        long pedidosPendientes = pedidoRepository.countByEstado("pendiente");
-        estadisticas.put("pedidosPendientes", pedidosPendientes);
-        
+        CompletableFuture<Long> pedidosPendientes = lote.enviar(() -> pedidoRepository.countByEstado("pendiente"));
         // Últimos pedidos (5 más recientes, incluyendo cancelados)
-        List<Pedido> ultimosPedidos = pedidoRepository.findTop5ByOrderByFechaPedidoDesc();
-        estadisticas.put("ultimosPedidos", ultimosPedidos.stream()
-            .map(this::convertirARespuesta)
-            .collect(Collectors.toList()));
-        
-        // Pedidos por mes (EXCLUYENDO cancelados)
-        List<Object[]> pedidosPorMes = pedidoRepository.countPedidosGroupByMonthAndEstadoNot(inicio, fin, "cancelado");
+        CompletableFuture<List<PedidoResponse>> ultimosPedidos = lote.enviar(this::obtenerUltimosPedidos);
+
+        Map<String, Object> estadisticas = new HashMap<>();
+        estadisticas.put("totalPedidos", lote.obtener(totalPedidos, "totalPedidos"));
+        Double ganancias = lote.obtener(gananciasTotales, "gananciasTotales");
+        estadisticas.put("gananciasTotales", ganancias != null ? ganancias : 0.0);
+
         List<String> meses = new ArrayList<>();
         List<Long> conteos = new ArrayList<>();
-        
-        for (Object[] resultado : pedidosPorMes) {
+        for (Object[] resultado : lote.obtener(pedidosPorMes, "pedidosPorMes")) {
             meses.add((String) resultado[0]);
             conteos.add((Long) resultado[1]);
         }
-        
         estadisticas.put("meses", meses);
         estadisticas.put("pedidosPorMes", conteos);
-        
+
+        estadisticas.put("pedidosHoy", lote.obtenerOpcional(pedidosHoy, "pedidosHoy", 0L));
+        estadisticas.put("pedidosPendientes", lote.obtenerOpcional(pedidosPendientes, "pedidosPendientes", 0L));
+        estadisticas.put("ultimosPedidos", lote.obtenerOpcional(ultimosPedidos, "ultimosPedidos", List.of()));
+        agregarSeccionesIncompletas(estadisticas, lote);
+
         return estadisticas;
     }
+
+    // Versión del dashboard sobre ventas_diarias para rangos de días completos
+    private Map<String, Object> obtenerEstadisticasDesdeResumen(LocalDateTime inicio, LocalDateTime fin) {
+        LocalDate hoy = LocalDate.now();
+
+        ConsultasParalelas.Lote lote = consultasParalelas.nuevoLote();
+        CompletableFuture<List<Object[]>> resumen = lote.enviar(
+                () -> ventaDiariaRepository.resumirPorMesYEstado(inicio.toLocalDate(), fin.toLocalDate()));
+        CompletableFuture<List<Object[]>> resumenHoy = lote.enviar(() -> ventaDiariaRepository.resumirPorMesYEstado(hoy, hoy));
+        CompletableFuture<Long> pedidosPendientes = lote.enviar(() -> pedidoRepository.countByEstado("pendiente"));
+        CompletableFuture<List<PedidoResponse>> ultimosPedidos = lote.enviar(this::obtenerUltimosPedidos);
+
+        Map<String, Object> estadisticas = new HashMap<>();
+
+        long totalPedidos = 0L;
+        double gananciasTotales = 0.0;
+        Map<String, Long> pedidosPorMes = new LinkedHashMap<>();
+        for (Object[] fila : lote.obtener(resumen, "resumen")) {
+            String estado = (String) fila[2];
+            long pedidos = fila[3] != null ? ((Number) fila[3]).longValue() : 0L;
+            double total = fila[4] != null ? ((Number) fila[4]).doubleValue() : 0.0;
+            if (pedidos <= 0) {
+                continue;
+            }
+            totalPedidos += pedidos;
+            if (!"cancelado".equals(estado)) {
+                gananciasTotales += total;
+                pedidosPorMes.merge((String) fila[1], pedidos, Long::sum);
+            }
+        }
+        estadisticas.put("totalPedidos", totalPedidos);
+        estadisticas.put("gananciasTotales", gananciasTotales);
+
+        long pedidosHoy = 0L;
+        for (Object[] fila : lote.obtenerOpcional(resumenHoy, "pedidosHoy", List.<Object[]>of())) {
+            pedidosHoy += fila[3] != null ? ((Number) fila[3]).longValue() : 0L;
+        }
+        estadisticas.put("pedidosHoy", pedidosHoy);
+
+        estadisticas.put("pedidosPendientes", lote.obtenerOpcional(pedidosPendientes, "pedidosPendientes", 0L));
+        estadisticas.put("ultimosPedidos", lote.obtenerOpcional(ultimosPedidos, "ultimosPedidos", List.of()));
+
+        estadisticas.put("meses", new ArrayList<>(pedidosPorMes.keySet()));
+        estadisticas.put("pedidosPorMes", new ArrayList<>(pedidosPorMes.values()));
+        agregarSeccionesIncompletas(estadisticas, lote);
+
+        return estadisticas;
+    }
+
+    private void agregarSeccionesIncompletas(Map<String, Object> estadisticas, ConsultasParalelas.Lote lote) {
+        if (!lote.getSeccionesIncompletas().isEmpty()) {
+            estadisticas.put("parcial", true);
+            estadisticas.put("seccionesIncompletas", lote.getSeccionesIncompletas());
+        }
+    }
 }
\ No newline at end of file
@@ -1,13 +1,13 @@
 package com.backend.pedidos_app.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.backend.pedidos_app.dto.CategoriaDto;
 import com.backend.pedidos_app.dto.ProductoDto;
+import com.backend.pedidos_app.dto.ProductoVendidoDto;
 import com.backend.pedidos_app.exception.ResourceNotFoundException;
 import com.backend.pedidos_app.model.Categoria;
 import com.backend.pedidos_app.model.Producto;
@@ -18,8 +18,8 @@ import com.backend.pedidos_app.repository.ProductoRepository;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
-import org.springframework.http.MediaType;
 
 @Service
 public class ProductoService {
@@ -31,37 +31,34 @@ public class ProductoService {
     private CategoriaRepository categoriaRepository;
     
     @Autowired
-    private SupabaseStorageService storageService;
+    private ImagenProductoService imagenProductoService;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private ProductosMasVendidosService productosMasVendidosService;
     
+    // Las lecturas del catálogo se sirven desde la instantánea en memoria
     public List<ProductoDto> obtenerTodosLosProductos() {
-        return productoRepository.findAll().stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        return catalogoCache.obtener().getProductos();
     }
 
     public List<ProductoDto> obtenerTodosLosProductosActivos() {
-        return productoRepository.findByActivoTrue().stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        return catalogoCache.obtener().getProductosActivos();
     }
 
     public List<ProductoDto> obtenerProductosPorCategoria(Long categoriaId) {
-        return productoRepository.findByCategoriaIdAndActivoTrue(categoriaId).stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        return catalogoCache.obtener().getProductosActivosPorCategoria(categoriaId);
     }
     
     // Cambiar este para incluir inactivos
     public List<CategoriaDto> obtenerTodasLasCategorias() {
-        return categoriaRepository.findAll().stream()
-                .map(this::convertirCategoriaADto)
-                .collect(Collectors.toList());
+        return catalogoCache.obtener().getCategorias();
     }
     
     public List<CategoriaDto> obtenerTodasLasCategoriasActivas() {
-        return categoriaRepository.findByActivoTrue().stream()
-                .map(this::convertirCategoriaADto)
-                .collect(Collectors.toList());
+        return catalogoCache.obtener().getCategoriasActivas();
     }
 
     public ProductoDto crearProducto(ProductoDto productoDto, MultipartFile imagen) {
@@ -81,17 +78,11 @@ public class ProductoService {
         producto.setCategoria(categoria);
         producto.setActivo(true);
 
-        if (imagen != null && !imagen.isEmpty()) {
-            try {
-                String imageUrl = storageService.uploadFile(imagen, "productos");
-                producto.setImagenUrl(imageUrl);
-            } catch (IOException e) {
-                throw new RuntimeException("Error al subir la imagen del producto", e);
-            }
-        }
-
         Producto productoGuardado = productoRepository.save(producto);
-        return convertirADto(productoGuardado);
+        catalogoCache.invalidar();
+        // La imagen se procesa en segundo plano; sus URLs aparecen en el catálogo al terminar
+        programarImagen(productoGuardado.getId(), imagen);
+        return CatalogoMapper.aDto(productoGuardado);
     }
 
     public ProductoDto actualizarProducto(Long id, ProductoDto productoDto, MultipartFile imagen) {
@@ -115,28 +106,11 @@ public class ProductoService {
         producto.setPrecio(productoDto.getPrecio());
         producto.setActivo(productoDto.getActivo());
 
-        if (imagen != null && !imagen.isEmpty()) {
-            try {
-                // Eliminar imagen anterior si existe
-                if (producto.getImagenUrl() != null) {
-                    try {
-                        storageService.deleteFile(producto.getImagenUrl());
-                    } catch (Exception e) {
-                        // Loggear el error pero continuar con la actualización
-                        System.err.println("Error al eliminar la imagen anterior: " + e.getMessage());
-                    }
-                }
-                
-                // Subir nueva imagen
-                String imageUrl = storageService.uploadFile(imagen, "productos");
-                producto.setImagenUrl(imageUrl);
-            } catch (IOException e) {
-                throw new RuntimeException("Error al actualizar la imagen del producto", e);
-            }
-        }
-
         Producto productoActualizado = productoRepository.save(producto);
-        return convertirADto(productoActualizado);
+        catalogoCache.invalidar();
+        // La imagen anterior se conserva hasta que las nuevas variantes estén subidas
+        programarImagen(productoActualizado.getId(), imagen);
+        return CatalogoMapper.aDto(productoActualizado);
     }
 
     @Transactional
@@ -146,6 +120,7 @@ public class ProductoService {
 
         producto.setActivo(false);
         productoRepository.save(producto);
+        catalogoCache.invalidar();
     }
 
     public ProductoDto actualizarEstadoProducto(Long id, Boolean estado) {
@@ -154,77 +129,78 @@ public class ProductoService {
         
         producto.setActivo(estado);
         Producto productoActualizado = productoRepository.save(producto);
-        return convertirADto(productoActualizado);
+        catalogoCache.invalidar();
+        return CatalogoMapper.aDto(productoActualizado);
     }
     
     public ProductoDto obtenerProductoPorId(Long id) {
-        Producto producto = productoRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
-        return convertirADto(producto);
+        ProductoDto producto = catalogoCache.obtener().getProductosPorId().get(id);
+        if (producto == null) {
+            throw new ResourceNotFoundException("Producto no encontrado con id: " + id);
+        }
+        return producto;
     }
 
-    private ProductoDto convertirADto(Producto producto) {
-        ProductoDto dto = new ProductoDto();
-        dto.setId(producto.getId());
-        dto.setNombre(producto.getNombre());
-        dto.setDescripcion(producto.getDescripcion());
-        dto.setPrecio(producto.getPrecio());
-        dto.setCategoria(convertirCategoriaADto(producto.getCategoria()));
-        dto.setImagenUrl(producto.getImagenUrl());
-        dto.setActivo(producto.getActivo());
-        return dto;
+    private void programarImagen(Long productoId, MultipartFile imagen) {
+        if (imagen == null || imagen.isEmpty()) {
+            return;
+        }
+        try {
+            imagenProductoService.procesar(productoId, imagen);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al recibir la imagen del producto", e);
+        }
     }
 
-    private CategoriaDto convertirCategoriaADto(Categoria categoria) {
-        CategoriaDto dto = new CategoriaDto();
-        dto.setId(categoria.getId());
-        dto.setNombre(categoria.getNombre());
-        dto.setActivo(categoria.getActivo());
-        return dto;
+    // Búsqueda sin acentos y tolerante a errores sobre nombre, descripción y categoría
+    public List<ProductoDto> buscarProductosPorNombre(String nombre, int limite) {
+        return catalogoCache.obtener().getIndiceBusqueda().buscar(nombre, limite);
     }
 
-    public List<ProductoDto> buscarProductosPorNombre(String nombre) {
-        return productoRepository.findByNombreContainingIgnoreCaseAndActivoTrue(nombre).stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+    public List<String> autocompletarProductos(String texto, int limite) {
+        return catalogoCache.obtener().getIndiceBusqueda().autocompletar(texto, limite);
     }
     
-    public List<ProductoDto> obtenerProductosMasVendidos(LocalDateTime inicio, LocalDateTime fin) {
-        List<Object[]> resultados = productoRepository.findProductosMasVendidos(inicio, fin);
-        
-        return resultados.stream()
-                .map(result -> {
-                    Long productoId = (Long) result[0];
-                    Producto producto = productoRepository.findById(productoId)
-                            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productoId));
-                    return convertirADto(producto);
-                })
+    // Una sola consulta con límite; los DTO salen del catálogo en memoria
+    public List<ProductoDto> obtenerProductosMasVendidos(LocalDateTime inicio, LocalDateTime fin, int limite) {
+        return productosMasVendidosService.obtener(inicio, fin, limite).stream()
+                .map(ProductoVendidoDto::getProducto)
                 .collect(Collectors.toList());
     }
+
+    public List<ProductoVendidoDto> obtenerRankingMasVendidos(ProductosMasVendidosService.Periodo periodo, int limite) {
+        return productosMasVendidosService.obtener(periodo, limite);
+    }
+
+    public List<ProductoVendidoDto> obtenerRankingMasVendidos(LocalDateTime inicio, LocalDateTime fin, int limite) {
+        return productosMasVendidosService.obtener(inicio, fin, limite);
+    }
     
     @Transactional
-    public void eliminarProducto(Long id) {
+    public Map<String, Object> eliminarProducto(Long id) {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + id));
         
         // Verificar si el producto está asociado a algún pedido
         boolean tienePedidos = productoRepository.existsPedidosByProductoId(id);
+        catalogoCache.invalidar();
         
         if (tienePedidos) {
             // Si tiene pedidos, solo desactivamos
             producto.setActivo(false);
             productoRepository.save(producto);
+            return Map.of(
+                "message", "El producto está asociado a pedidos y ha sido desactivado",
+                "action", "deactivated"
+            );
         } else {
-            // Si no tiene pedidos, eliminamos la imagen y luego el producto
-            if (producto.getImagenUrl() != null && !producto.getImagenUrl().isEmpty()) {
-                try {
-                    storageService.deleteFile(producto.getImagenUrl());
-                } catch (Exception e) {
-                    // Loggear el error pero continuar con la eliminación
-                    System.err.println("Error al eliminar la imagen del producto: " + e.getMessage());
-                }
-            }
+            // Si no tiene pedidos, eliminamos las imágenes y luego el producto
+            imagenProductoService.eliminarImagenes(producto);
             productoRepository.delete(producto);
+            return Map.of(
+                "message", "Producto eliminado correctamente",
+                "action", "deleted"
+            );
         }
     }
 
@@ -0,0 +1,165 @@
+package com.backend.pedidos_app.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.backend.pedidos_app.dto.ProductoDto;
+import com.backend.pedidos_app.dto.ProductoVendidoDto;
+import com.backend.pedidos_app.repository.ProductoRepository;
+import com.backend.pedidos_app.repository.VentaDiariaRepository;
+
+// Ranking de productos más vendidos (unidades e ingresos) en una sola consulta con límite.
+// Para hoy, la semana y el mes en curso se mantiene en memoria el top-K, recalculado cada
+// refresco-ms desde el resumen diario; los datos del producto salen del catálogo en memoria.
+@Service
+public class ProductosMasVendidosService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductosMasVendidosService.class);
+
+    public enum Periodo {
+        HOY, SEMANA, MES;
+
+        LocalDate inicio(LocalDate hoy) {
+            return switch (this) {
+                case HOY -> hoy;
+                case SEMANA -> hoy.with(DayOfWeek.MONDAY);
+                case MES -> hoy.withDayOfMonth(1);
+            };
+        }
+
+        public static Periodo desde(String texto) {
+            try {
+                return valueOf(texto.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Periodo no soportado: " + texto + " (use hoy, semana o mes)");
+            }
+        }
+    }
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    @Autowired
+    private VentaDiariaService ventaDiariaService;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Value("${app.productos.mas-vendidos.top-k:50}")
+    private int topK;
+
+    private record Vendido(Long productoId, long cantidad, double ingresos) {
+    }
+
+    private record Ranking(LocalDate fecha, Map<Periodo, List<Vendido>> porPeriodo, LocalDateTime calculadoEn) {
+    }
+
+    private volatile Ranking ranking;
+    private long refrescos;
+    private long ultimaDuracionMs;
+
+    public List<ProductoVendidoDto> obtener(Periodo periodo, int limite) {
+        if (limite > topK) {
+            // Fuera de lo que guarda el ranking en memoria: consulta directa
+            LocalDate hoy = LocalDate.now();
+            return obtener(periodo.inicio(hoy).atStartOfDay(), hoy.atTime(LocalTime.MAX), limite);
+        }
+        Ranking actual = ranking;
+        // Al cambiar el día las ventanas se corren: no se espera al siguiente refresco
+        if (actual == null || !actual.fecha().equals(LocalDate.now())) {
+            actual = recalcular();
+        }
+        return aDtos(actual.porPeriodo().get(periodo), limite);
+    }
+
+    public List<ProductoVendidoDto> obtener(LocalDateTime inicio, LocalDateTime fin, int limite) {
+        return aDtos(consultar(inicio, fin, limite), limite);
+    }
+
+    @Scheduled(fixedDelayString = "${app.productos.mas-vendidos.refresco-ms:60000}")
+    public void refrescar() {
+        try {
+            recalcular();
+        } catch (Exception e) {
+            // Se sigue sirviendo el ranking anterior
+            logger.warn("No se pudo refrescar el ranking de más vendidos: {}", e.getMessage());
+        }
+    }
+
+    public synchronized Map<String, Object> estadisticas() {
+        Ranking actual = ranking;
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("topK", topK);
+        datos.put("refrescos", refrescos);
+        datos.put("ultimaDuracionMs", ultimaDuracionMs);
+        datos.put("calculadoEn", actual != null ? actual.calculadoEn() : null);
+        return datos;
+    }
+
+    private synchronized Ranking recalcular() {
+        long inicio = System.currentTimeMillis();
+        LocalDate hoy = LocalDate.now();
+        Map<Periodo, List<Vendido>> porPeriodo = new EnumMap<>(Periodo.class);
+        for (Periodo periodo : Periodo.values()) {
+            porPeriodo.put(periodo, consultar(periodo.inicio(hoy).atStartOfDay(), hoy.atTime(LocalTime.MAX), topK));
+        }
+        Ranking nuevo = new Ranking(hoy, porPeriodo, LocalDateTime.now());
+        ranking = nuevo;
+        refrescos++;
+        ultimaDuracionMs = System.currentTimeMillis() - inicio;
+        return nuevo;
+    }
+
+    // Días completos se leen del resumen diario; el resto, de las líneas de pedido
+    private List<Vendido> consultar(LocalDateTime inicio, LocalDateTime fin, int limite) {
+        PageRequest pagina = PageRequest.of(0, limite);
+        List<Object[]> filas = ventaDiariaService.cubreDiasCompletos(inicio, fin)
+                ? ventaDiariaRepository.findProductosMasVendidos(inicio.toLocalDate(), fin.toLocalDate(), pagina)
+                : productoRepository.findProductosMasVendidos(inicio, fin, pagina);
+
+        List<Vendido> vendidos = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            if (fila[0] == null) {
+                continue;
+            }
+            vendidos.add(new Vendido((Long) fila[0],
+                    fila[1] != null ? ((Number) fila[1]).longValue() : 0L,
+                    fila[2] != null ? ((Number) fila[2]).doubleValue() : 0.0));
+        }
+        return List.copyOf(vendidos);
+    }
+
+    private List<ProductoVendidoDto> aDtos(List<Vendido> vendidos, int limite) {
+        Map<Long, ProductoDto> productos = catalogoCache.obtener().getProductosPorId();
+        List<ProductoVendidoDto> resultado = new ArrayList<>(Math.min(limite, vendidos.size()));
+        for (Vendido vendido : vendidos) {
+            if (resultado.size() >= limite) {
+                break;
+            }
+            // El catálogo incluye inactivos; solo falta un producto borrado sin pedidos
+            ProductoDto producto = productos.get(vendido.productoId());
+            if (producto != null) {
+                resultado.add(new ProductoVendidoDto(producto, vendido.cantidad(), vendido.ingresos()));
+            }
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,283 @@
+package com.backend.pedidos_app.service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.backend.pedidos_app.dto.PedidoEvento;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.annotation.PostConstruct;
+
+// Caché de resultados de reportes. En memoria guarda el mapa calculado por (inicio, fin, estado);
+// en disco guarda el xlsx generado, con nombre igual al SHA-256 del contenido del reporte.
+// Un rango que terminó antes de hoy no vence; uno que incluye hoy vence a los pocos segundos.
+// Cada pedido creado o modificado (evento tras el commit) descarta los rangos que contienen su fecha.
+@Component
+public class ReporteCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReporteCache.class);
+    // Cambiarla si cambia el formato del xlsx, para no servir archivos de la versión anterior
+    private static final String VERSION_FORMATO = "1";
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.reportes.cache.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.reportes.cache.max-entradas:200}")
+    private int maxEntradas;
+
+    @Value("${app.reportes.cache.ttl-hoy-segundos:60}")
+    private long ttlHoySegundos;
+
+    @Value("${app.reportes.cache.directorio:${java.io.tmpdir}/pedidos-reportes-cache}")
+    private String directorio;
+
+    @Value("${app.reportes.cache.max-mb-disco:100}")
+    private long maxMbDisco;
+
+    private Map<Clave, Entrada> entradas;
+    // Archivos xlsx por hash (orden de acceso) y su tamaño
+    private final LinkedHashMap<String, Long> archivos = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytesDisco;
+    private Path raiz;
+    private ObjectMapper mapperOrdenado;
+
+    // Se incrementa con cada escritura de pedidos; un cálculo que empezó antes no se guarda
+    private final AtomicLong escrituras = new AtomicLong();
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong invalidaciones = new AtomicLong();
+    private final AtomicLong aciertosDisco = new AtomicLong();
+    private final AtomicLong fallosDisco = new AtomicLong();
+
+    private record Clave(LocalDateTime inicio, LocalDateTime fin, String estado) {
+    }
+
+    private record Entrada(Map<String, Object> reporte, long expiraEn, long versionCatalogo) {
+    }
+
+    @PostConstruct
+    public void inicializar() throws IOException {
+        entradas = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Clave, Entrada> eldest) {
+                return size() > maxEntradas;
+            }
+        };
+        // Claves ordenadas para que el mismo reporte produzca siempre el mismo hash
+        mapperOrdenado = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+        raiz = Paths.get(directorio).toAbsolutePath();
+        Files.createDirectories(raiz);
+        // Los archivos de ejecuciones anteriores siguen siendo válidos: el nombre es su contenido
+        List<Path> existentes = new ArrayList<>();
+        try (DirectoryStream<Path> listado = Files.newDirectoryStream(raiz)) {
+            for (Path archivo : listado) {
+                if (archivo.getFileName().toString().endsWith(".xlsx")) {
+                    existentes.add(archivo);
+                } else {
+                    Files.deleteIfExists(archivo); // Temporales de una escritura interrumpida
+                }
+            }
+        }
+        existentes.sort(Comparator.comparing(ReporteCache::modificado));
+        synchronized (archivos) {
+            for (Path archivo : existentes) {
+                long tamano = Files.size(archivo);
+                String nombre = archivo.getFileName().toString();
+                archivos.put(nombre.substring(0, nombre.length() - ".xlsx".length()), tamano);
+                bytesDisco += tamano;
+            }
+            liberarDisco();
+        }
+        logger.info("Caché de reportes en {} ({} archivos, {} bytes)", raiz, archivos.size(), bytesDisco);
+    }
+
+    public Map<String, Object> obtener(LocalDateTime inicio, LocalDateTime fin, String estado,
+                                       Supplier<Map<String, Object>> calcular) {
+        if (!habilitado) {
+            return calcular.get();
+        }
+
+        Clave clave = new Clave(inicio, fin, estado);
+        long versionCatalogo = catalogoCache.getVersion();
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null && System.currentTimeMillis() < entrada.expiraEn()
+                    && entrada.versionCatalogo() == versionCatalogo) {
+                aciertos.incrementAndGet();
+                return entrada.reporte();
+            }
+        }
+        fallos.incrementAndGet();
+
+        long escriturasAntes = escrituras.get();
+        Map<String, Object> reporte = Collections.unmodifiableMap(calcular.get());
+        // Un reporte parcial no se guarda; tampoco uno que pudo leer datos a medio cambiar
+        if (!reporte.containsKey("parcial") && escrituras.get() == escriturasAntes) {
+            long expiraEn = incluyeHoy(fin)
+                    ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlHoySegundos)
+                    : Long.MAX_VALUE;
+            synchronized (entradas) {
+                entradas.put(clave, new Entrada(reporte, expiraEn, versionCatalogo));
+            }
+        }
+        return reporte;
+    }
+
+    // Devuelve el xlsx del reporte; si no está en disco lo genera y lo guarda
+    public byte[] obtenerExcel(Map<String, Object> reporte, GeneradorExcel generador) throws IOException {
+        if (!habilitado) {
+            return generador.generar();
+        }
+
+        String hash = hash(reporte);
+        Path archivo = raiz.resolve(hash + ".xlsx");
+        synchronized (archivos) {
+            if (archivos.get(hash) != null) {
+                try {
+                    byte[] contenido = Files.readAllBytes(archivo);
+                    aciertosDisco.incrementAndGet();
+                    return contenido;
+                } catch (IOException e) {
+                    // Borrado por fuera de la aplicación: se vuelve a generar
+                    bytesDisco -= archivos.remove(hash);
+                }
+            }
+        }
+        fallosDisco.incrementAndGet();
+
+        byte[] contenido = generador.generar();
+        // Se escribe en un temporal y se renombra para no dejar nunca un xlsx a medias
+        Path temporal = raiz.resolve(hash + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.write(temporal, contenido);
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (archivos) {
+                Long anterior = archivos.put(hash, (long) contenido.length);
+                bytesDisco += contenido.length - (anterior != null ? anterior : 0L);
+                liberarDisco();
+            }
+        } catch (IOException e) {
+            // La caché en disco es opcional: el archivo generado se devuelve igual
+            logger.warn("No se pudo guardar el reporte {} en la caché: {}", hash, e.getMessage());
+            Files.deleteIfExists(temporal);
+        }
+        return contenido;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void registrarEscritura(PedidoEvento evento) {
+        escrituras.incrementAndGet();
+        LocalDateTime fecha = evento.getPedido().getFechaPedido();
+        synchronized (entradas) {
+            Iterator<Map.Entry<Clave, Entrada>> it = entradas.entrySet().iterator();
+            while (it.hasNext()) {
+                Clave clave = it.next().getKey();
+                // Sin fecha no se sabe qué rangos afecta: se descartan todos
+                if (fecha == null || (!fecha.isBefore(clave.inicio()) && !fecha.isAfter(clave.fin()))) {
+                    it.remove();
+                    invalidaciones.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("habilitado", habilitado);
+        synchronized (entradas) {
+            datos.put("entradas", entradas.size());
+        }
+        datos.put("aciertos", aciertos.get());
+        datos.put("fallos", fallos.get());
+        datos.put("invalidaciones", invalidaciones.get());
+        synchronized (archivos) {
+            datos.put("archivosDisco", archivos.size());
+            datos.put("bytesDisco", bytesDisco);
+        }
+        datos.put("aciertosDisco", aciertosDisco.get());
+        datos.put("fallosDisco", fallosDisco.get());
+        return datos;
+    }
+
+    @FunctionalInterface
+    public interface GeneradorExcel {
+        byte[] generar() throws IOException;
+    }
+
+    private boolean incluyeHoy(LocalDateTime fin) {
+        return !fin.isBefore(LocalDate.now().atStartOfDay());
+    }
+
+    // Debe llamarse con el lock de archivos tomado
+    private void liberarDisco() {
+        long limite = maxMbDisco * 1024 * 1024;
+        Iterator<Map.Entry<String, Long>> it = archivos.entrySet().iterator();
+        while (bytesDisco > limite && it.hasNext()) {
+            Map.Entry<String, Long> masAntiguo = it.next();
+            try {
+                Files.deleteIfExists(raiz.resolve(masAntiguo.getKey() + ".xlsx"));
+            } catch (IOException e) {
+                logger.warn("No se pudo borrar {} de la caché de reportes: {}", masAntiguo.getKey(), e.getMessage());
+            }
+            bytesDisco -= masAntiguo.getValue();
+            it.remove();
+        }
+    }
+
+    private String hash(Map<String, Object> reporte) throws JsonProcessingException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(VERSION_FORMATO.getBytes());
+            digest.update(mapperOrdenado.writeValueAsBytes(reporte));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static FileTime modificado(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.backend.pedidos_app.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Generación de reportes Excel en segundo plano. Un pool acotado limita cuántos se generan
+// a la vez, los archivos quedan en disco con vencimiento y las solicitudes idénticas
+// (inicio, fin, estado) que llegan mientras otra está en curso reciben el mismo trabajo.
+@Service
+public class ReporteJobService {
+    private static final Logger logger = LoggerFactory.getLogger(ReporteJobService.class);
+    private static final DateTimeFormatter FORMATO_NOMBRE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    public enum EstadoJob { EN_COLA, PROCESANDO, COMPLETADO, ERROR }
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private ExcelExportService excelExportService;
+
+    @Value("${app.reportes.jobs.concurrencia:2}")
+    private int concurrencia;
+
+    @Value("${app.reportes.jobs.cola:20}")
+    private int capacidadCola;
+
+    @Value("${app.reportes.jobs.directorio:${java.io.tmpdir}/pedidos-reportes}")
+    private String directorio;
+
+    @Value("${app.reportes.jobs.ttl-minutos:60}")
+    private long ttlMinutos;
+
+    private final Map<String, ReporteJob> jobs = new ConcurrentHashMap<>();
+    // Trabajos en cola o en proceso por clave, para unir solicitudes idénticas
+    private final Map<String, ReporteJob> enCurso = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor ejecutor;
+    private Path raiz;
+
+    @PostConstruct
+    public void inicializar() throws IOException {
+        raiz = Paths.get(directorio).toAbsolutePath();
+        Files.createDirectories(raiz);
+        // Los archivos de una ejecución anterior no tienen trabajo asociado
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(raiz, "*.xlsx*")) {
+            for (Path archivo : archivos) {
+                Files.deleteIfExists(archivo);
+            }
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        ejecutor = new ThreadPoolExecutor(concurrencia, concurrencia, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), r -> {
+                    Thread hilo = new Thread(r, "reporte-job-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Trabajos de reporte: {} en paralelo, cola de {}, archivos en {}", concurrencia, capacidadCola, raiz);
+    }
+
+    // Devuelve el trabajo creado o el que ya está en curso para los mismos parámetros.
+    // Lanza IllegalStateException si la cola está llena.
+    public Map<String, Object> enviar(LocalDateTime inicio, LocalDateTime fin, String estado) {
+        String clave = inicio + "|" + fin + "|" + estado;
+        ReporteJob[] creado = new ReporteJob[1];
+        ReporteJob job = enCurso.computeIfAbsent(clave, k -> {
+            creado[0] = new ReporteJob(UUID.randomUUID().toString(), k, inicio, fin, estado);
+            jobs.put(creado[0].id, creado[0]);
+            return creado[0];
+        });
+
+        if (creado[0] == null) {
+            logger.info("Solicitud de reporte unida al trabajo {} ({})", job.id, clave);
+            return job.aMapa();
+        }
+
+        try {
+            ejecutor.execute(() -> ejecutar(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            enCurso.remove(clave, job);
+            throw new IllegalStateException("Hay demasiados reportes en cola, intente más tarde");
+        }
+        return job.aMapa();
+    }
+
+    public Map<String, Object> consultar(String id) {
+        ReporteJob job = jobs.get(id);
+        return job != null ? job.aMapa() : null;
+    }
+
+    // Archivo listo para descargar, o null si el trabajo no existe o no ha terminado
+    public ReporteJob obtenerCompletado(String id) {
+        ReporteJob job = jobs.get(id);
+        if (job == null || job.estado != EstadoJob.COMPLETADO || !Files.exists(job.archivo)) {
+            return null;
+        }
+        return job;
+    }
+
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("trabajos", jobs.size());
+        estadisticas.put("enCurso", enCurso.size());
+        estadisticas.put("activos", ejecutor.getActiveCount());
+        estadisticas.put("enCola", ejecutor.getQueue().size());
+        estadisticas.put("concurrencia", concurrencia);
+        return estadisticas;
+    }
+
+    private void ejecutar(ReporteJob job) {
+        job.estado = EstadoJob.PROCESANDO;
+        job.iniciadoEn = LocalDateTime.now();
+        Path temporal = raiz.resolve(job.id + ".xlsx.tmp");
+        try {
+            Map<String, Object> reporte = reporteService.generarReporte(job.inicio, job.fin, job.estadoFiltro);
+            try (OutputStream salida = Files.newOutputStream(temporal)) {
+                excelExportService.escribirReporte(reporte, salida, null);
+            }
+            Path destino = raiz.resolve(job.id + ".xlsx");
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.archivo = destino;
+            job.tamano = Files.size(destino);
+            terminar(job, EstadoJob.COMPLETADO);
+            logger.info("Reporte {} generado: {} bytes", job.id, job.tamano);
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            terminar(job, EstadoJob.ERROR);
+            logger.error("Error al generar el reporte {}", job.id, e);
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException ex) {
+                logger.warn("No se pudo eliminar {}: {}", temporal, ex.getMessage());
+            }
+        }
+    }
+
+    // Se quita de enCurso antes de publicar el estado final: quien vea el trabajo terminado y
+    // vuelva a pedir el mismo reporte debe obtener uno nuevo, no unirse al que ya acabó
+    private void terminar(ReporteJob job, EstadoJob estado) {
+        enCurso.remove(job.clave, job);
+        job.terminadoEn = LocalDateTime.now();
+        job.estado = estado;
+    }
+
+    // Elimina los trabajos terminados y sus archivos cuando vence su TTL
+    @Scheduled(fixedDelayString = "${app.reportes.jobs.limpieza-ms:60000}")
+    public void limpiarVencidos() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(ttlMinutos);
+        jobs.values().removeIf(job -> {
+            if (job.terminadoEn == null || job.terminadoEn.isAfter(limite)) {
+                return false;
+            }
+            if (job.archivo != null) {
+                try {
+                    Files.deleteIfExists(job.archivo);
+                } catch (IOException e) {
+                    logger.warn("No se pudo eliminar {}: {}", job.archivo, e.getMessage());
+                    return false;
+                }
+            }
+            logger.debug("Trabajo de reporte {} vencido", job.id);
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    public static class ReporteJob {
+        private final String id;
+        private final String clave;
+        private final LocalDateTime inicio;
+        private final LocalDateTime fin;
+        private final String estadoFiltro;
+        private final LocalDateTime creadoEn = LocalDateTime.now();
+        private volatile EstadoJob estado = EstadoJob.EN_COLA;
+        private volatile LocalDateTime iniciadoEn;
+        private volatile LocalDateTime terminadoEn;
+        private volatile Path archivo;
+        private volatile long tamano;
+        private volatile String error;
+
+        private ReporteJob(String id, String clave, LocalDateTime inicio, LocalDateTime fin, String estadoFiltro) {
+            this.id = id;
+            this.clave = clave;
+            this.inicio = inicio;
+            this.fin = fin;
+            this.estadoFiltro = estadoFiltro;
+        }
+
+        public Path getArchivo() {
+            return archivo;
+        }
+
+        public long getTamano() {
+            return tamano;
+        }
+
+        public String getNombreArchivo() {
+            return String.format("reporte_%s_%s.xlsx", inicio.format(FORMATO_NOMBRE), fin.format(FORMATO_NOMBRE));
+        }
+
+        private Map<String, Object> aMapa() {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            mapa.put("id", id);
+            mapa.put("estado", estado);
+            mapa.put("inicio", inicio);
+            mapa.put("fin", fin);
+            mapa.put("estadoPedidos", estadoFiltro);
+            mapa.put("creadoEn", creadoEn);
+            mapa.put("iniciadoEn", iniciadoEn);
+            mapa.put("terminadoEn", terminadoEn);
+            mapa.put("tamano", tamano);
+            mapa.put("error", error);
+            return mapa;
+        }
+    }
+}
@@ -6,13 +6,19 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.data.domain.PageRequest;
+
+import com.backend.pedidos_app.dto.ProductoDto;
 import com.backend.pedidos_app.exception.ResourceNotFoundException;
 import com.backend.pedidos_app.model.Producto;
 import com.backend.pedidos_app.repository.PedidoRepository;
 import com.backend.pedidos_app.repository.ProductoRepository;
+import com.backend.pedidos_app.repository.VentaDiariaRepository;
 
 @Service
 public class ReporteService {
@@ -23,88 +29,143 @@ public class ReporteService {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    @Autowired
+    private VentaDiariaService ventaDiariaService;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private ConsultasParalelas consultasParalelas;
+
+    @Autowired
+    private ReporteCache reporteCache;
+
+    // El mapa devuelto puede venir de la caché y no se debe modificar
     public Map<String, Object> generarReporte(LocalDateTime inicio, LocalDateTime fin, String estadoFiltro) {
+        return reporteCache.obtener(inicio, fin, estadoFiltro, () -> calcularReporte(inicio, fin, estadoFiltro));
+    }
+
+    private Map<String, Object> calcularReporte(LocalDateTime inicio, LocalDateTime fin, String estadoFiltro) {
+        // Rangos de días completos se leen del resumen diario
+        boolean desdeResumen = ventaDiariaService.cubreDiasCompletos(inicio, fin);
+
+        // Las tres consultas son independientes: se lanzan juntas y se esperan con un plazo común.
+        // Ventas, totales y estados salen de una sola consulta agrupada por (mes, estado).
+        ConsultasParalelas.Lote lote = consultasParalelas.nuevoLote();
+        CompletableFuture<List<Object[]>> resumen = lote.enviar(() -> desdeResumen
+                ? ventaDiariaRepository.resumirPorMesYEstado(inicio.toLocalDate(), fin.toLocalDate())
+                : pedidoRepository.resumirPorMesYEstado(inicio, fin));
+        CompletableFuture<List<Object[]>> masVendidos = lote.enviar(() -> desdeResumen
+                ? ventaDiariaRepository.findProductosMasVendidos(inicio.toLocalDate(), fin.toLocalDate(), PageRequest.of(0, 1))
+                : productoRepository.findProductosMasVendidos(inicio, fin, PageRequest.of(0, 1)));
+        // El cliente frecuente no cabe en un resumen por día: siempre se consulta sobre pedidos
+        CompletableFuture<List<Object[]>> clienteFrecuente = lote.enviar(() -> pedidoRepository.findClienteFrecuente(inicio, fin));
+
         Map<String, Object> reporte = new HashMap<>();
-        
-        // 1. Ventas por mes
-        List<Object[]> ventasPorMes = estadoFiltro.equals("todos") ? 
-            pedidoRepository.sumVentasGroupByMonth(inicio, fin) :
-            pedidoRepository.sumVentasGroupByMonthAndEstado(inicio, fin, estadoFiltro);
-        
-        List<String> meses = new ArrayList<>();
-        List<Double> montos = new ArrayList<>();
-        
-        for (Object[] resultado : ventasPorMes) {
-            meses.add((String) resultado[0]);
-            // Manejar valores nulos
-            Double monto = resultado[1] != null ? (Double) resultado[1] : 0.0;
-            montos.add(monto);
+        agregarResumenPorMesYEstado(reporte, lote.obtener(resumen, "resumen"), estadoFiltro);
+
+        List<Object[]> producto = lote.obtenerOpcional(masVendidos, "productoMasVendido", List.of());
+        if (!producto.isEmpty() && producto.get(0)[0] != null) {
+            Object[] fila = producto.get(0);
+            agregarProductoMasVendido(reporte, (Long) fila[0],
+                    fila[1] != null ? ((Number) fila[1]).longValue() : 0L,
+                    fila[2] != null ? ((Number) fila[2]).doubleValue() : 0.0);
+        } else {
+            agregarProductoMasVendido(reporte, null, 0L, 0.0);
         }
-        
-        reporte.put("meses", meses);
-        reporte.put("ventas", montos);
-        
-        // 2. Totales - Manejar valores nulos en las consultas
-        Double totalVentasTemp = estadoFiltro.equals("todos") ? 
-            pedidoRepository.sumTotalByFechaPedidoBetweenAndEstadoNot(inicio, fin, "cancelado") :
-            pedidoRepository.sumTotalByFechaPedidoBetweenAndEstado(inicio, fin, estadoFiltro);
-        
-        double totalVentas = totalVentasTemp != null ? totalVentasTemp : 0.0;
-        
-        Long totalPedidosTemp = estadoFiltro.equals("todos") ? 
-            pedidoRepository.countByFechaPedidoBetween(inicio, fin) :
-            pedidoRepository.countByFechaPedidoBetweenAndEstado(inicio, fin, estadoFiltro);
-            
-        long totalPedidos = totalPedidosTemp != null ? totalPedidosTemp : 0L;
-        
-        Long pedidosCanceladosTemp = pedidoRepository.countByFechaPedidoBetweenAndEstado(inicio, fin, "cancelado");
-        long pedidosCancelados = pedidosCanceladosTemp != null ? pedidosCanceladosTemp : 0L;
-        
+
+        agregarClienteFrecuente(reporte, lote.obtenerOpcional(clienteFrecuente, "clienteFrecuente", List.of()));
+
+        // Secciones que vencieron o fallaron quedan con sus valores por defecto
+        if (!lote.getSeccionesIncompletas().isEmpty()) {
+            reporte.put("parcial", true);
+            reporte.put("seccionesIncompletas", lote.getSeccionesIncompletas());
+        }
+        return reporte;
+    }
+
+    // Filas (número de mes, nombre de mes, estado, pedidos, total), ya sea de pedidos o de
+    // ventas_diarias. Con "todos" las ventas excluyen cancelados; con un estado, solo ese estado.
+    private void agregarResumenPorMesYEstado(Map<String, Object> reporte, List<Object[]> filas, String estadoFiltro) {
+        boolean todos = estadoFiltro.equals("todos");
+
+        Map<String, Double> ventasPorMes = new LinkedHashMap<>();
+        Map<String, Long> pedidosPorEstado = new LinkedHashMap<>();
+        double totalVentas = 0.0;
+        long totalPedidos = 0L;
+        long pedidosCancelados = 0L;
+
+        for (Object[] fila : filas) {
+            String mes = (String) fila[1];
+            String estado = (String) fila[2];
+            long pedidos = fila[3] != null ? ((Number) fila[3]).longValue() : 0L;
+            double total = fila[4] != null ? ((Number) fila[4]).doubleValue() : 0.0;
+            if (pedidos <= 0) {
+                continue; // Filas que quedaron en cero tras cambios de estado
+            }
+
+            pedidosPorEstado.merge(estado, pedidos, Long::sum);
+            if ("cancelado".equals(estado)) {
+                pedidosCancelados += pedidos;
+            }
+            boolean cuentaVentas = todos ? !"cancelado".equals(estado) : estado.equals(estadoFiltro);
+            if (cuentaVentas) {
+                ventasPorMes.merge(mes, total, Double::sum);
+                totalVentas += total;
+            }
+            if (todos || estado.equals(estadoFiltro)) {
+                totalPedidos += pedidos;
+            }
+        }
+
+        reporte.put("meses", new ArrayList<>(ventasPorMes.keySet()));
+        reporte.put("ventas", new ArrayList<>(ventasPorMes.values()));
         reporte.put("totalVentas", totalVentas);
         reporte.put("totalPedidos", totalPedidos);
         reporte.put("pedidosCancelados", pedidosCancelados);
-        
-        // 3. Distribución de estados de pedidos
-        List<Object[]> estadosPedidos = pedidoRepository.countPedidosGroupByEstado(inicio, fin);
+
         List<Map<String, Object>> estados = new ArrayList<>();
-        
-        for (Object[] resultado : estadosPedidos) {
-            Map<String, Object> estado = new HashMap<>();
-            estado.put("estado", resultado[0]);
-            estado.put("cantidad", resultado[1] != null ? resultado[1] : 0L);
-            estados.add(estado);
-        }
-        
+        pedidosPorEstado.forEach((estado, cantidad) -> {
+            Map<String, Object> item = new HashMap<>();
+            item.put("estado", estado);
+            item.put("cantidad", cantidad);
+            estados.add(item);
+        });
         reporte.put("estadosPedidos", estados);
-        
-        // 4. Producto más vendido - Manejar caso cuando no hay productos
-        List<Object[]> productosMasVendidos = productoRepository.findProductosMasVendidos(inicio, fin);
-        if (!productosMasVendidos.isEmpty() && productosMasVendidos.get(0)[0] != null) {
-            Object[] productoMasVendido = productosMasVendidos.get(0);
-            Long productoId = (Long) productoMasVendido[0];
-            Long cantidadVendida = productoMasVendido[1] != null ? (Long) productoMasVendido[1] : 0L;
-            
-            Producto producto = productoRepository.findById(productoId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productoId));
-            
-            Double total = cantidadVendida * producto.getPrecio();
-            
-            Map<String, Object> productoMap = new HashMap<>();
-            productoMap.put("nombre", producto.getNombre());
+    }
+
+    // El total es lo efectivamente cobrado (precio unitario de cada pedido), no el precio actual
+    private void agregarProductoMasVendido(Map<String, Object> reporte, Long productoId, Long cantidadVendida,
+                                           Double ingresos) {
+        Map<String, Object> productoMap = new HashMap<>();
+        if (productoId != null) {
+            // Nombre desde el catálogo en memoria; solo se consulta si no está
+            ProductoDto producto = catalogoCache.obtener().getProductosPorId().get(productoId);
+            String nombre;
+            if (producto != null) {
+                nombre = producto.getNombre();
+            } else {
+                Producto entidad = productoRepository.findById(productoId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productoId));
+                nombre = entidad.getNombre();
+            }
+            productoMap.put("nombre", nombre);
             productoMap.put("cantidad", cantidadVendida);
-            productoMap.put("total", total);
-            reporte.put("productoMasVendido", productoMap);
+            productoMap.put("total", ingresos);
         } else {
             // Si no hay productos vendidos, poner valores por defecto
-            Map<String, Object> productoMap = new HashMap<>();
             productoMap.put("nombre", "No hay datos");
             productoMap.put("cantidad", 0L);
             productoMap.put("total", 0.0);
-            reporte.put("productoMasVendido", productoMap);
         }
-        
-        // 5. Cliente frecuente - Manejar caso cuando no hay clientes
-        List<Object[]> clienteFrecuente = pedidoRepository.findClienteFrecuente(inicio, fin);
+        reporte.put("productoMasVendido", productoMap);
+    }
+
+    private void agregarClienteFrecuente(Map<String, Object> reporte, List<Object[]> clienteFrecuente) {
         if (!clienteFrecuente.isEmpty() && clienteFrecuente.get(0)[0] != null) {
             Map<String, Object> cliente = new HashMap<>();
             cliente.put("nombre", clienteFrecuente.get(0)[0] != null ? clienteFrecuente.get(0)[0] : "N/A");
@@ -121,7 +182,5 @@ public class ReporteService {
             cliente.put("total", 0.0);
             reporte.put("clienteFrecuente", cliente);
         }
-        
-        return reporte;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,10 @@
 package com.backend.pedidos_app.service;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
@@ -8,7 +13,17 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class SupabaseStorageService {
 
@@ -18,16 +33,56 @@ public class SupabaseStorageService {
     @Value("${supabase.key}")
     private String supabaseKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Con pool de conexiones y timeouts (SupabaseHttpConfig)
+    @Autowired
+    @Qualifier("supabaseRestTemplate")
+    private RestTemplate restTemplate;
+
+    // Latencia y errores por operación (subida, eliminacion)
+    private static final String METRICA = "supabase.storage";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     public String uploadFile(MultipartFile file, String bucketName) throws IOException {
-        String fileName = UUID.randomUUID() + "-" + file.getOriginalFilename();
+        try (InputStream entrada = file.getInputStream()) {
+            return uploadStream(entrada, file.getSize(), file.getContentType(), file.getOriginalFilename(), bucketName);
+        }
+    }
+
+    // El cuerpo se copia del stream a la conexión por bloques; el tamaño se envía como Content-Length
+    public String uploadStream(InputStream entrada, long tamano, String contentType, String originalName, String bucketName) {
+        Resource recurso = new InputStreamResource(entrada) {
+            @Override
+            public long contentLength() {
+                return tamano;
+            }
+        };
+        return upload(recurso, contentType, originalName, bucketName);
+    }
+
+    public String uploadBytes(byte[] content, String contentType, String originalName, String bucketName) {
+        return upload(content, contentType, originalName, bucketName);
+    }
+
+    // Sube un archivo del disco leyéndolo por partes, sin cargarlo completo en memoria
+    public String uploadFile(Path archivo, String contentType, String originalName, String bucketName) {
+        Resource recurso = new FileSystemResource(archivo);
+        return upload(recurso, contentType, originalName, bucketName);
+    }
+
+    private String upload(Object body, String contentType, String originalName, String bucketName) {
+        return medir("subida", () -> enviar(body, contentType, originalName, bucketName));
+    }
+
+    private String enviar(Object body, String contentType, String originalName, String bucketName) {
+        String fileName = UUID.randomUUID() + "-" + originalName;
         String url = supabaseUrl + "/storage/v1/object/" + bucketName + "/" + fileName;
 
         HttpHeaders headers = createHeaders();
-        headers.setContentType(MediaType.parseMediaType(file.getContentType()));
+        headers.setContentType(MediaType.parseMediaType(contentType));
 
-        HttpEntity<byte[]> requestEntity = new HttpEntity<>(file.getBytes(), headers);
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, headers);
 
         ResponseEntity<String> response = restTemplate.exchange(
                 url,
@@ -43,6 +98,13 @@ public class SupabaseStorageService {
     }
 
     public void deleteFile(String fileUrl) {
+        medir("eliminacion", () -> {
+            eliminar(fileUrl);
+            return null;
+        });
+    }
+
+    private void eliminar(String fileUrl) {
         try {
             // Extraer el bucket y el nombre del archivo de la URL
             String publicPrefix = supabaseUrl + "/storage/v1/object/public/";
@@ -78,6 +140,59 @@ public class SupabaseStorageService {
         }
     }
 
+    // Resumen de los timers supabase.storage para /status (el detalle está en /actuator/prometheus)
+    public Map<String, Object> estadisticas() {
+        Map<String, ResumenOperacion> porOperacion = new LinkedHashMap<>();
+        for (Timer timer : meterRegistry.find(METRICA).timers()) {
+            porOperacion.computeIfAbsent(timer.getId().getTag("operacion"), k -> new ResumenOperacion())
+                    .agregar(timer, "error".equals(timer.getId().getTag("resultado")));
+        }
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        porOperacion.forEach((operacion, resumen) -> resultado.put(operacion, resumen.aMapa()));
+        return resultado;
+    }
+
+    private <T> T medir(String operacion, Supplier<T> accion) {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        String resultado = "error";
+        try {
+            T valor = accion.get();
+            resultado = "ok";
+            return valor;
+        } finally {
+            muestra.stop(Timer.builder(METRICA)
+                    .description("Latencia de las operaciones contra Supabase Storage")
+                    .tag("operacion", operacion)
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static class ResumenOperacion {
+        private long total;
+        private long errores;
+        private double tiempoTotalMs;
+        private double maximoMs;
+
+        void agregar(Timer timer, boolean error) {
+            total += timer.count();
+            if (error) {
+                errores += timer.count();
+            }
+            tiempoTotalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+            maximoMs = Math.max(maximoMs, timer.max(TimeUnit.MILLISECONDS));
+        }
+
+        Map<String, Object> aMapa() {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            mapa.put("total", total);
+            mapa.put("errores", errores);
+            mapa.put("promedioMs", total > 0 ? tiempoTotalMs / total : 0.0);
+            mapa.put("maximoMs", maximoMs);
+            return mapa;
+        }
+    }
+
     private HttpHeaders createHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + supabaseKey);
@@ -0,0 +1,87 @@
+package com.backend.pedidos_app.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.pedidos_app.model.Pedido;
+import com.backend.pedidos_app.repository.PedidoRepository;
+import com.backend.pedidos_app.repository.VentaDiariaRepository;
+
+// Mantiene las tablas ventas_diarias y ventas_diarias_productos. Los métodos de
+// registro deben llamarse dentro de la transacción que modifica el pedido.
+@Service
+public class VentaDiariaService {
+    private static final Logger logger = LoggerFactory.getLogger(VentaDiariaService.class);
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Transactional
+    public void registrarPedido(Pedido pedido) {
+        ventaDiariaRepository.acumular(pedido.getFechaPedido().toLocalDate(), pedido.getEstado(), 1, pedido.getTotal());
+        ventaDiariaRepository.acumularProductos(pedido.getId(), pedido.getFechaPedido().toLocalDate(), pedido.getEstado(), 1);
+    }
+
+    @Transactional
+    public void registrarCambioEstado(Long pedidoId, LocalDateTime fechaPedido, Double total,
+                                      String estadoAnterior, String estadoNuevo) {
+        if (estadoAnterior.equals(estadoNuevo)) {
+            return;
+        }
+        ventaDiariaRepository.acumular(fechaPedido.toLocalDate(), estadoAnterior, -1, -total);
+        ventaDiariaRepository.acumular(fechaPedido.toLocalDate(), estadoNuevo, 1, total);
+        ventaDiariaRepository.acumularProductos(pedidoId, fechaPedido.toLocalDate(), estadoAnterior, -1);
+        ventaDiariaRepository.acumularProductos(pedidoId, fechaPedido.toLocalDate(), estadoNuevo, 1);
+    }
+
+    @Transactional
+    public Map<String, Object> reconstruir() {
+        long inicio = System.currentTimeMillis();
+        ventaDiariaRepository.borrarResumen();
+        ventaDiariaRepository.borrarResumenProductos();
+        int dias = ventaDiariaRepository.reconstruirResumen();
+        int productos = ventaDiariaRepository.reconstruirResumenProductos();
+        long duracion = System.currentTimeMillis() - inicio;
+        logger.info("Resumen diario reconstruido: {} filas de días, {} filas de productos en {} ms", dias, productos, duracion);
+        return Map.of(
+            "filasResumen", dias,
+            "filasProductos", productos,
+            "duracionMs", duracion
+        );
+    }
+
+    // El resumen solo sirve cuando el rango abarca días completos
+    public boolean cubreDiasCompletos(LocalDateTime inicio, LocalDateTime fin) {
+        return inicio.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && !fin.toLocalTime().isBefore(LocalTime.of(23, 59, 59));
+    }
+
+    // Primer arranque con pedidos existentes: poblar el resumen una sola vez
+    @EventListener(ApplicationReadyEvent.class)
+    public void poblarSiEstaVacio() {
+        try {
+            if (ventaDiariaRepository.count() == 0 && pedidoRepository.count() > 0) {
+                logger.info("Resumen diario vacío, reconstruyendo desde pedidos");
+                transactionTemplate.execute(status -> reconstruir());
+            }
+        } catch (Exception e) {
+            logger.error("No se pudo poblar el resumen diario: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.backend.pedidos_app.service;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.pedidos_app.repository.PedidoRepository;
+
+// Versión de cambio monotónica para pedidos (columna pedidos.cambio_version).
+// Las versiones se asignan antes del commit, así que una transacción con versión 10 puede
+// confirmar después de otra con versión 11. Para que un cliente no salte cambios, la marca
+// de agua que se entrega nunca pasa de la menor versión todavía en curso.
+// El contador vive en memoria: supone una sola instancia escribiendo pedidos.
+@Component
+public class VersionCambiosPedidos {
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    private long ultimaAsignada;
+    private boolean inicializado;
+    private final NavigableSet<Long> enCurso = new TreeSet<>();
+
+    // Asigna la siguiente versión; queda "en curso" hasta que termine la transacción actual
+    public synchronized long siguiente() {
+        inicializarSiHaceFalta();
+        long version = ++ultimaAsignada;
+        enCurso.add(version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    liberar(version);
+                }
+            });
+        } else {
+            enCurso.remove(version);
+        }
+        return version;
+    }
+
+    // Mayor versión hasta la cual todos los cambios ya están confirmados
+    public synchronized long marcaDeAgua() {
+        inicializarSiHaceFalta();
+        return enCurso.isEmpty() ? ultimaAsignada : enCurso.first() - 1;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void inicializarSiHaceFalta() {
+        if (!inicializado) {
+            ultimaAsignada = pedidoRepository.findMaxCambioVersion();
+            inicializado = true;
+        }
+    }
+
+    private synchronized void liberar(long version) {
+        enCurso.remove(version);
+    }
+}
@@ -0,0 +1,102 @@
+-- Esquema base tal como lo generaba Hibernate (ddl-auto=update).
+-- En bases existentes Flyway parte de la versión 0, así que estas sentencias
+-- no hacen nada gracias a IF NOT EXISTS.
+
+CREATE TABLE IF NOT EXISTS roles (
+    id INT NOT NULL AUTO_INCREMENT,
+    nombre VARCHAR(20),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    nombre_completo VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    telefono VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_usuarios_email UNIQUE (email),
+    CONSTRAINT uk_usuarios_username UNIQUE (username)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS usuarios_roles (
+    usuario_id BIGINT NOT NULL,
+    rol_id INT NOT NULL,
+    PRIMARY KEY (usuario_id, rol_id),
+    CONSTRAINT fk_usuarios_roles_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id),
+    CONSTRAINT fk_usuarios_roles_rol FOREIGN KEY (rol_id) REFERENCES roles (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS categorias (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    activo BIT NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_categorias_nombre UNIQUE (nombre)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS productos (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    activo BIT NOT NULL,
+    descripcion VARCHAR(255) NOT NULL,
+    imagen LONGBLOB,
+    imagen_url VARCHAR(255),
+    nombre VARCHAR(255) NOT NULL,
+    precio DOUBLE NOT NULL,
+    tipo_imagen VARCHAR(255),
+    categoria_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_productos_categoria FOREIGN KEY (categoria_id) REFERENCES categorias (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS pedidos (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    comprobante_url VARCHAR(255),
+    direccion VARCHAR(255),
+    estado VARCHAR(255) NOT NULL,
+    fecha_pedido DATETIME(6) NOT NULL,
+    nombre_cliente VARCHAR(255) NOT NULL,
+    recargo_domicilio DOUBLE NOT NULL,
+    telefono_cliente VARCHAR(255) NOT NULL,
+    tipo_entrega VARCHAR(255) NOT NULL,
+    tipo_pago VARCHAR(255) NOT NULL,
+    total DOUBLE NOT NULL,
+    usuario_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_pedidos_usuario FOREIGN KEY (usuario_id) REFERENCES usuarios (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS pedido_productos (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    cantidad INT NOT NULL,
+    personalizaciones VARCHAR(255),
+    precio_unitario DOUBLE NOT NULL,
+    producto_order INT,
+    pedido_id BIGINT NOT NULL,
+    producto_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_pedido_productos_pedido FOREIGN KEY (pedido_id) REFERENCES pedidos (id),
+    CONSTRAINT fk_pedido_productos_producto FOREIGN KEY (producto_id) REFERENCES productos (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    fecha DATE NOT NULL,
+    estado VARCHAR(255) NOT NULL,
+    cantidad_pedidos BIGINT NOT NULL,
+    total DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ventas_diarias_fecha_estado UNIQUE (fecha, estado)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS ventas_diarias_productos (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    fecha DATE NOT NULL,
+    estado VARCHAR(255) NOT NULL,
+    producto_id BIGINT NOT NULL,
+    cantidad BIGINT NOT NULL,
+    subtotal DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_ventas_diarias_productos UNIQUE (fecha, estado, producto_id)
+) ENGINE=InnoDB;
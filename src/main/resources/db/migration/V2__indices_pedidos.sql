@@ -0,0 +1,20 @@
+-- Índices alineados con las consultas de PedidoRepository y ProductoRepository.
+
+-- Paginación por cursor: ORDER BY fecha_pedido DESC, id DESC con WHERE (fecha_pedido, id) < (?, ?)
+CREATE INDEX idx_pedidos_fecha_id ON pedidos (fecha_pedido, id);
+
+-- Sumas y conteos por rango de fechas con filtro por estado: el índice cubre la consulta
+-- (fecha_pedido BETWEEN ... AND estado <> / = ...) y evita leer las filas para SUM(total)
+CREATE INDEX idx_pedidos_fecha_estado_total ON pedidos (fecha_pedido, estado, total);
+
+-- countByEstado y findByEstadoWithOrderedProducts (WHERE estado = ? ORDER BY fecha_pedido)
+CREATE INDEX idx_pedidos_estado_fecha ON pedidos (estado, fecha_pedido);
+
+-- findByUsuarioIdWithOrderedProducts (WHERE usuario_id = ? ORDER BY fecha_pedido)
+CREATE INDEX idx_pedidos_usuario_fecha ON pedidos (usuario_id, fecha_pedido);
+
+-- existsPedidosByProductoId y productos más vendidos (JOIN por producto hacia el pedido)
+CREATE INDEX idx_pedido_productos_producto_pedido ON pedido_productos (producto_id, pedido_id);
+
+-- Carga de líneas de un pedido en su orden original
+CREATE INDEX idx_pedido_productos_pedido_orden ON pedido_productos (pedido_id, producto_order);
@@ -0,0 +1,2 @@
+-- Versión de tokens por usuario: incrementarla revoca todos los JWT emitidos antes
+ALTER TABLE usuarios ADD COLUMN token_version INT NOT NULL DEFAULT 0;
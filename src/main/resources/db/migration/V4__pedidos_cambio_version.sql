@@ -0,0 +1,5 @@
+-- Versión de cambio para sincronización incremental (GET /api/pedidos/cambios).
+-- Los pedidos existentes toman su id como versión, que respeta el orden de creación.
+ALTER TABLE pedidos ADD COLUMN cambio_version BIGINT NOT NULL DEFAULT 0;
+UPDATE pedidos SET cambio_version = id;
+CREATE INDEX idx_pedidos_cambio_version ON pedidos (cambio_version);
@@ -0,0 +1,4 @@
+-- Estado de la subida asíncrona del comprobante: pendiente_subida, subido o error.
+-- Los pedidos que ya tienen URL quedan como subidos.
+ALTER TABLE pedidos ADD COLUMN comprobante_estado VARCHAR(20) NULL;
+UPDATE pedidos SET comprobante_estado = 'subido' WHERE comprobante_url IS NOT NULL;
@@ -0,0 +1,3 @@
+-- Variantes reducidas de la imagen del producto (imagen_url queda como versión completa)
+ALTER TABLE productos ADD COLUMN imagen_media_url VARCHAR(255) NULL;
+ALTER TABLE productos ADD COLUMN imagen_thumb_url VARCHAR(255) NULL;
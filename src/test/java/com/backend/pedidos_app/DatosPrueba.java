@@ -0,0 +1,80 @@
+package com.backend.pedidos_app;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.model.Categoria;
+import com.backend.pedidos_app.model.Pedido;
+import com.backend.pedidos_app.model.PedidoProducto;
+import com.backend.pedidos_app.model.Producto;
+import com.backend.pedidos_app.repository.CategoriaRepository;
+import com.backend.pedidos_app.repository.PedidoRepository;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+// Datos de prueba compartidos por las pruebas que necesitan base de datos
+public final class DatosPrueba {
+    private static final String[] ESTADOS = {"pendiente", "en_preparacion", "listo", "entregado", "cancelado"};
+
+    private DatosPrueba() {
+    }
+
+    public static List<Producto> productos(CategoriaRepository categoriaRepository,
+                                           ProductoRepository productoRepository, int cantidad) {
+        Categoria categoria = new Categoria();
+        categoria.setNombre("Categoría de prueba");
+        categoria = categoriaRepository.save(categoria);
+
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 1; i <= cantidad; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto " + i);
+            producto.setDescripcion("Descripción " + i);
+            producto.setPrecio(10.0 * i);
+            producto.setCategoria(categoria);
+            productos.add(producto);
+        }
+        return productoRepository.saveAll(productos);
+    }
+
+    // n pedidos de tres líneas, uno por hora desde "desde", con estados rotativos
+    public static List<Pedido> pedidos(PedidoRepository pedidoRepository, List<Producto> productos,
+                                       int n, LocalDateTime desde) {
+        List<Pedido> pedidos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Pedido pedido = new Pedido();
+            pedido.setNombreCliente("Cliente " + (i % 25));
+            pedido.setTelefonoCliente("5555" + String.format("%04d", i % 25));
+            pedido.setTipoEntrega(i % 2 == 0 ? "recoger" : "domicilio");
+            pedido.setTipoPago(i % 3 == 0 ? "transferencia" : "efectivo");
+            pedido.setEstado(ESTADOS[i % ESTADOS.length]);
+            pedido.setFechaPedido(desde.plusHours(i));
+            double total = 0.0;
+            for (int linea = 0; linea < 3; linea++) {
+                Producto producto = productos.get((i + linea) % productos.size());
+                PedidoProducto pp = new PedidoProducto();
+                pp.setPedido(pedido);
+                pp.setProducto(producto);
+                pp.setCantidad(linea + 1);
+                pp.setPrecioUnitario(producto.getPrecio());
+                pp.setOrden(linea);
+                pedido.getProductos().add(pp);
+                total += producto.getPrecio() * (linea + 1);
+            }
+            pedido.setTotal(total);
+            pedidos.add(pedido);
+        }
+        return pedidoRepository.saveAll(pedidos);
+    }
+
+    public static void borrarTodo(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM pedido_productos");
+        jdbcTemplate.update("DELETE FROM pedidos");
+        jdbcTemplate.update("DELETE FROM ventas_diarias");
+        jdbcTemplate.update("DELETE FROM ventas_diarias_productos");
+        jdbcTemplate.update("DELETE FROM productos");
+        jdbcTemplate.update("DELETE FROM categorias");
+    }
+}
@@ -0,0 +1,22 @@
+package com.backend.pedidos_app;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Funciones de MySQL que usan las consultas y que H2 no trae. Se registran con INIT en la URL
+// de application-test.properties
+public final class FuncionesH2 {
+
+    private FuncionesH2() {
+    }
+
+    // Solo los especificadores que usan los repositorios: %Y, %m, %d y %b
+    public static String dateFormat(LocalDateTime fecha, String formato) {
+        if (fecha == null || formato == null) {
+            return null;
+        }
+        String patron = formato.replace("%Y", "yyyy").replace("%m", "MM").replace("%d", "dd").replace("%b", "MMM");
+        return fecha.format(DateTimeFormatter.ofPattern(patron, Locale.ENGLISH));
+    }
+}
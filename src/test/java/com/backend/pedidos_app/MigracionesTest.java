@@ -0,0 +1,73 @@
+package com.backend.pedidos_app;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// El esquema de las pruebas sale de db/migration (V1 en adelante), igual que en producción.
+// Hibernate lo valida contra las entidades, y los índices y restricciones únicas que declaran
+// las entidades deben existir con el mismo nombre: antes los creaba ddl-auto=update
+@SpringBootTest
+class MigracionesTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void todasLasMigracionesEstanAplicadas() {
+        MigrationInfo[] migraciones = flyway.info().all();
+
+        assertThat(migraciones).isNotEmpty();
+        assertThat(migraciones).extracting(MigrationInfo::getState).containsOnly(MigrationState.SUCCESS);
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void esquemaMigradoCoincideConLasEntidades() {
+        // Lanza SchemaManagementException si falta una tabla o columna, o si un tipo no coincide
+        entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().validateMappedObjects();
+    }
+
+    @Test
+    void indicesYRestriccionesDeLasEntidadesExisten() {
+        List<String> declarados = new ArrayList<>();
+        entityManagerFactory.getMetamodel().getEntities().forEach(entidad -> {
+            Table tabla = entidad.getJavaType().getAnnotation(Table.class);
+            if (tabla != null) {
+                for (Index indice : tabla.indexes()) {
+                    declarados.add(indice.name().toLowerCase());
+                }
+                for (UniqueConstraint unica : tabla.uniqueConstraints()) {
+                    declarados.add(unica.name().toLowerCase());
+                }
+            }
+        });
+        List<String> existentes = jdbcTemplate.queryForList(
+                "SELECT LOWER(index_name) FROM information_schema.indexes "
+                        + "UNION SELECT LOWER(constraint_name) FROM information_schema.table_constraints", String.class);
+
+        assertThat(declarados).isNotEmpty();
+        assertThat(existentes).containsAll(declarados);
+    }
+}
@@ -0,0 +1,34 @@
+package com.backend.pedidos_app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Guarda el SQL que Hibernate envía desde el hilo actual mientras hay una captura abierta.
+// Se registra con hibernate.session_factory.statement_inspector en application-test.properties
+// y permite pasar a EXPLAIN exactamente lo que ejecutan los repositorios
+public class SentenciasCapturadas implements StatementInspector {
+    private static final ThreadLocal<List<String>> CAPTURA = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> sentencias = CAPTURA.get();
+        if (sentencias != null) {
+            sentencias.add(sql);
+        }
+        return sql;
+    }
+
+    // SQL de las sentencias que ejecuta la acción, en orden
+    public static List<String> durante(Runnable accion) {
+        List<String> sentencias = new ArrayList<>();
+        CAPTURA.set(sentencias);
+        try {
+            accion.run();
+        } finally {
+            CAPTURA.remove();
+        }
+        return sentencias;
+    }
+}
@@ -0,0 +1,49 @@
+package com.backend.pedidos_app.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class PedidoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void cursorQueNoEsBase64DevuelveSolicitudInvalida() throws Exception {
+        mockMvc.perform(get("/api/pedidos/paginado").param("cursor", "garbage!"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void cursorConContenidoInvalidoDevuelveSolicitudInvalida() throws Exception {
+        for (String valor : new String[]{"garbage", "2024-01-01T10:00|abc", "ayer|5"}) {
+            String cursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+            mockMvc.perform(get("/api/pedidos/paginado").param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+        mockMvc.perform(get("/api/pedidos/paginado").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void sinCursorDevuelveLaPrimeraPagina() throws Exception {
+        mockMvc.perform(get("/api/pedidos/paginado").param("limite", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pedidos").isArray());
+    }
+}
@@ -0,0 +1,142 @@
+package com.backend.pedidos_app.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.backend.pedidos_app.DatosPrueba;
+import com.backend.pedidos_app.model.Pedido;
+import com.backend.pedidos_app.repository.CategoriaRepository;
+import com.backend.pedidos_app.repository.PedidoRepository;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+// Hoja "Pedidos" de /exportar-stream: se lee por lotes de 500 con cursor (fechaPedido, id). Con más
+// de dos lotes y grupos de siete pedidos con la misma fecha que cruzan el límite de cada lote, el
+// libro leído de vuelta debe tener cada pedido del rango una sola vez y en orden
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ReporteControllerTest {
+    private static final LocalDateTime DESDE = LocalDateTime.of(2023, 5, 1, 8, 0);
+    private static final int PEDIDOS = 1203;
+    private static final int POR_FECHA = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Pedido> pedidos;
+
+    @BeforeEach
+    void preparar() {
+        pedidos = DatosPrueba.pedidos(pedidoRepository,
+                DatosPrueba.productos(categoriaRepository, productoRepository, 3), PEDIDOS, DESDE);
+        // Fechas repetidas y en orden inverso a los ids: el orden (fecha, id) no es el de inserción
+        List<Object[]> fechas = new ArrayList<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            Pedido pedido = pedidos.get(i);
+            pedido.setFechaPedido(DESDE.plusMinutes((PEDIDOS - 1 - i) / POR_FECHA));
+            fechas.add(new Object[]{Timestamp.valueOf(pedido.getFechaPedido()), pedido.getId()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE pedidos SET fecha_pedido = ? WHERE id = ?", fechas);
+    }
+
+    @AfterEach
+    void limpiar() {
+        DatosPrueba.borrarTodo(jdbcTemplate);
+    }
+
+    @Test
+    void detalleTieneCadaPedidoUnaVezEnOrdenDeFechaEId() throws Exception {
+        try (Workbook libro = exportar("todos", true)) {
+            assertThat(idsDeLaHojaPedidos(libro)).containsExactlyElementsOf(esperados(null));
+        }
+    }
+
+    @Test
+    void detalleConEstadoSoloIncluyeEseEstado() throws Exception {
+        try (Workbook libro = exportar("listo", true)) {
+            List<Long> esperados = esperados("listo");
+
+            assertThat(esperados).isNotEmpty();
+            assertThat(idsDeLaHojaPedidos(libro)).containsExactlyElementsOf(esperados);
+        }
+    }
+
+    @Test
+    void sinDetalleNoHayHojaDePedidos() throws Exception {
+        try (Workbook libro = exportar("todos", false)) {
+            assertThat(libro.getSheet("Pedidos")).isNull();
+            assertThat(libro.getNumberOfSheets()).isPositive();
+        }
+    }
+
+    private Workbook exportar(String estado, boolean detalle) throws Exception {
+        MvcResult inicio = mockMvc.perform(get("/api/reportes/exportar-stream")
+                        .param("inicio", DESDE.minusDays(1).toString())
+                        .param("fin", DESDE.plusDays(1).toString())
+                        .param("estado", estado)
+                        .param("detalle", String.valueOf(detalle)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] xlsx = mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        return new XSSFWorkbook(new ByteArrayInputStream(xlsx));
+    }
+
+    private List<Long> esperados(String estado) {
+        return pedidos.stream()
+                .filter(p -> estado == null || estado.equals(p.getEstado()))
+                .sorted(Comparator.comparing(Pedido::getFechaPedido).thenComparing(Pedido::getId))
+                .map(Pedido::getId)
+                .toList();
+    }
+
+    private List<Long> idsDeLaHojaPedidos(Workbook libro) {
+        Sheet hoja = libro.getSheet("Pedidos");
+        assertThat(hoja).isNotNull();
+        List<Long> ids = new ArrayList<>();
+        for (Row fila : hoja) {
+            if (fila.getRowNum() > 0) {
+                ids.add((long) fila.getCell(0).getNumericCellValue());
+            }
+        }
+        return ids;
+    }
+}
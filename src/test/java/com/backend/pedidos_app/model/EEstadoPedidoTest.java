@@ -0,0 +1,70 @@
+package com.backend.pedidos_app.model;
+
+import static com.backend.pedidos_app.model.EEstadoPedido.CANCELADO;
+import static com.backend.pedidos_app.model.EEstadoPedido.EN_PREPARACION;
+import static com.backend.pedidos_app.model.EEstadoPedido.ENTREGADO;
+import static com.backend.pedidos_app.model.EEstadoPedido.LISTO;
+import static com.backend.pedidos_app.model.EEstadoPedido.PENDIENTE;
+import static com.backend.pedidos_app.model.EEstadoPedido.PENDIENTE_VERIFICACION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.pedidos_app.exception.SolicitudInvalidaException;
+
+class EEstadoPedidoTest {
+    // Tabla completa de transiciones permitidas; cualquier otra debe rechazarse
+    private static final Map<EEstadoPedido, Set<EEstadoPedido>> PERMITIDAS = new EnumMap<>(Map.of(
+            PENDIENTE, EnumSet.of(PENDIENTE_VERIFICACION, EN_PREPARACION, CANCELADO),
+            PENDIENTE_VERIFICACION, EnumSet.of(PENDIENTE, EN_PREPARACION, CANCELADO),
+            EN_PREPARACION, EnumSet.of(LISTO, CANCELADO),
+            LISTO, EnumSet.of(ENTREGADO, CANCELADO),
+            ENTREGADO, EnumSet.noneOf(EEstadoPedido.class),
+            CANCELADO, EnumSet.noneOf(EEstadoPedido.class)));
+
+    @Test
+    void soloSePermitenLasTransicionesDeLaTabla() {
+        assertThat(PERMITIDAS.keySet()).containsExactlyInAnyOrder(EEstadoPedido.values());
+        for (EEstadoPedido anterior : EEstadoPedido.values()) {
+            for (EEstadoPedido nuevo : EEstadoPedido.values()) {
+                assertThat(anterior.puedeCambiarA(nuevo))
+                        .as("%s -> %s", anterior, nuevo)
+                        .isEqualTo(PERMITIDAS.get(anterior).contains(nuevo));
+            }
+        }
+    }
+
+    @Test
+    void ningunEstadoPuedeCambiarASiMismo() {
+        for (EEstadoPedido estado : EEstadoPedido.values()) {
+            assertThat(estado.puedeCambiarA(estado)).as(estado.name()).isFalse();
+        }
+    }
+
+    @Test
+    void entregadoYCanceladoSonFinales() {
+        assertThat(ENTREGADO.siguientes()).isEmpty();
+        assertThat(CANCELADO.siguientes()).isEmpty();
+    }
+
+    @Test
+    void desdeAceptaElValorGuardadoSinImportarMayusculasNiEspacios() {
+        for (EEstadoPedido estado : EEstadoPedido.values()) {
+            assertThat(EEstadoPedido.desde(estado.getValor())).isEqualTo(estado);
+        }
+        assertThat(EEstadoPedido.desde(" En_Preparacion ")).isEqualTo(EN_PREPARACION);
+    }
+
+    @Test
+    void desdeRechazaValoresDesconocidos() {
+        assertThatThrownBy(() -> EEstadoPedido.desde("enviado")).isInstanceOf(SolicitudInvalidaException.class);
+        assertThatThrownBy(() -> EEstadoPedido.desde("en preparacion")).isInstanceOf(SolicitudInvalidaException.class);
+        assertThatThrownBy(() -> EEstadoPedido.desde(null)).isInstanceOf(SolicitudInvalidaException.class);
+    }
+}
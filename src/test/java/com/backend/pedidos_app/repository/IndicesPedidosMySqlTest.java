@@ -0,0 +1,59 @@
+package com.backend.pedidos_app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.SentenciasCapturadas;
+
+// Las mismas consultas que IndicesPedidosTest contra un MySQL real: la aplicación arranca sobre esa
+// base (Flyway la migra y Hibernate valida el esquema) y se explica el SQL que envía cada método.
+// Solo lee; no corre en el build normal. Para ejecutarlo contra una copia de producción:
+//   PEDIDOS_MYSQL_URL=jdbc:mysql://localhost:3306/pedidos PEDIDOS_MYSQL_USUARIO=... PEDIDOS_MYSQL_CLAVE=... \
+//     mvn test -Dtest=IndicesPedidosMySqlTest
+// Con tablas casi vacías el optimizador puede preferir recorrer la tabla: usar datos reales
+@EnabledIfEnvironmentVariable(named = "PEDIDOS_MYSQL_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${PEDIDOS_MYSQL_URL:}",
+        "spring.datasource.username=${PEDIDOS_MYSQL_USUARIO:}",
+        "spring.datasource.password=${PEDIDOS_MYSQL_CLAVE:}",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect"
+})
+class IndicesPedidosMySqlTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Test
+    void consultasUsanLosIndicesDeLaMigracion() {
+        LocalDateTime fin = LocalDateTime.now();
+        LocalDateTime inicio = fin.minusDays(7);
+
+        assertThat(indicesUsados(() -> pedidoRepository.countByEstado("listo"), "listo"))
+                .contains("idx_pedidos_estado_fecha");
+        assertThat(indicesUsados(() -> pedidoRepository.sumTotalByFechaPedidoBetweenAndEstadoNot(inicio, fin, "cancelado"),
+                inicio, fin, "cancelado")).contains("idx_pedidos_fecha_estado_total");
+        assertThat(indicesUsados(() -> pedidoRepository.findPrimeraPaginaIds(PageRequest.of(0, 20)), 20))
+                .contains("idx_pedidos_fecha_id");
+        assertThat(indicesUsados(() -> pedidoRepository.findPaginaIdsDespuesDe(inicio, Long.MAX_VALUE,
+                PageRequest.of(0, 20)), inicio, inicio, Long.MAX_VALUE, 20)).contains("idx_pedidos_fecha_id");
+    }
+
+    // Columna "key" de EXPLAIN: el índice elegido para cada tabla del plan
+    private List<String> indicesUsados(Runnable consulta, Object... parametros) {
+        List<String> sentencias = SentenciasCapturadas.durante(consulta);
+        assertThat(sentencias).hasSize(1);
+        return jdbcTemplate.query("EXPLAIN " + sentencias.get(0), (fila, n) -> fila.getString("key"), parametros);
+    }
+}
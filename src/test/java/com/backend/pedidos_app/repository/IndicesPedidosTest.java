@@ -0,0 +1,103 @@
+package com.backend.pedidos_app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.DatosPrueba;
+import com.backend.pedidos_app.SentenciasCapturadas;
+import com.backend.pedidos_app.model.Pedido;
+
+// Comprueba con EXPLAIN que las consultas de PedidoRepository usan los índices de
+// V2__indices_pedidos.sql. Se explica el SQL que envía Hibernate al llamar al repositorio
+// (SentenciasCapturadas) con los mismos parámetros, no una copia escrita a mano.
+// IndicesPedidosMySqlTest revisa las mismas consultas contra un MySQL real
+@SpringBootTest
+class IndicesPedidosTest {
+    private static final LocalDateTime DESDE = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    private Pedido intermedio;
+
+    @BeforeEach
+    void preparar() {
+        List<Pedido> pedidos = DatosPrueba.pedidos(pedidoRepository,
+                DatosPrueba.productos(categoriaRepository, productoRepository, 5), 2000, DESDE);
+        intermedio = pedidos.get(1000);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void limpiar() {
+        DatosPrueba.borrarTodo(jdbcTemplate);
+    }
+
+    @Test
+    void consultasPorEstadoUsanSuIndice() {
+        assertThat(plan(() -> pedidoRepository.countByEstado("listo"), "listo"))
+                .contains("idx_pedidos_estado_fecha");
+        assertThat(plan(() -> pedidoRepository.findByEstadoWithOrderedProducts("listo"), "listo"))
+                .contains("idx_pedidos_estado_fecha");
+    }
+
+    @Test
+    void sumasPorRangoUsanElIndiceQueCubreLaConsulta() {
+        LocalDateTime inicio = DESDE.plusDays(4);
+        LocalDateTime fin = DESDE.plusDays(8);
+
+        assertThat(plan(() -> pedidoRepository.sumTotalByFechaPedidoBetweenAndEstadoNot(inicio, fin, "cancelado"),
+                inicio, fin, "cancelado")).contains("idx_pedidos_fecha_estado_total");
+    }
+
+    @Test
+    void paginasRecorrenElIndiceSinOrdenar() {
+        // "index sorted": el ORDER BY ... LIMIT sale del índice, sin ordenar todas las filas
+        assertThat(plan(() -> pedidoRepository.findPrimeraPaginaIds(PageRequest.of(0, 20)), 20))
+                .contains("idx_pedidos_fecha_id").contains("index sorted");
+
+        LocalDateTime fecha = intermedio.getFechaPedido();
+        Long id = intermedio.getId();
+        assertThat(plan(() -> pedidoRepository.findPaginaIdsDespuesDe(fecha, id, PageRequest.of(0, 20)),
+                fecha, fecha, id, 20)).contains("idx_pedidos_fecha_id").contains("index sorted");
+    }
+
+    @Test
+    void lineasDeUnPedidoSeBuscanPorIndice() {
+        Long id = intermedio.getId();
+
+        // H2 elige el índice de la FK o idx_pedido_productos_pedido_orden (ambos empiezan por
+        // pedido_id); lo que importa es que no recorra pedido_productos completa
+        assertThat(plan(() -> pedidoRepository.findRespuestaById(id), id))
+                .contains(": pedido_id = p1_0.id */")
+                .doesNotContain("pedido_productos.tableScan");
+    }
+
+    // EXPLAIN de la única sentencia que ejecuta la consulta, con sus parámetros en orden
+    private String plan(Runnable consulta, Object... parametros) {
+        List<String> sentencias = SentenciasCapturadas.durante(consulta);
+        assertThat(sentencias).hasSize(1);
+        String sql = sentencias.get(0);
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(parametros.length);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros);
+    }
+}
@@ -0,0 +1,68 @@
+package com.backend.pedidos_app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.backend.pedidos_app.DatosPrueba;
+import com.backend.pedidos_app.model.Producto;
+
+// Editar un producto cargado antes de que ImagenProductoService guarde las variantes no debe
+// devolver las columnas de imagen a los valores que tenía al cargarlo (@DynamicUpdate)
+@SpringBootTest
+class ProductoActualizacionTest {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void limpiar() {
+        DatosPrueba.borrarTodo(jdbcTemplate);
+    }
+
+    @Test
+    void editarNoPisaLasImagenesGuardadasEnSegundoPlano() {
+        Long id = DatosPrueba.productos(categoriaRepository, productoRepository, 1).get(0).getId();
+        TransactionTemplate edicion = new TransactionTemplate(transactionManager);
+        TransactionTemplate imagenes = new TransactionTemplate(transactionManager);
+        imagenes.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        edicion.executeWithoutResult(status -> {
+            Producto producto = productoRepository.findById(id).orElseThrow();
+            // Las variantes terminan de subirse mientras el producto se está editando
+            imagenes.executeWithoutResult(s -> productoRepository.actualizarImagenes(id,
+                    "https://cdn/completa.webp", "https://cdn/media.webp", "https://cdn/mini.webp", "image/webp"));
+            producto.setNombre("Nombre editado");
+            producto.setPrecio(99.0);
+            productoRepository.save(producto);
+        });
+
+        Map<String, Object> fila = jdbcTemplate.queryForMap(
+                "SELECT nombre, precio, imagen_url, imagen_media_url, imagen_thumb_url, tipo_imagen "
+                        + "FROM productos WHERE id = ?", id);
+        assertThat(fila).containsEntry("NOMBRE", "Nombre editado")
+                .containsEntry("PRECIO", 99.0)
+                .containsEntry("IMAGEN_URL", "https://cdn/completa.webp")
+                .containsEntry("IMAGEN_MEDIA_URL", "https://cdn/media.webp")
+                .containsEntry("IMAGEN_THUMB_URL", "https://cdn/mini.webp")
+                .containsEntry("TIPO_IMAGEN", "image/webp");
+    }
+}
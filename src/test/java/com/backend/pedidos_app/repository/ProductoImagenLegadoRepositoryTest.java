@@ -0,0 +1,81 @@
+package com.backend.pedidos_app.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.DatosPrueba;
+
+// completarMigracion solo reemplaza imagen_url si sigue como la leyó la migración
+@SpringBootTest
+class ProductoImagenLegadoRepositoryTest {
+
+    @Autowired
+    private ProductoImagenLegadoRepository legadoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long id;
+
+    @BeforeEach
+    void preparar() {
+        id = DatosPrueba.productos(categoriaRepository, productoRepository, 1).get(0).getId();
+        jdbcTemplate.update("UPDATE productos SET imagen = ?, tipo_imagen = 'image/png' WHERE id = ?",
+                new byte[] {1, 2, 3}, id);
+    }
+
+    @AfterEach
+    void limpiar() {
+        DatosPrueba.borrarTodo(jdbcTemplate);
+    }
+
+    @Test
+    void sinUrlAsignaLaMigradaYLiberaElBlob() {
+        assertThat(legadoRepository.countPendientes()).isEqualTo(1);
+
+        assertThat(legadoRepository.completarMigracion(id, "https://cdn/migrada.png", null)).isEqualTo(1);
+
+        assertThat(fila()).containsEntry("IMAGEN_URL", "https://cdn/migrada.png").containsEntry("IMAGEN", null);
+        assertThat(legadoRepository.countPendientes()).isZero();
+    }
+
+    @Test
+    void conLaUrlLeidaLiberaElBlobSinCambiarla() {
+        jdbcTemplate.update("UPDATE productos SET imagen_url = 'https://cdn/existente.png' WHERE id = ?", id);
+
+        assertThat(legadoRepository.completarMigracion(id, "https://cdn/existente.png", "https://cdn/existente.png"))
+                .isEqualTo(1);
+
+        assertThat(fila()).containsEntry("IMAGEN_URL", "https://cdn/existente.png").containsEntry("IMAGEN", null);
+    }
+
+    @Test
+    void imagenSubidaDuranteLaMigracionNoSeReemplaza() {
+        // La migración leyó el producto sin URL; antes de la UPDATE un admin sube otra imagen
+        String leida = legadoRepository.findById(id).orElseThrow().getImagenUrl();
+        jdbcTemplate.update("UPDATE productos SET imagen_url = 'https://cdn/nueva.webp' WHERE id = ?", id);
+
+        assertThat(legadoRepository.completarMigracion(id, "https://cdn/migrada.png", leida)).isZero();
+
+        assertThat(fila()).containsEntry("IMAGEN_URL", "https://cdn/nueva.webp");
+        assertThat(legadoRepository.countPendientes()).isEqualTo(1);
+    }
+
+    private Map<String, Object> fila() {
+        return jdbcTemplate.queryForMap("SELECT imagen_url, imagen FROM productos WHERE id = ?", id);
+    }
+}
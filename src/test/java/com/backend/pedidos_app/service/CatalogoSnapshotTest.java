@@ -0,0 +1,65 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.pedidos_app.dto.CategoriaDto;
+import com.backend.pedidos_app.dto.ProductoDto;
+import com.backend.pedidos_app.model.Categoria;
+import com.backend.pedidos_app.model.Producto;
+
+class CatalogoSnapshotTest {
+
+    @Test
+    void losDtoDeLaInstantaneaSonDeSoloLectura() {
+        Categoria categoria = new Categoria();
+        categoria.setId(1L);
+        categoria.setNombre("Bebidas");
+        categoria.setActivo(true);
+        Producto producto = new Producto();
+        producto.setId(10L);
+        producto.setNombre("Café");
+        producto.setPrecio(2.5);
+        producto.setCategoria(categoria);
+        producto.setActivo(true);
+
+        CatalogoSnapshot snapshot = new CatalogoSnapshot(1, List.of(CatalogoMapper.aDto(producto)),
+                List.of(CatalogoMapper.aDto(categoria)));
+
+        ProductoDto dto = snapshot.getProductosPorId().get(10L);
+        assertThat(dto.getNombre()).isEqualTo("Café");
+        assertThat(dto.getCategoria().getNombre()).isEqualTo("Bebidas");
+        assertThatThrownBy(() -> dto.setPrecio(0.0)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> dto.getCategoria().setNombre("x")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.getCategorias().get(0).setActivo(false))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.getProductos().add(dto)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void copiaLosDtoMutablesQueRecibe() {
+        CategoriaDto categoria = new CategoriaDto();
+        categoria.setId(1L);
+        categoria.setNombre("Bebidas");
+        categoria.setActivo(true);
+        ProductoDto producto = new ProductoDto();
+        producto.setId(10L);
+        producto.setNombre("Café");
+        producto.setCategoria(categoria);
+        producto.setActivo(true);
+
+        CatalogoSnapshot snapshot = new CatalogoSnapshot(1, List.of(producto), List.of(categoria));
+        producto.setNombre("Té");
+        categoria.setNombre("Otra");
+
+        ProductoDto guardado = snapshot.getProductosPorId().get(10L);
+        assertThat(guardado.getNombre()).isEqualTo("Café");
+        assertThat(guardado.getCategoria().getNombre()).isEqualTo("Bebidas");
+        assertThat(snapshot.getCategorias().get(0).getNombre()).isEqualTo("Bebidas");
+        assertThatThrownBy(() -> guardado.setNombre("x")).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
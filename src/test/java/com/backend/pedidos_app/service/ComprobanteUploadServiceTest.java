@@ -0,0 +1,201 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.pedidos_app.exception.ResourceNotFoundException;
+import com.backend.pedidos_app.exception.ServicioSaturadoException;
+import com.backend.pedidos_app.exception.SolicitudInvalidaException;
+import com.backend.pedidos_app.repository.PedidoRepository;
+
+class ComprobanteUploadServiceTest {
+    private static final String URL = "https://supabase.invalid/storage/v1/object/public/comprobantes/x.pdf";
+
+    @TempDir
+    Path spool;
+
+    private final PedidoService pedidoService = mock(PedidoService.class);
+    private final PedidoRepository pedidoRepository = mock(PedidoRepository.class);
+    private final SupabaseStorageService storageService = mock(SupabaseStorageService.class);
+    private ComprobanteUploadService service;
+
+    @BeforeEach
+    void preparar() {
+        when(pedidoRepository.existsById(any())).thenReturn(true);
+        service = crear(500, 1000);
+    }
+
+    @AfterEach
+    void detener() {
+        service.detener();
+    }
+
+    @Test
+    void siFallaElRegistroSoloSeReintentaElRegistro() throws Exception {
+        when(storageService.uploadFile(any(Path.class), anyString(), anyString(), anyString())).thenReturn(URL);
+        doThrow(new DataAccessResourceFailureException("base caída")).doReturn(null)
+                .when(pedidoService).registrarComprobanteSubido(7L, URL);
+
+        service.recibir(7L, archivo(1024));
+
+        verify(pedidoService, timeout(5000).times(2)).registrarComprobanteSubido(7L, URL);
+        verify(storageService, times(1)).uploadFile(any(Path.class), anyString(), anyString(), anyString());
+        esperarSpoolVacio();
+        assertThat(service.estadisticas()).containsEntry("subidos", 1L).containsEntry("reintentos", 1L)
+                .containsEntry("bytesSpool", 0L).containsEntry("archivosSpool", 0);
+    }
+
+    @Test
+    void alReanudarConUrlGuardadaNoSeVuelveASubir() throws Exception {
+        when(storageService.uploadFile(any(Path.class), anyString(), anyString(), anyString())).thenReturn(URL);
+        doThrow(new DataAccessResourceFailureException("base caída"))
+                .when(pedidoService).registrarComprobanteSubido(7L, URL);
+        ReflectionTestUtils.setField(service, "maxIntentos", 1);
+
+        service.recibir(7L, archivo(1024));
+        verify(pedidoService, timeout(5000)).registrarComprobanteFallido(7L);
+        service.detener();
+
+        // Reinicio: solo queda el .meta con la URL, el archivo local ya se borró
+        try (Stream<Path> archivos = Files.list(spool)) {
+            assertThat(archivos).singleElement().satisfies(meta -> {
+                assertThat(meta.toString()).endsWith(".meta");
+                assertThat(Files.readString(meta)).contains("url=");
+            });
+        }
+        doReturn(null).when(pedidoService).registrarComprobanteSubido(7L, URL);
+        service = crear(500, 1000);
+        service.reanudarPendientes();
+
+        verify(pedidoService, timeout(5000).times(2)).registrarComprobanteSubido(7L, URL);
+        verify(storageService, times(1)).uploadFile(any(Path.class), anyString(), anyString(), anyString());
+        esperarSpoolVacio();
+    }
+
+    @Test
+    void pedidoEliminadoTrasLaSubidaBorraElObjeto() throws Exception {
+        when(storageService.uploadFile(any(Path.class), anyString(), anyString(), anyString())).thenReturn(URL);
+        doThrow(new ResourceNotFoundException("Pedido no encontrado con id: 7"))
+                .when(pedidoService).registrarComprobanteSubido(eq(7L), anyString());
+
+        service.recibir(7L, archivo(1024));
+
+        verify(storageService, timeout(5000)).deleteFile(URL);
+        esperarSpoolVacio();
+    }
+
+    @Test
+    void spoolLlenoRechazaConServicioSaturado() throws Exception {
+        detener();
+        service = crear(1, 2);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(storageService.uploadFile(any(Path.class), anyString(), anyString(), anyString())).thenAnswer(i -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return URL;
+        });
+
+        // Por tamaño: 600 KB + 600 KB pasa de 1 MB
+        service.recibir(1L, archivo(600 * 1024));
+        assertThatThrownBy(() -> service.recibir(2L, archivo(600 * 1024)))
+                .isInstanceOf(ServicioSaturadoException.class);
+        // Por cantidad: el segundo cabe, el tercero no
+        service.recibir(3L, archivo(1024));
+        assertThatThrownBy(() -> service.recibir(4L, archivo(1024)))
+                .isInstanceOf(ServicioSaturadoException.class);
+        assertThat(service.estadisticas()).containsEntry("rechazadosPorSpool", 2L).containsEntry("archivosSpool", 2);
+
+        // Al vaciarse el spool se vuelve a aceptar
+        liberar.countDown();
+        esperarSpoolVacio();
+        service.recibir(5L, archivo(600 * 1024));
+    }
+
+    @Test
+    void siNoSePuedeMarcarElPedidoSeLiberaElSpool() throws Exception {
+        doThrow(new DataAccessResourceFailureException("base caída"))
+                .when(pedidoService).marcarComprobantePendiente(7L);
+
+        assertThatThrownBy(() -> service.recibir(7L, archivo(1024)))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        // Sin archivo ni .meta, reanudarPendientes no tiene nada que subir
+        try (Stream<Path> archivos = Files.list(spool)) {
+            assertThat(archivos).isEmpty();
+        }
+        assertThat(service.estadisticas()).containsEntry("bytesSpool", 0L).containsEntry("archivosSpool", 0);
+        service.reanudarPendientes();
+        verify(storageService, after(200).never()).uploadFile(any(Path.class), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void comprobanteVacioEsSolicitudInvalida() {
+        assertThatThrownBy(() -> service.recibir(7L, archivo(0)))
+                .isInstanceOf(SolicitudInvalidaException.class);
+        assertThat(service.estadisticas()).containsEntry("archivosSpool", 0);
+    }
+
+    private ComprobanteUploadService crear(long spoolMaxMb, int spoolMaxArchivos) {
+        ComprobanteUploadService nuevo = new ComprobanteUploadService();
+        ReflectionTestUtils.setField(nuevo, "pedidoService", pedidoService);
+        ReflectionTestUtils.setField(nuevo, "pedidoRepository", pedidoRepository);
+        ReflectionTestUtils.setField(nuevo, "storageService", storageService);
+        ReflectionTestUtils.setField(nuevo, "bucketComprobantes", "comprobantes");
+        ReflectionTestUtils.setField(nuevo, "directorioSpool", spool.toString());
+        ReflectionTestUtils.setField(nuevo, "hilos", 2);
+        ReflectionTestUtils.setField(nuevo, "capacidadCola", 10);
+        ReflectionTestUtils.setField(nuevo, "maxIntentos", 6);
+        ReflectionTestUtils.setField(nuevo, "esperaInicialMs", 20L);
+        ReflectionTestUtils.setField(nuevo, "esperaMaximaMs", 100L);
+        ReflectionTestUtils.setField(nuevo, "spoolMaxMb", spoolMaxMb);
+        ReflectionTestUtils.setField(nuevo, "spoolMaxArchivos", spoolMaxArchivos);
+        try {
+            nuevo.inicializar();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return nuevo;
+    }
+
+    private static MockMultipartFile archivo(int tamano) {
+        return new MockMultipartFile("file", "comprobante.pdf", "application/pdf", new byte[tamano]);
+    }
+
+    private void esperarSpoolVacio() throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try (Stream<Path> archivos = Files.list(spool)) {
+                if (archivos.findAny().isEmpty()) {
+                    return;
+                }
+            }
+            assertThat(System.nanoTime()).as("el spool no se vació").isLessThan(limite);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.DatosPrueba;
+import com.backend.pedidos_app.dto.PedidoResponse;
+import com.backend.pedidos_app.model.Producto;
+import com.backend.pedidos_app.repository.CategoriaRepository;
+import com.backend.pedidos_app.repository.PedidoRepository;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Los caminos de listado y de reporte deben ejecutar el mismo número de sentencias con 10 o con
+// 1.000 pedidos: si alguien quita un JOIN FETCH o vuelve a consultar por fila, esto falla
+@SpringBootTest
+class ConsultasConstantesTest {
+    // Rangos que no empiezan a medianoche: el reporte va por pedidos y no por ventas_diarias
+    private static final LocalDateTime POCOS = LocalDateTime.of(2020, 1, 1, 8, 0);
+    private static final LocalDateTime MUCHOS = LocalDateTime.of(2021, 1, 1, 8, 0);
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private CatalogoCache catalogoCache;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void preparar() {
+        List<Producto> productos = DatosPrueba.productos(categoriaRepository, productoRepository, 8);
+        DatosPrueba.pedidos(pedidoRepository, productos, 10, POCOS);
+        DatosPrueba.pedidos(pedidoRepository, productos, 1000, MUCHOS);
+        // El catálogo se construye una vez; no debe contar en ninguna de las dos mediciones
+        catalogoCache.invalidar();
+        catalogoCache.obtener();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void limpiar() {
+        DatosPrueba.borrarTodo(jdbcTemplate);
+    }
+
+    @Test
+    void listadoPorRangoNoDependeDelNumeroDePedidos() {
+        long pocos = sentencias(() -> assertThat(pedidoService.obtenerReportePedidos(POCOS, POCOS.plusMonths(6)))
+                .hasSize(10)
+                .allSatisfy(p -> assertThat(p.getProductos()).hasSize(3)));
+        long muchos = sentencias(() -> assertThat(pedidoService.obtenerReportePedidos(MUCHOS, MUCHOS.plusMonths(6)))
+                .hasSize(1000)
+                .allSatisfy(p -> assertThat(p.getProductos()).hasSize(3)));
+
+        assertThat(muchos).isEqualTo(pocos);
+    }
+
+    @Test
+    void reporteNoDependeDelNumeroDePedidos() {
+        long pocos = sentencias(() -> assertThat(reporte(POCOS)).containsEntry("totalPedidos", 10L));
+        long muchos = sentencias(() -> assertThat(reporte(MUCHOS)).containsEntry("totalPedidos", 1000L));
+
+        assertThat(muchos).isEqualTo(pocos);
+    }
+
+    @Test
+    void paginaDePedidosNoDependeDelNumeroDePedidos() {
+        long primera = sentencias(() -> assertThat(pedidoService.obtenerPaginaPedidos(null, 20).getPedidos())
+                .hasSize(20));
+        long grande = sentencias(() -> assertThat(pedidoService.obtenerPaginaPedidos(null, 200).getPedidos())
+                .hasSize(200)
+                .extracting(PedidoResponse::getProductos)
+                .allSatisfy(lineas -> assertThat(lineas).hasSize(3)));
+
+        assertThat(grande).isEqualTo(primera);
+    }
+
+    private Map<String, Object> reporte(LocalDateTime inicio) {
+        return reporteService.generarReporte(inicio, inicio.plusMonths(6), "todos");
+    }
+
+    private long sentencias(Runnable accion) {
+        estadisticas.clear();
+        accion.run();
+        return estadisticas.getPrepareStatementCount();
+    }
+}
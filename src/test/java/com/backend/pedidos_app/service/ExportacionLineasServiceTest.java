@@ -0,0 +1,186 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.DatosPrueba;
+import com.backend.pedidos_app.model.Pedido;
+import com.backend.pedidos_app.repository.CategoriaRepository;
+import com.backend.pedidos_app.repository.PedidoRepository;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+// Exportación de líneas sobre H2 (fetch size positivo del perfil de pruebas). Con 100 filas por
+// hoja, los 60 pedidos de tres líneas llenan "Líneas" y siguen en "Líneas (2)"
+@SpringBootTest(properties = "app.exportacion.filas-por-hoja=100")
+class ExportacionLineasServiceTest {
+    private static final LocalDateTime DESDE = LocalDateTime.of(2023, 3, 1, 9, 0);
+    private static final LocalDateTime HASTA = DESDE.plusDays(5);
+    private static final int PEDIDOS = 60;
+    private static final String CLIENTE = "Pérez, Ana";
+    private static final String PERSONALIZACION = "sin azúcar, \"extra\" caliente\r\nleche de almendra";
+
+    @Autowired
+    private ExportacionLineasService exportacionLineasService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Pedido> pedidos;
+    private Long pedidoEspecial;
+
+    @BeforeEach
+    void preparar() {
+        pedidos = DatosPrueba.pedidos(pedidoRepository,
+                DatosPrueba.productos(categoriaRepository, productoRepository, 4), PEDIDOS, DESDE);
+        pedidoEspecial = pedidos.get(7).getId();
+        jdbcTemplate.update("UPDATE pedidos SET nombre_cliente = ? WHERE id = ?", CLIENTE, pedidoEspecial);
+        jdbcTemplate.update("UPDATE pedido_productos SET personalizaciones = ? WHERE pedido_id = ? AND producto_order = 1",
+                PERSONALIZACION, pedidoEspecial);
+    }
+
+    @AfterEach
+    void limpiar() {
+        DatosPrueba.borrarTodo(jdbcTemplate);
+    }
+
+    @Test
+    void csvTieneUnaFilaPorLineaEnOrdenYEscapaLosCampos() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long total = exportacionLineasService.escribirCsv(DESDE, HASTA, "todos", salida);
+
+        String csv = salida.toString(StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("\uFEFF");
+        List<List<String>> filas = leerCsv(csv.substring(1));
+        assertThat(filas.get(0)).containsExactly(ExcelExportService.COLUMNAS_LINEAS);
+        List<List<String>> datos = filas.subList(1, filas.size());
+        assertThat(total).isEqualTo(PEDIDOS * 3L);
+        assertThat(datos).hasSize(PEDIDOS * 3);
+        // Por fecha de pedido y luego por el orden de la línea (cantidad = orden + 1 en DatosPrueba)
+        assertThat(datos).extracting(fila -> fila.get(0) + "/" + fila.get(9)).containsExactlyElementsOf(esperadas(null));
+        assertThat(datos).filteredOn(fila -> fila.get(0).equals(pedidoEspecial.toString()))
+                .extracting(fila -> fila.get(2)).containsOnly(CLIENTE);
+        assertThat(datos).filteredOn(fila -> fila.get(0).equals(pedidoEspecial.toString()))
+                .extracting(fila -> fila.get(12)).containsExactly("", PERSONALIZACION, "");
+    }
+
+    @Test
+    void csvFiltraPorEstado() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long total = exportacionLineasService.escribirCsv(DESDE, HASTA, "listo", salida);
+
+        List<List<String>> datos = leerCsv(salida.toString(StandardCharsets.UTF_8).substring(1));
+        datos = datos.subList(1, datos.size());
+        assertThat(total).isEqualTo(datos.size());
+        assertThat(datos).extracting(fila -> fila.get(6)).containsOnly("listo");
+        assertThat(datos).extracting(fila -> fila.get(0) + "/" + fila.get(9))
+                .containsExactlyElementsOf(esperadas("listo"));
+    }
+
+    @Test
+    void xlsxContinuaEnOtraHojaSinRepetirNiSaltarFilas() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long total = exportacionLineasService.escribirXlsx(DESDE, HASTA, "todos", salida);
+
+        assertThat(total).isEqualTo(PEDIDOS * 3L);
+        try (Workbook libro = new XSSFWorkbook(new ByteArrayInputStream(salida.toByteArray()))) {
+            assertThat(libro.getNumberOfSheets()).isEqualTo(2);
+            Sheet primera = libro.getSheet("Líneas");
+            Sheet segunda = libro.getSheet("Líneas (2)");
+            assertThat(primera.getLastRowNum()).isEqualTo(100);
+            assertThat(segunda.getLastRowNum()).isEqualTo(PEDIDOS * 3 - 100);
+
+            List<String> lineas = new ArrayList<>();
+            for (Sheet hoja : List.of(primera, segunda)) {
+                assertThat(hoja.getRow(0).getCell(0).getStringCellValue()).isEqualTo("Pedido");
+                for (Row fila : hoja) {
+                    if (fila.getRowNum() == 0) {
+                        continue;
+                    }
+                    long pedido = (long) fila.getCell(0).getNumericCellValue();
+                    lineas.add(pedido + "/" + (long) fila.getCell(9).getNumericCellValue());
+                    if (pedido == pedidoEspecial && fila.getCell(9).getNumericCellValue() == 2) {
+                        assertThat(fila.getCell(12).getStringCellValue()).isEqualTo(PERSONALIZACION);
+                    }
+                }
+            }
+            assertThat(lineas).containsExactlyElementsOf(esperadas(null));
+        }
+    }
+
+    // "pedido/cantidad" de cada línea en el orden de la exportación
+    private List<String> esperadas(String estado) {
+        List<String> esperadas = new ArrayList<>();
+        for (Pedido pedido : pedidos) {
+            if (estado == null || estado.equals(pedido.getEstado())) {
+                for (int cantidad = 1; cantidad <= 3; cantidad++) {
+                    esperadas.add(pedido.getId() + "/" + cantidad);
+                }
+            }
+        }
+        return esperadas;
+    }
+
+    // RFC 4180: comillas dobles alrededor de campos con separadores y "" para una comilla
+    private static List<List<String>> leerCsv(String csv) {
+        List<List<String>> filas = new ArrayList<>();
+        List<String> fila = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                fila.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                fila.add(campo.toString());
+                campo.setLength(0);
+                filas.add(fila);
+                fila = new ArrayList<>();
+                i++;
+            } else {
+                campo.append(c);
+            }
+        }
+        return filas;
+    }
+}
@@ -0,0 +1,139 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.pedidos_app.model.Producto;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+class ImagenProductoServiceTest {
+    private static final String URL = "https://supabase.invalid/storage/v1/object/public/productos/";
+
+    private final SupabaseStorageService storageService = mock(SupabaseStorageService.class);
+    private final ProductoRepository productoRepository = mock(ProductoRepository.class);
+    private final CatalogoCache catalogoCache = mock(CatalogoCache.class);
+    private ImagenProductoService service;
+
+    // Variantes subidas por nombre de archivo (producto-7-completa.jpg, ...)
+    private final Map<String, byte[]> subidas = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void preparar() {
+        Producto producto = new Producto();
+        producto.setId(7L);
+        when(productoRepository.findById(7L)).thenReturn(Optional.of(producto));
+        when(productoRepository.actualizarImagenes(eq(7L), any(), any(), any(), anyString())).thenReturn(1);
+        when(storageService.uploadBytes(any(), anyString(), anyString(), anyString())).thenAnswer(i -> {
+            String nombre = i.getArgument(2);
+            subidas.put(nombre, i.getArgument(0));
+            return URL + nombre;
+        });
+
+        service = new ImagenProductoService();
+        ReflectionTestUtils.setField(service, "storageService", storageService);
+        ReflectionTestUtils.setField(service, "productoRepository", productoRepository);
+        ReflectionTestUtils.setField(service, "catalogoCache", catalogoCache);
+        ReflectionTestUtils.setField(service, "bucketProductos", "productos");
+        ReflectionTestUtils.setField(service, "anchoCompleta", 1600);
+        ReflectionTestUtils.setField(service, "anchoMedia", 600);
+        ReflectionTestUtils.setField(service, "anchoMiniatura", 200);
+        ReflectionTestUtils.setField(service, "calidadJpeg", 0.82f);
+        ReflectionTestUtils.setField(service, "hilos", 1);
+        service.inicializar();
+    }
+
+    @AfterEach
+    void detener() {
+        service.detener();
+    }
+
+    @Test
+    void variantesTienenSuAnchoYConservanLaProporcion() throws Exception {
+        // 4000 px: se submuestrea a la mitad al decodificar y luego se reduce a cada ancho
+        service.procesar(7L, png(4000, 3000));
+
+        verify(productoRepository, timeout(10000)).actualizarImagenes(7L,
+                URL + "producto-7-completa.jpg", URL + "producto-7-media.jpg",
+                URL + "producto-7-miniatura.jpg", "image/jpeg");
+        assertThat(dimensiones("producto-7-completa.jpg")).containsExactly(1600, 1200);
+        assertThat(dimensiones("producto-7-media.jpg")).containsExactly(600, 450);
+        assertThat(dimensiones("producto-7-miniatura.jpg")).containsExactly(200, 150);
+        verify(catalogoCache).invalidar();
+    }
+
+    @Test
+    void imagenPequenaNoSeAmplia() throws Exception {
+        service.procesar(7L, png(300, 100));
+
+        verify(productoRepository, timeout(10000)).actualizarImagenes(eq(7L), anyString(), anyString(),
+                anyString(), eq("image/jpeg"));
+        assertThat(dimensiones("producto-7-completa.jpg")).containsExactly(300, 100);
+        assertThat(dimensiones("producto-7-media.jpg")).containsExactly(300, 100);
+        assertThat(dimensiones("producto-7-miniatura.jpg")).containsExactly(200, 67);
+    }
+
+    @Test
+    void formatoNoDecodificableSeSubeSinVariantes() throws Exception {
+        when(storageService.uploadFile(any(Path.class), eq("image/webp"), eq("foto.webp"), eq("productos")))
+                .thenReturn(URL + "foto.webp");
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8 no es una imagen que ImageIO sepa leer".getBytes();
+
+        service.procesar(7L, new MockMultipartFile("imagen", "foto.webp", "image/webp", webp));
+
+        verify(productoRepository, timeout(10000)).actualizarImagenes(eq(7L), eq(URL + "foto.webp"),
+                isNull(), isNull(), eq("image/webp"));
+        assertThat(subidas).isEmpty();
+    }
+
+    @Test
+    void siFallaUnaSubidaSeBorranLasVariantesYaSubidas() throws Exception {
+        when(storageService.uploadBytes(any(), anyString(), eq("producto-7-media.jpg"), anyString()))
+                .thenThrow(new IllegalStateException("Supabase no responde"));
+
+        service.procesar(7L, png(800, 600));
+
+        verify(storageService, timeout(10000)).deleteFile(URL + "producto-7-completa.jpg");
+        verify(storageService, timeout(10000)).deleteFile(URL + "producto-7-miniatura.jpg");
+        verify(productoRepository, after(200).never()).actualizarImagenes(any(), any(), any(), any(), any());
+        verify(catalogoCache, never()).invalidar();
+    }
+
+    private int[] dimensiones(String nombre) throws IOException {
+        assertThat(subidas).containsKey(nombre);
+        BufferedImage imagen = ImageIO.read(new ByteArrayInputStream(subidas.get(nombre)));
+        return new int[]{imagen.getWidth(), imagen.getHeight()};
+    }
+
+    private static MockMultipartFile png(int ancho, int alto) throws IOException {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "png", salida);
+        return new MockMultipartFile("imagen", "foto.png", "image/png", salida.toByteArray());
+    }
+}
@@ -0,0 +1,77 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.backend.pedidos_app.dto.CategoriaDto;
+import com.backend.pedidos_app.dto.ProductoDto;
+
+class IndiceBusquedaProductosTest {
+    private static final CategoriaDto BEBIDAS = categoria(1L, "Bebidas");
+    private static final CategoriaDto POSTRES = categoria(2L, "Postres");
+
+    private final IndiceBusquedaProductos indice = new IndiceBusquedaProductos(List.of(
+            producto(1L, "Café americano", "Café de grano", BEBIDAS),
+            producto(2L, "Capuchino", "Espresso con leche espumada", BEBIDAS),
+            producto(3L, "Torta de chocolate", "Bizcocho húmedo", POSTRES),
+            producto(4L, "Malteada", "Con helado de chocolate", BEBIDAS),
+            producto(5L, "Chocolate caliente", "Bebida de cacao", BEBIDAS)));
+
+    @Test
+    void ignoraAcentosYMayusculas() {
+        assertThat(ids(indice.buscar("cafe", 10))).containsExactly(1L);
+        assertThat(ids(indice.buscar("CAFÉ Americano", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void toleraErroresDeEscritura() {
+        assertThat(ids(indice.buscar("capuchno", 10))).containsExactly(2L);
+        assertThat(ids(indice.buscar("torta de chocolte", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void coincidenciaEnElNombrePesaMasQueEnLaDescripcion() {
+        // "Chocolate caliente" además empieza con la búsqueda; "Malteada" solo la tiene en la descripción
+        assertThat(ids(indice.buscar("chocolate", 10))).containsExactly(5L, 3L, 4L);
+    }
+
+    @Test
+    void respetaElLimite() {
+        assertThat(indice.buscar("chocolate", 2)).hasSize(2);
+        assertThat(indice.buscar("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void autocompletarTomaLaUltimaPalabraComoPrefijo() {
+        assertThat(indice.autocompletar("choc", 10)).containsExactly("Chocolate caliente", "Torta de chocolate");
+        assertThat(indice.autocompletar("torta de choc", 10)).containsExactly("Torta de chocolate");
+        assertThat(indice.autocompletar("cafe am", 10)).containsExactly("Café americano");
+        // El prefijo no admite errores: solo las palabras anteriores
+        assertThat(indice.autocompletar("chox", 10)).isEmpty();
+    }
+
+    private static List<Long> ids(List<ProductoDto> productos) {
+        return productos.stream().map(ProductoDto::getId).toList();
+    }
+
+    private static CategoriaDto categoria(Long id, String nombre) {
+        CategoriaDto categoria = new CategoriaDto();
+        categoria.setId(id);
+        categoria.setNombre(nombre);
+        categoria.setActivo(true);
+        return categoria;
+    }
+
+    private static ProductoDto producto(Long id, String nombre, String descripcion, CategoriaDto categoria) {
+        ProductoDto producto = new ProductoDto();
+        producto.setId(id);
+        producto.setNombre(nombre);
+        producto.setDescripcion(descripcion);
+        producto.setCategoria(categoria);
+        producto.setActivo(true);
+        return producto;
+    }
+}
@@ -0,0 +1,139 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.DatosPrueba;
+import com.backend.pedidos_app.dto.PedidoResponse;
+import com.backend.pedidos_app.exception.ResourceNotFoundException;
+import com.backend.pedidos_app.exception.SolicitudInvalidaException;
+import com.backend.pedidos_app.model.Pedido;
+import com.backend.pedidos_app.model.Producto;
+import com.backend.pedidos_app.repository.CategoriaRepository;
+import com.backend.pedidos_app.repository.PedidoRepository;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Cambios de estado y registro de comprobante: se aplican con UPDATE condicionales y la respuesta
+// se arma con la lectura previa, sin cargar la entidad Pedido ni volver a consultarla
+@SpringBootTest
+class PedidoEstadoTest {
+    private static final LocalDateTime FECHA = LocalDateTime.of(2022, 3, 1, 9, 0);
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    // DatosPrueba: el primero es transferencia y pendiente, el segundo efectivo y en_preparacion
+    private Long transferencia;
+    private Long efectivo;
+
+    @BeforeEach
+    void preparar() {
+        List<Producto> productos = DatosPrueba.productos(categoriaRepository, productoRepository, 3);
+        List<Pedido> pedidos = DatosPrueba.pedidos(pedidoRepository, productos, 2, FECHA);
+        transferencia = pedidos.get(0).getId();
+        efectivo = pedidos.get(1).getId();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.setStatisticsEnabled(true);
+        estadisticas.clear();
+    }
+
+    @AfterEach
+    void limpiar() {
+        DatosPrueba.borrarTodo(jdbcTemplate);
+    }
+
+    @Test
+    void cambioDeEstadoRespondeSinRecargarElPedido() {
+        PedidoResponse respuesta = pedidoService.actualizarEstadoPedido(transferencia, "en_preparacion");
+
+        assertThat(estadisticas.getEntityStatistics(Pedido.class.getName()).getLoadCount()).isZero();
+        // Lectura en filas planas, UPDATE condicional y cuatro ajustes del resumen diario
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(6);
+
+        assertThat(respuesta.getEstado()).isEqualTo("en_preparacion");
+        assertIgualALaBase(respuesta);
+    }
+
+    @Test
+    void mismoEstadoNoEscribe() {
+        PedidoResponse respuesta = pedidoService.actualizarEstadoPedido(efectivo, "en_preparacion");
+
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertIgualALaBase(respuesta);
+    }
+
+    @Test
+    void transicionNoPermitidaSeRechaza() {
+        assertThatThrownBy(() -> pedidoService.actualizarEstadoPedido(transferencia, "entregado"))
+                .isInstanceOf(SolicitudInvalidaException.class);
+        assertThat(estado(transferencia)).isEqualTo("pendiente");
+        assertThatThrownBy(() -> pedidoService.actualizarEstadoPedido(-1L, "listo"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void comprobanteDeTransferenciaPasaAVerificacionEnUnaSentencia() {
+        PedidoResponse respuesta = pedidoService.registrarComprobanteSubido(transferencia, "https://cdn/comprobante.jpg");
+
+        assertThat(estadisticas.getEntityStatistics(Pedido.class.getName()).getLoadCount()).isZero();
+        assertThat(respuesta.getEstado()).isEqualTo("pendiente_verificacion");
+        assertThat(respuesta.getComprobanteUrl()).isEqualTo("https://cdn/comprobante.jpg");
+        assertThat(respuesta.getComprobanteEstado()).isEqualTo(ComprobanteUploadService.ESTADO_SUBIDO);
+        assertIgualALaBase(respuesta);
+    }
+
+    @Test
+    void comprobanteEnEfectivoNoCambiaElEstado() {
+        PedidoResponse respuesta = pedidoService.registrarComprobanteSubido(efectivo, "https://cdn/comprobante.jpg");
+
+        assertThat(respuesta.getEstado()).isEqualTo("en_preparacion");
+        assertThat(respuesta.getComprobanteEstado()).isEqualTo(ComprobanteUploadService.ESTADO_SUBIDO);
+        assertIgualALaBase(respuesta);
+    }
+
+    // La respuesta armada sin recargar debe coincidir con lo que quedó guardado
+    private void assertIgualALaBase(PedidoResponse respuesta) {
+        PedidoResponse guardado = pedidoService.obtenerPedidosPorEstado(respuesta.getEstado()).stream()
+                .filter(p -> p.getId().equals(respuesta.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(respuesta).usingRecursiveComparison().isEqualTo(guardado);
+    }
+
+    private String estado(Long id) {
+        Map<String, Object> fila = jdbcTemplate.queryForMap("SELECT estado FROM pedidos WHERE id = ?", id);
+        return (String) fila.get("ESTADO");
+    }
+}
@@ -0,0 +1,208 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.backend.pedidos_app.dto.PedidoEvento;
+import com.backend.pedidos_app.dto.PedidoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class PedidoEventosServiceTest {
+    private static final int COLA = 8;
+
+    private PedidoEventosService service;
+    // Emisores en el orden en que el servicio los crea (uno por suscripción)
+    private final List<EmisorPrueba> emisores = new CopyOnWriteArrayList<>();
+    // El próximo emisor creado queda bloqueado en su primer envío hasta que se libere
+    private volatile CountDownLatch bloqueoSiguiente;
+
+    @BeforeEach
+    void preparar() {
+        service = new PedidoEventosService() {
+            @Override
+            SseEmitter crearEmitter() {
+                EmisorPrueba emisor = new EmisorPrueba(bloqueoSiguiente);
+                bloqueoSiguiente = null;
+                emisores.add(emisor);
+                return emisor;
+            }
+        };
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(service, "tamanoBuffer", 100);
+        ReflectionTestUtils.setField(service, "capacidadCola", COLA);
+        ReflectionTestUtils.setField(service, "hilos", 4);
+        ReflectionTestUtils.setField(service, "timeoutMs", 60_000L);
+        service.inicializar();
+    }
+
+    @AfterEach
+    void detener() {
+        service.detener();
+    }
+
+    @Test
+    void clienteLentoSeDesconectaSinFrenarALosDemas() {
+        CountDownLatch liberar = new CountDownLatch(1);
+        bloqueoSiguiente = liberar;
+        service.suscribir(null);
+        EmisorPrueba lento = emisores.get(0);
+        List<EmisorPrueba> rapidos = suscribir(50, null);
+
+        // Los rápidos reciben cada evento antes del siguiente; el lento queda en su primer envío,
+        // los siguientes COLA llenan su cola y el último la desborda
+        for (int i = 1; i <= COLA + 2; i++) {
+            publicar(1);
+            int recibidos = i;
+            esperar(() -> rapidos.stream().allMatch(e -> e.ids.size() == recibidos));
+        }
+
+        esperar(() -> lento.completado);
+        assertThat(service.estadisticas()).containsEntry("desconectadosPorLentitud", 1L)
+                .containsEntry("suscriptores", 50);
+        List<String> esperados = List.copyOf(rapidos.get(0).ids);
+        assertThat(rapidos).allSatisfy(e -> assertThat(e.ids).containsExactlyElementsOf(esperados));
+        assertThat(rapidos).allSatisfy(e -> assertThat(e.tipos).containsOnly(PedidoEvento.ESTADO_CAMBIADO));
+
+        liberar.countDown();
+        // Tras desconectarlo no se le envía nada más que lo que ya estaba en curso
+        esperar(() -> lento.ids.size() == 1);
+        assertThat(lento.ids).containsExactly(esperados.get(0));
+
+        // Al reconectar le faltan más eventos de los que caben en su cola: recibe "reinicio" con el
+        // último id (recarga la lista) y desde ahí sigue con los eventos nuevos
+        service.suscribir(lento.ids.get(0));
+        EmisorPrueba reconectado = emisores.get(emisores.size() - 1);
+        publicar(1);
+        esperar(() -> reconectado.ids.size() == 2 && rapidos.get(0).ids.size() == COLA + 3);
+        assertThat(reconectado.tipos).containsExactly("reinicio", PedidoEvento.ESTADO_CAMBIADO);
+        assertThat(reconectado.ids.get(0)).isEqualTo(esperados.get(esperados.size() - 1));
+        assertThat(reconectado.ids.get(1)).isEqualTo(rapidos.get(0).ids.get(COLA + 2));
+    }
+
+    @Test
+    void muchosClientesReanudanDesdeElBuffer() {
+        publicar(6);
+        String ultimo = (String) service.estadisticas().get("ultimoEventoId");
+        assertThat(ultimo).endsWith("-6");
+        String tercero = ultimo.substring(0, ultimo.length() - 1) + "3";
+
+        List<EmisorPrueba> reconectados = suscribir(40, tercero);
+        publicar(2);
+
+        esperar(() -> reconectados.stream().allMatch(e -> e.ids.size() == 5));
+        String prefijo = tercero.substring(0, tercero.length() - 1);
+        assertThat(reconectados).allSatisfy(e -> assertThat(e.ids)
+                .containsExactly(prefijo + "4", prefijo + "5", prefijo + "6", prefijo + "7", prefijo + "8"));
+    }
+
+    @Test
+    void idDeOtroArranqueRecibeReinicio() {
+        publicar(3);
+        String ultimo = (String) service.estadisticas().get("ultimoEventoId");
+
+        service.suscribir("otroarranque-2");
+        service.suscribir("2"); // Formato anterior, sin prefijo
+        service.suscribir(ultimo);
+        publicar(1);
+
+        esperar(() -> emisores.get(0).ids.size() == 2 && emisores.get(1).ids.size() == 2
+                && emisores.get(2).ids.size() == 1);
+        assertThat(emisores.get(0).tipos).containsExactly("reinicio", PedidoEvento.ESTADO_CAMBIADO);
+        assertThat(emisores.get(0).ids.get(0)).isEqualTo(ultimo);
+        assertThat(emisores.get(1).tipos).containsExactly("reinicio", PedidoEvento.ESTADO_CAMBIADO);
+        assertThat(emisores.get(2).tipos).containsExactly(PedidoEvento.ESTADO_CAMBIADO);
+    }
+
+    private List<EmisorPrueba> suscribir(int cantidad, String ultimoEventoId) {
+        int desde = emisores.size();
+        for (int i = 0; i < cantidad; i++) {
+            service.suscribir(ultimoEventoId);
+        }
+        return new ArrayList<>(emisores.subList(desde, emisores.size()));
+    }
+
+    private void publicar(int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            PedidoResponse pedido = new PedidoResponse();
+            pedido.setId((long) i);
+            service.publicar(new PedidoEvento(PedidoEvento.ESTADO_CAMBIADO, "pendiente", pedido));
+        }
+    }
+
+    private static void esperar(BooleanSupplier condicion) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(limite);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // Registra los eventos enviados (id y nombre) en lugar de escribirlos en una respuesta HTTP
+    private static class EmisorPrueba extends SseEmitter {
+        final List<String> ids = new CopyOnWriteArrayList<>();
+        final List<String> tipos = new CopyOnWriteArrayList<>();
+        private final CountDownLatch bloqueo;
+        volatile boolean completado;
+
+        EmisorPrueba(CountDownLatch bloqueo) {
+            this.bloqueo = bloqueo;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (bloqueo != null) {
+                try {
+                    bloqueo.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder texto = new StringBuilder();
+            builder.build().forEach(parte -> texto.append(parte.getData()));
+            String id = null;
+            String tipo = null;
+            for (String linea : texto.toString().split("\n")) {
+                if (linea.startsWith("id:")) {
+                    id = linea.substring(3);
+                } else if (linea.startsWith("event:")) {
+                    tipo = linea.substring(6);
+                }
+            }
+            if (id != null) {
+                // El tipo se agrega antes que el id: quien espera por ids ya ve ambos
+                tipos.add(tipo);
+                ids.add(id);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completado = true;
+            super.complete();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completado = true;
+            super.completeWithError(ex);
+        }
+    }
+}
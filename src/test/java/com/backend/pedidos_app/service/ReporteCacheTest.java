@@ -0,0 +1,162 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.pedidos_app.dto.PedidoEvento;
+import com.backend.pedidos_app.dto.PedidoResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ReporteCacheTest {
+    private static final LocalDateTime ENERO = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private static final LocalDateTime FIN_ENERO = LocalDateTime.of(2023, 1, 31, 23, 59, 59);
+    private static final LocalDateTime FEBRERO = LocalDateTime.of(2023, 2, 1, 0, 0);
+    private static final LocalDateTime FIN_FEBRERO = LocalDateTime.of(2023, 2, 28, 23, 59, 59);
+
+    @TempDir
+    Path directorio;
+
+    private final CatalogoCache catalogoCache = mock(CatalogoCache.class);
+    private ReporteCache cache;
+    private final AtomicInteger calculos = new AtomicInteger();
+
+    @BeforeEach
+    void preparar() throws Exception {
+        when(catalogoCache.getVersion()).thenReturn(1L);
+        cache = new ReporteCache();
+        ReflectionTestUtils.setField(cache, "catalogoCache", catalogoCache);
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(cache, "habilitado", true);
+        ReflectionTestUtils.setField(cache, "maxEntradas", 200);
+        ReflectionTestUtils.setField(cache, "ttlHoySegundos", 60L);
+        ReflectionTestUtils.setField(cache, "directorio", directorio.toString());
+        ReflectionTestUtils.setField(cache, "maxMbDisco", 100L);
+        cache.inicializar();
+    }
+
+    @Test
+    void unRangoPasadoSeCalculaUnaSolaVez() {
+        obtener(ENERO, FIN_ENERO);
+        obtener(ENERO, FIN_ENERO);
+
+        assertThat(calculos).hasValue(1);
+        assertThat(cache.estadisticas()).containsEntry("aciertos", 1L).containsEntry("fallos", 1L);
+    }
+
+    @Test
+    void unPedidoDentroDelRangoLoInvalidaYUnoFueraNo() {
+        obtener(ENERO, FIN_ENERO);
+        obtener(FEBRERO, FIN_FEBRERO);
+
+        cache.registrarEscritura(evento(LocalDateTime.of(2023, 1, 15, 12, 0)));
+        obtener(ENERO, FIN_ENERO);
+        obtener(FEBRERO, FIN_FEBRERO);
+
+        // Enero se recalcula, febrero sigue en caché
+        assertThat(calculos).hasValue(3);
+        assertThat(cache.estadisticas()).containsEntry("invalidaciones", 1L).containsEntry("entradas", 2);
+    }
+
+    @Test
+    void losBordesDelRangoCuentanComoDentro() {
+        obtener(ENERO, FIN_ENERO);
+        cache.registrarEscritura(evento(FIN_ENERO));
+        obtener(ENERO, FIN_ENERO);
+        cache.registrarEscritura(evento(ENERO));
+        obtener(ENERO, FIN_ENERO);
+
+        assertThat(calculos).hasValue(3);
+    }
+
+    @Test
+    void unPedidoSinFechaInvalidaTodo() {
+        obtener(ENERO, FIN_ENERO);
+        obtener(FEBRERO, FIN_FEBRERO);
+
+        cache.registrarEscritura(evento(null));
+
+        assertThat(cache.estadisticas()).containsEntry("entradas", 0).containsEntry("invalidaciones", 2L);
+    }
+
+    @Test
+    void unCambioDelCatalogoInvalida() {
+        obtener(ENERO, FIN_ENERO);
+        when(catalogoCache.getVersion()).thenReturn(2L);
+        obtener(ENERO, FIN_ENERO);
+
+        assertThat(calculos).hasValue(2);
+    }
+
+    @Test
+    void noSeGuardaUnCalculoConEscriturasConcurrentes() {
+        // Un pedido se confirma mientras el reporte se está calculando
+        cache.obtener(ENERO, FIN_ENERO, "todos", () -> {
+            cache.registrarEscritura(evento(LocalDateTime.of(2024, 6, 1, 0, 0)));
+            return calcular().get();
+        });
+        obtener(ENERO, FIN_ENERO);
+
+        assertThat(calculos).hasValue(2);
+    }
+
+    @Test
+    void noSeGuardaUnReporteParcial() {
+        Supplier<Map<String, Object>> parcial = () -> {
+            Map<String, Object> reporte = calcular().get();
+            reporte.put("parcial", true);
+            return reporte;
+        };
+        cache.obtener(ENERO, FIN_ENERO, "todos", parcial);
+        cache.obtener(ENERO, FIN_ENERO, "todos", parcial);
+
+        assertThat(calculos).hasValue(2);
+    }
+
+    @Test
+    void unRangoQueIncluyeHoyVence() {
+        LocalDateTime hoy = LocalDate.now().atStartOfDay();
+        obtener(hoy, hoy.plusDays(1));
+        obtener(hoy, hoy.plusDays(1));
+        assertThat(calculos).hasValue(1);
+
+        ReflectionTestUtils.setField(cache, "ttlHoySegundos", 0L);
+        // Nueva entrada con TTL cero: vence en cuanto se guarda
+        cache.registrarEscritura(evento(hoy));
+        obtener(hoy, hoy.plusDays(1));
+        obtener(hoy, hoy.plusDays(1));
+        assertThat(calculos).hasValue(3);
+    }
+
+    private Map<String, Object> obtener(LocalDateTime inicio, LocalDateTime fin) {
+        return cache.obtener(inicio, fin, "todos", calcular());
+    }
+
+    private Supplier<Map<String, Object>> calcular() {
+        return () -> {
+            Map<String, Object> reporte = new HashMap<>();
+            reporte.put("calculo", calculos.incrementAndGet());
+            return reporte;
+        };
+    }
+
+    private static PedidoEvento evento(LocalDateTime fecha) {
+        PedidoResponse pedido = new PedidoResponse();
+        pedido.setId(1L);
+        pedido.setFechaPedido(fecha);
+        return new PedidoEvento(PedidoEvento.PEDIDO_CREADO, null, pedido);
+    }
+}
@@ -0,0 +1,132 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ReporteJobServiceTest {
+    private static final LocalDateTime INICIO = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private static final LocalDateTime FIN = LocalDateTime.of(2023, 1, 31, 23, 59, 59);
+
+    @TempDir
+    Path directorio;
+
+    private final ReporteService reporteService = mock(ReporteService.class);
+    private final ExcelExportService excelExportService = mock(ExcelExportService.class);
+    // Los reportes quedan generándose hasta que se libere
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private ReporteJobService service;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        when(reporteService.generarReporte(any(), any(), any())).thenAnswer(invocacion -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return Map.of("totalPedidos", 1L);
+        });
+        doAnswer(invocacion -> {
+            invocacion.<OutputStream>getArgument(1).write(new byte[]{1, 2, 3});
+            return null;
+        }).when(excelExportService).escribirReporte(any(), any(), any());
+
+        service = new ReporteJobService();
+        ReflectionTestUtils.setField(service, "reporteService", reporteService);
+        ReflectionTestUtils.setField(service, "excelExportService", excelExportService);
+        ReflectionTestUtils.setField(service, "concurrencia", 1);
+        ReflectionTestUtils.setField(service, "capacidadCola", 1);
+        ReflectionTestUtils.setField(service, "directorio", directorio.toString());
+        ReflectionTestUtils.setField(service, "ttlMinutos", 60L);
+        service.inicializar();
+    }
+
+    @AfterEach
+    void detener() {
+        liberar.countDown();
+        service.detener();
+    }
+
+    @Test
+    void solicitudesIdenticasEnCursoRecibenElMismoTrabajo() {
+        Object id = service.enviar(INICIO, FIN, "todos").get("id");
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.enviar(INICIO, FIN, "todos")).containsEntry("id", id);
+        }
+        assertThat(service.estadisticas()).containsEntry("trabajos", 1).containsEntry("enCurso", 1);
+
+        liberar.countDown();
+        esperar(() -> service.obtenerCompletado((String) id) != null);
+        verify(reporteService, times(1)).generarReporte(INICIO, FIN, "todos");
+        assertThat(service.obtenerCompletado((String) id).getTamano()).isEqualTo(3L);
+    }
+
+    @Test
+    void parametrosDistintosCreanTrabajosDistintos() {
+        Object todos = service.enviar(INICIO, FIN, "todos").get("id");
+        Object entregados = service.enviar(INICIO, FIN, "entregado").get("id");
+
+        assertThat(entregados).isNotEqualTo(todos);
+        assertThat(service.estadisticas()).containsEntry("trabajos", 2).containsEntry("enCurso", 2);
+    }
+
+    @Test
+    void terminadoElTrabajoUnaNuevaSolicitudGeneraOtro() {
+        Object primero = service.enviar(INICIO, FIN, "todos").get("id");
+        liberar.countDown();
+        esperar(() -> service.obtenerCompletado((String) primero) != null);
+
+        Object segundo = service.enviar(INICIO, FIN, "todos").get("id");
+
+        assertThat(segundo).isNotEqualTo(primero);
+        esperar(() -> service.obtenerCompletado((String) segundo) != null);
+        verify(reporteService, times(2)).generarReporte(eq(INICIO), eq(FIN), eq("todos"));
+    }
+
+    @Test
+    void conLaColaLlenaSeRechazaSinDejarTrabajoHuerfano() {
+        // Uno en proceso y uno en cola ocupan la concurrencia (1) y la cola (1)
+        service.enviar(INICIO, FIN, "todos");
+        esperar(() -> (int) service.estadisticas().get("activos") == 1);
+        service.enviar(INICIO, FIN, "entregado");
+
+        assertThatThrownBy(() -> service.enviar(INICIO, FIN, "cancelado")).isInstanceOf(IllegalStateException.class);
+        assertThat(service.estadisticas()).containsEntry("trabajos", 2).containsEntry("enCurso", 2);
+
+        // La solicitud rechazada no quedó registrada como en curso: al liberar espacio se acepta
+        liberar.countDown();
+        esperar(() -> (int) service.estadisticas().get("enCurso") == 0);
+        Object id = service.enviar(INICIO, FIN, "cancelado").get("id");
+        esperar(() -> service.obtenerCompletado((String) id) != null);
+    }
+
+    private static void esperar(BooleanSupplier condicion) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(limite);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backend.pedidos_app.config.SupabaseHttpConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Subidas contra un servidor local que hace de Supabase, con el RestTemplate real del pool
+class SupabaseStorageServiceTest {
+    // Mayor que los buffers de socket del loopback: si el cliente lo cargara en memoria antes
+    // de enviar, ya habría leído todo cuando el servidor recibe las cabeceras
+    private static final long TAMANO = 32L * 1024 * 1024;
+
+    private record Recibida(String metodo, String ruta, String contentLength, String transferEncoding,
+                            int puertoCliente, long bytesCuerpo, long leidosAlLlegar) {
+    }
+
+    private HttpServer servidor;
+    private CloseableHttpClient httpClient;
+    private SimpleMeterRegistry meterRegistry;
+    private SupabaseStorageService service;
+
+    private final List<Recibida> recibidas = new CopyOnWriteArrayList<>();
+    // Bytes entregados por el stream que se está subiendo
+    private final AtomicLong leidos = new AtomicLong();
+
+    @BeforeEach
+    void preparar() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/storage/v1/object/", this::responder);
+        servidor.start();
+        String url = "http://127.0.0.1:" + servidor.getAddress().getPort();
+
+        SupabaseHttpConfig config = new SupabaseHttpConfig();
+        httpClient = config.supabaseHttpClient(4, 2000, 10000, 2000);
+        meterRegistry = new SimpleMeterRegistry();
+
+        service = new SupabaseStorageService();
+        ReflectionTestUtils.setField(service, "supabaseUrl", url);
+        ReflectionTestUtils.setField(service, "supabaseKey", "clave");
+        ReflectionTestUtils.setField(service, "restTemplate", config.supabaseRestTemplate(httpClient));
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+    }
+
+    @AfterEach
+    void cerrar() throws IOException {
+        httpClient.close();
+        servidor.stop(0);
+    }
+
+    @Test
+    void subeEnStreamingConElContentLengthReal() {
+        String url = service.uploadStream(new Generado(TAMANO), TAMANO, "application/pdf", "comprobante.pdf", "comprobantes");
+
+        assertThat(url).contains("/storage/v1/object/public/comprobantes/").endsWith("-comprobante.pdf");
+        Recibida recibida = recibidas.get(0);
+        assertThat(recibida.metodo()).isEqualTo("POST");
+        assertThat(recibida.contentLength()).isEqualTo(String.valueOf(TAMANO));
+        assertThat(recibida.transferEncoding()).isNull();
+        assertThat(recibida.bytesCuerpo()).isEqualTo(TAMANO);
+        assertThat(recibida.leidosAlLlegar()).isLessThan(TAMANO);
+    }
+
+    @Test
+    void reutilizaLaConexionEntreSubidas() {
+        for (int i = 0; i < 5; i++) {
+            leidos.set(0);
+            service.uploadStream(new Generado(64 * 1024), 64 * 1024, "image/jpeg", "foto.jpg", "productos");
+        }
+        service.uploadBytes("hola".getBytes(StandardCharsets.UTF_8), "text/plain", "nota.txt", "productos");
+
+        assertThat(recibidas).hasSize(6);
+        assertThat(recibidas).extracting(Recibida::puertoCliente).containsOnly(recibidas.get(0).puertoCliente());
+    }
+
+    @Test
+    void registraLasLlamadasEnElTimer() {
+        String url = service.uploadBytes(new byte[128], "image/png", "logo.png", "productos");
+        service.deleteFile(url);
+
+        Timer subida = meterRegistry.find("supabase.storage").tag("operacion", "subida").tag("resultado", "ok").timer();
+        Timer eliminacion = meterRegistry.find("supabase.storage").tag("operacion", "eliminacion").tag("resultado", "ok").timer();
+        assertThat(subida).isNotNull();
+        assertThat(subida.count()).isEqualTo(1);
+        assertThat(eliminacion).isNotNull();
+        assertThat(eliminacion.count()).isEqualTo(1);
+        assertThat(recibidas).extracting(Recibida::metodo).containsExactly("POST", "DELETE");
+        assertThat(service.estadisticas()).containsKeys("subida", "eliminacion");
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        long leidosAlLlegar = leidos.get();
+        long bytesCuerpo = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream cuerpo = intercambio.getRequestBody()) {
+            int n;
+            while ((n = cuerpo.read(buffer)) != -1) {
+                bytesCuerpo += n;
+            }
+        }
+        recibidas.add(new Recibida(intercambio.getRequestMethod(), intercambio.getRequestURI().getPath(),
+                intercambio.getRequestHeaders().getFirst("Content-Length"),
+                intercambio.getRequestHeaders().getFirst("Transfer-Encoding"),
+                intercambio.getRemoteAddress().getPort(), bytesCuerpo, leidosAlLlegar));
+
+        byte[] respuesta = "{\"Key\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(200, respuesta.length);
+        intercambio.getResponseBody().write(respuesta);
+        intercambio.close();
+    }
+
+    // Stream de n bytes que se generan al leerlos y cuenta lo entregado
+    private class Generado extends InputStream {
+        private long restantes;
+
+        Generado(long tamano) {
+            this.restantes = tamano;
+        }
+
+        @Override
+        public int read() {
+            if (restantes == 0) {
+                return -1;
+            }
+            restantes--;
+            leidos.incrementAndGet();
+            return 'x';
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (restantes == 0) {
+                return -1;
+            }
+            int n = (int) Math.min(len, restantes);
+            Arrays.fill(b, off, off + n, (byte) 'x');
+            restantes -= n;
+            leidos.addAndGet(n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.backend.pedidos_app.DatosPrueba;
+import com.backend.pedidos_app.dto.PedidoProductoDto;
+import com.backend.pedidos_app.dto.PedidoRequest;
+import com.backend.pedidos_app.model.Producto;
+import com.backend.pedidos_app.repository.CategoriaRepository;
+import com.backend.pedidos_app.repository.ProductoRepository;
+
+// ventas_diarias se mantiene de forma incremental al crear pedidos y cambiar su estado. Un rango de
+// días completos se lee del resumen y uno que no empieza a medianoche se calcula sobre pedidos:
+// ambos deben dar lo mismo, y reconstruir() debe dejar las mismas filas que el mantenimiento
+@SpringBootTest
+class VentaDiariaServiceTest {
+    // Los pedidos se crean con la fecha actual: ayer, hoy y mañana cubren el cambio de día
+    private static final LocalDate AYER = LocalDate.now().minusDays(1);
+    private static final LocalDate MANANA = LocalDate.now().plusDays(1);
+
+    @Autowired
+    private PedidoService pedidoService;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private VentaDiariaService ventaDiariaService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void preparar() {
+        List<Producto> productos = DatosPrueba.productos(categoriaRepository, productoRepository, 3);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ids.add(crearPedido(productos, i));
+        }
+
+        avanzar(ids.get(0), "en_preparacion", "listo", "entregado");
+        avanzar(ids.get(1), "cancelado");
+        avanzar(ids.get(2), "pendiente_verificacion", "pendiente");
+        avanzar(ids.get(3), "en_preparacion", "cancelado");
+        avanzar(ids.get(4), "pendiente_verificacion", "en_preparacion", "listo");
+        avanzar(ids.get(5), "en_preparacion");
+    }
+
+    @AfterEach
+    void limpiar() {
+        DatosPrueba.borrarTodo(jdbcTemplate);
+    }
+
+    @Test
+    void rangoEsDeDiasCompletosSoloDeMedianocheAlFinDelDia() {
+        assertThat(ventaDiariaService.cubreDiasCompletos(AYER.atStartOfDay(), MANANA.atTime(LocalTime.MAX))).isTrue();
+        assertThat(ventaDiariaService.cubreDiasCompletos(AYER.atStartOfDay(), MANANA.atTime(23, 59, 59))).isTrue();
+        assertThat(ventaDiariaService.cubreDiasCompletos(AYER.atTime(0, 0, 1), MANANA.atTime(LocalTime.MAX))).isFalse();
+        assertThat(ventaDiariaService.cubreDiasCompletos(AYER.atStartOfDay(), MANANA.atTime(23, 59, 58))).isFalse();
+    }
+
+    @Test
+    void reporteDesdeResumenCoincideConElCalculadoSobrePedidos() {
+        for (String estado : List.of("todos", "pendiente", "entregado", "cancelado")) {
+            Map<String, Object> resumen = normalizar(reporteService.generarReporte(
+                    AYER.atStartOfDay(), MANANA.atTime(LocalTime.MAX), estado));
+            Map<String, Object> enVivo = normalizar(reporteService.generarReporte(
+                    AYER.atTime(0, 0, 1), MANANA.atTime(23, 59, 58), estado));
+
+            assertThat(resumen).as(estado).isEqualTo(enVivo);
+        }
+
+        Map<String, Object> todos = reporteService.generarReporte(AYER.atStartOfDay(), MANANA.atTime(LocalTime.MAX), "todos");
+        assertThat(todos).containsEntry("totalPedidos", 8L).containsEntry("pedidosCancelados", 2L);
+    }
+
+    @Test
+    void dashboardDesdeResumenCoincideConElCalculadoSobrePedidos() {
+        Map<String, Object> resumen = new HashMap<>(pedidoService.obtenerEstadisticasDashboard(
+                AYER.atStartOfDay(), MANANA.atTime(23, 59, 59)));
+        Map<String, Object> enVivo = new HashMap<>(pedidoService.obtenerEstadisticasDashboard(
+                AYER.atTime(0, 0, 1), MANANA.atTime(23, 59, 58)));
+        // Los últimos pedidos salen de la misma consulta en los dos caminos
+        resumen.remove("ultimosPedidos");
+        enVivo.remove("ultimosPedidos");
+
+        assertThat(resumen).isEqualTo(enVivo);
+        assertThat(resumen).containsEntry("totalPedidos", 8L).containsEntry("pedidosHoy", 8L)
+                .containsEntry("pedidosPendientes", 3L);
+    }
+
+    @Test
+    void reconstruirDejaLasMismasFilasQueElMantenimientoIncremental() {
+        List<Map<String, Object>> dias = filasDias();
+        List<Map<String, Object>> productos = filasProductos();
+        assertThat(dias).isNotEmpty();
+        assertThat(productos).isNotEmpty();
+
+        ventaDiariaService.reconstruir();
+
+        assertThat(filasDias()).isEqualTo(dias);
+        assertThat(filasProductos()).isEqualTo(productos);
+    }
+
+    private Long crearPedido(List<Producto> productos, int i) {
+        PedidoRequest request = new PedidoRequest();
+        request.setNombreCliente("Cliente " + (i % 3));
+        request.setTelefonoCliente("5555000" + (i % 3));
+        request.setTipoEntrega(i % 2 == 0 ? "recoger" : "domicilio");
+        request.setTipoPago(i % 2 == 0 ? "efectivo" : "transferencia");
+        List<PedidoProductoDto> lineas = new ArrayList<>();
+        for (int j = 0; j <= i % 3; j++) {
+            PedidoProductoDto linea = new PedidoProductoDto();
+            linea.setProductoId(productos.get((i + j) % productos.size()).getId());
+            linea.setCantidad(1 + (i + j) % 4);
+            lineas.add(linea);
+        }
+        request.setProductos(lineas);
+        return pedidoService.crearPedido(request).getId();
+    }
+
+    private void avanzar(Long id, String... estados) {
+        for (String estado : estados) {
+            pedidoService.actualizarEstadoPedido(id, estado);
+        }
+    }
+
+    // El orden de estadosPedidos dentro de un mes depende de la consulta: se compara como mapa
+    private static Map<String, Object> normalizar(Map<String, Object> reporte) {
+        Map<String, Object> copia = new HashMap<>(reporte);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> estados = (List<Map<String, Object>>) reporte.get("estadosPedidos");
+        copia.put("estadosPedidos", estados.stream()
+                .collect(Collectors.toMap(e -> e.get("estado"), e -> e.get("cantidad"))));
+        return copia;
+    }
+
+    // Las filas que quedaron en cero tras un cambio de estado no aportan y reconstruir no las crea
+    private List<Map<String, Object>> filasDias() {
+        return jdbcTemplate.queryForList("SELECT fecha, estado, cantidad_pedidos, total FROM ventas_diarias "
+                + "WHERE cantidad_pedidos <> 0 ORDER BY fecha, estado");
+    }
+
+    private List<Map<String, Object>> filasProductos() {
+        return jdbcTemplate.queryForList("SELECT fecha, estado, producto_id, cantidad, subtotal "
+                + "FROM ventas_diarias_productos WHERE cantidad <> 0 ORDER BY fecha, estado, producto_id");
+    }
+}
@@ -0,0 +1,113 @@
+package com.backend.pedidos_app.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.backend.pedidos_app.repository.PedidoRepository;
+
+class VersionCambiosPedidosTest {
+    private final PedidoRepository pedidoRepository = mock(PedidoRepository.class);
+    private VersionCambiosPedidos versiones;
+
+    @BeforeEach
+    void preparar() {
+        when(pedidoRepository.findMaxCambioVersion()).thenReturn(41L);
+        versiones = new VersionCambiosPedidos();
+        ReflectionTestUtils.setField(versiones, "pedidoRepository", pedidoRepository);
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void continuaDesdeLaMayorVersionGuardadaYConsultaUnaSolaVez() {
+        assertThat(versiones.marcaDeAgua()).isEqualTo(41L);
+        assertThat(versiones.siguiente()).isEqualTo(42L);
+        assertThat(versiones.siguiente()).isEqualTo(43L);
+        // Sin transacción la versión se confirma al asignarse
+        assertThat(versiones.marcaDeAgua()).isEqualTo(43L);
+        verify(pedidoRepository, times(1)).findMaxCambioVersion();
+    }
+
+    @Test
+    void laMarcaDeAguaNoPasaDeLaMenorVersionEnCurso() {
+        List<TransactionSynchronization> primera = enTransaccion(() -> assertThat(versiones.siguiente()).isEqualTo(42L));
+        List<TransactionSynchronization> segunda = enTransaccion(() -> assertThat(versiones.siguiente()).isEqualTo(43L));
+        assertThat(versiones.marcaDeAgua()).isEqualTo(41L);
+
+        // La 43 confirma antes que la 42: un cliente que leyera hasta 43 se saltaría la 42
+        terminar(segunda, TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(versiones.marcaDeAgua()).isEqualTo(41L);
+
+        // Un rollback también libera la versión (queda un hueco, no un cambio perdido)
+        terminar(primera, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(versiones.marcaDeAgua()).isEqualTo(43L);
+    }
+
+    @Test
+    void versionesUnicasYConsecutivasEntreHilos() throws Exception {
+        int hilos = 8;
+        int porHilo = 500;
+        Set<Long> asignadas = ConcurrentHashMap.newKeySet();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(ejecutor.submit(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        asignadas.add(versiones.siguiente());
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        assertThat(asignadas).hasSize(hilos * porHilo);
+        assertThat(asignadas.stream().mapToLong(Long::longValue).min().getAsLong()).isEqualTo(42L);
+        assertThat(asignadas.stream().mapToLong(Long::longValue).max().getAsLong()).isEqualTo(41L + hilos * porHilo);
+        assertThat(versiones.marcaDeAgua()).isEqualTo(41L + hilos * porHilo);
+    }
+
+    // Ejecuta la acción con sincronización de transacción activa y devuelve lo que registró,
+    // para poder terminar varias "transacciones" en cualquier orden desde el mismo hilo
+    private static List<TransactionSynchronization> enTransaccion(Runnable accion) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            accion.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void terminar(List<TransactionSynchronization> sincronizaciones, int estado) {
+        sincronizaciones.forEach(s -> s.afterCompletion(estado));
+    }
+}